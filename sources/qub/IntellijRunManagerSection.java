@@ -0,0 +1,116 @@
+package qub;
+
+/**
+ * The RunManager component of an IntelliJ workspace file's text. The run configurations are the
+ * only part of a workspace file that update changes, so this section can be parsed and
+ * regenerated on its own while the rest of the file's text is kept exactly as it was.
+ */
+public class IntellijRunManagerSection
+{
+    private static final String componentStartTag = "<component";
+    private static final String componentEndTag = "</component>";
+    private static final String runManagerNameAttribute = "name=\"RunManager\"";
+
+    private final String workspaceText;
+    private final int startIndex;
+    private final int endIndex;
+
+    private IntellijRunManagerSection(String workspaceText, int startIndex, int endIndex)
+    {
+        this.workspaceText = workspaceText;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * Find the RunManager component in the provided workspace file text.
+     */
+    public static IntellijRunManagerSection find(String workspaceText)
+    {
+        PreCondition.assertNotNull(workspaceText, "workspaceText");
+
+        IntellijRunManagerSection result = null;
+        int nameIndex = workspaceText.indexOf(IntellijRunManagerSection.runManagerNameAttribute);
+        while (result == null && nameIndex != -1)
+        {
+            final int startIndex = workspaceText.lastIndexOf(IntellijRunManagerSection.componentStartTag, nameIndex);
+            final int startTagEndIndex = workspaceText.indexOf('>', nameIndex);
+            if (startIndex != -1 && startTagEndIndex != -1 && workspaceText.lastIndexOf('>', nameIndex) < startIndex)
+            {
+                int endIndex = -1;
+                if (workspaceText.charAt(startTagEndIndex - 1) == '/')
+                {
+                    endIndex = startTagEndIndex + 1;
+                }
+                else
+                {
+                    // RunManager components don't contain other components, so the first
+                    // component end tag closes the RunManager component.
+                    final int endTagIndex = workspaceText.indexOf(IntellijRunManagerSection.componentEndTag, startTagEndIndex);
+                    if (endTagIndex != -1)
+                    {
+                        endIndex = endTagIndex + IntellijRunManagerSection.componentEndTag.length();
+                    }
+                }
+
+                if (endIndex != -1)
+                {
+                    result = new IntellijRunManagerSection(workspaceText, startIndex, endIndex);
+                }
+            }
+
+            if (result == null)
+            {
+                nameIndex = workspaceText.indexOf(IntellijRunManagerSection.runManagerNameAttribute, nameIndex + 1);
+            }
+        }
+        return result;
+    }
+
+    public int getStartIndex()
+    {
+        return this.startIndex;
+    }
+
+    public int getEndIndex()
+    {
+        return this.endIndex;
+    }
+
+    public String getText()
+    {
+        return this.workspaceText.substring(this.startIndex, this.endIndex);
+    }
+
+    /**
+     * Parse a workspace that only contains this RunManager component.
+     */
+    public IntellijWorkspace parseWorkspace()
+    {
+        return IntellijWorkspace.create(XML.parse("<project>" + this.getText() + "</project>").await());
+    }
+
+    /**
+     * Get the text of the workspace file with this RunManager component replaced by the RunManager
+     * component of the provided workspace.
+     */
+    public String replace(IntellijWorkspace intellijWorkspace)
+    {
+        PreCondition.assertNotNull(intellijWorkspace, "intellijWorkspace");
+
+        final String regeneratedText = intellijWorkspace.toString(XMLFormat.pretty);
+        final int componentStartIndex = regeneratedText.indexOf(IntellijRunManagerSection.componentStartTag);
+        final int componentEndIndex = regeneratedText.lastIndexOf("</project>");
+        String componentText = componentStartIndex == -1 || componentEndIndex < componentStartIndex
+            ? ""
+            : regeneratedText.substring(componentStartIndex, componentEndIndex).trim();
+        if (this.workspaceText.contains("\r\n") && !componentText.contains("\r\n"))
+        {
+            componentText = componentText.replace("\n", "\r\n");
+        }
+
+        return this.workspaceText.substring(0, this.startIndex) +
+            componentText +
+            this.workspaceText.substring(this.endIndex);
+    }
+}
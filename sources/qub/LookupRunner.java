@@ -0,0 +1,219 @@
+package qub;
+
+/**
+ * An object that runs blocking lookups (such as file system reads) either on the current thread
+ * or on an AsyncRunner with a bounded number of lookups in flight at a time. LookupRunners can be
+ * nested on one AsyncRunner: a nested map() also runs lookups on the calling thread, and a nested
+ * start() runs its lookup right away.
+ */
+public class LookupRunner
+{
+    public static final int defaultConcurrency = 16;
+
+    private static final java.lang.ThreadLocal<Boolean> runningLookup = java.lang.ThreadLocal.withInitial(() -> false);
+
+    private final AsyncRunner asyncRunner;
+    private final int concurrency;
+
+    private LookupRunner(AsyncRunner asyncRunner, int concurrency)
+    {
+        this.asyncRunner = asyncRunner;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Create a new LookupRunner that runs each lookup on the current thread.
+     */
+    public static LookupRunner create()
+    {
+        return new LookupRunner(null, 1);
+    }
+
+    /**
+     * Create a new LookupRunner that schedules its lookups on the provided AsyncRunner.
+     */
+    public static LookupRunner create(AsyncRunner asyncRunner, int concurrency)
+    {
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+        PreCondition.assertGreaterThanOrEqualTo(concurrency, 1, "concurrency");
+
+        return new LookupRunner(asyncRunner, concurrency);
+    }
+
+    public int getConcurrency()
+    {
+        return this.concurrency;
+    }
+
+    /**
+     * Run the provided lookup for each of the provided values.
+     */
+    public <T,U> List<U> map(Iterable<T> values, Function1<T,U> lookup)
+    {
+        PreCondition.assertNotNull(values, "values");
+        PreCondition.assertNotNull(lookup, "lookup");
+
+        final List<U> result;
+        if (this.asyncRunner == null || this.concurrency == 1)
+        {
+            result = List.create();
+            for (final T value : values)
+            {
+                result.add(lookup.run(value));
+            }
+        }
+        else
+        {
+            final LookupRunner.Lookups<T,U> lookups = new LookupRunner.Lookups<>(values.toList(), lookup, this.concurrency - 1);
+            final List<Result<Boolean>> workers = List.create();
+            for (int i = 0; i < lookups.getWorkerCount(); ++i)
+            {
+                final int workerIndex = i;
+                workers.add(this.asyncRunner.schedule(() -> lookups.run(workerIndex)));
+            }
+
+            // The calling thread runs lookups too, so a map() that is nested in another lookup
+            // still finishes when every thread of the AsyncRunner is busy. Only the workers that
+            // have claimed a value are awaited, since the others may still be queued behind busy
+            // threads and won't find a value to look up once they start.
+            lookups.run(-1);
+            for (int i = 0; i < workers.getCount(); ++i)
+            {
+                if (lookups.hasClaimedValue(i))
+                {
+                    workers.get(i).await();
+                }
+            }
+            result = lookups.getResults();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Start the provided lookup so that it can run while the caller does other work.
+     */
+    public <T> Result<T> start(Function0<T> lookup)
+    {
+        PreCondition.assertNotNull(lookup, "lookup");
+
+        // A lookup that is started from another lookup runs right away on the current thread.
+        // Otherwise the other lookup could block its thread waiting for a lookup that is queued
+        // behind it on the same AsyncRunner.
+        return this.asyncRunner == null || this.concurrency == 1 || LookupRunner.runningLookup.get()
+            ? Result.create(lookup)
+            : this.asyncRunner.schedule(() -> LookupRunner.runLookup(lookup));
+    }
+
+    private static <T> T runLookup(Function0<T> lookup)
+    {
+        final boolean wasRunningLookup = LookupRunner.runningLookup.get();
+        LookupRunner.runningLookup.set(true);
+        try
+        {
+            return lookup.run();
+        }
+        finally
+        {
+            LookupRunner.runningLookup.set(wasRunningLookup);
+        }
+    }
+
+    /**
+     * The values of a parallel map() and the results that have been looked up for them.
+     */
+    private static class Lookups<T,U>
+    {
+        private final List<T> values;
+        private final Function1<T,U> lookup;
+        private final List<U> results;
+        private final boolean[] workersClaimedValue;
+        private int nextIndex;
+        private int errorIndex;
+        private RuntimeException error;
+
+        Lookups(List<T> values, Function1<T,U> lookup, int maximumWorkerCount)
+        {
+            this.values = values;
+            this.lookup = lookup;
+            this.results = List.create();
+            for (int i = 0; i < values.getCount(); ++i)
+            {
+                this.results.add(null);
+            }
+            this.workersClaimedValue = new boolean[Math.max(0, Math.min(maximumWorkerCount, values.getCount() - 1))];
+            this.errorIndex = -1;
+        }
+
+        int getWorkerCount()
+        {
+            return this.workersClaimedValue.length;
+        }
+
+        synchronized boolean hasClaimedValue(int workerIndex)
+        {
+            return this.workersClaimedValue[workerIndex];
+        }
+
+        /**
+         * Look up values until there are none left or a lookup has failed.
+         */
+        boolean run(int workerIndex)
+        {
+            boolean result = false;
+            int index = this.claimNextIndex(workerIndex);
+            while (index != -1)
+            {
+                result = true;
+                final T value = this.values.get(index);
+                try
+                {
+                    final U lookupResult = LookupRunner.runLookup(() -> this.lookup.run(value));
+                    synchronized (this)
+                    {
+                        this.results.set(index, lookupResult);
+                    }
+                }
+                catch (RuntimeException e)
+                {
+                    synchronized (this)
+                    {
+                        if (this.error == null || index < this.errorIndex)
+                        {
+                            this.error = e;
+                            this.errorIndex = index;
+                        }
+                    }
+                }
+                index = this.claimNextIndex(workerIndex);
+            }
+            return result;
+        }
+
+        synchronized List<U> getResults()
+        {
+            if (this.error != null)
+            {
+                throw this.error;
+            }
+            return this.results;
+        }
+
+        private synchronized int claimNextIndex(int workerIndex)
+        {
+            int result = -1;
+            // Once a lookup has failed, the values that haven't been claimed yet aren't looked up.
+            if (this.error == null && this.nextIndex < this.values.getCount())
+            {
+                result = this.nextIndex++;
+                if (workerIndex != -1)
+                {
+                    this.workersClaimedValue[workerIndex] = true;
+                }
+            }
+            return result;
+        }
+    }
+}
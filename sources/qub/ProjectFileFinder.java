@@ -0,0 +1,427 @@
+package qub;
+
+/**
+ * An object that walks the files in a project folder. Folders that can't contain project files
+ * (such as outputs and version control folders) are not searched, nor are the folders that match
+ * the ignore patterns or the folder patterns of the project's .gitignore file. The folders of each
+ * depth are listed at the same time through a {@link LookupRunner}, and the listings can be cached
+ * between walks. A maximum depth limits the search, except within the unbounded folders (such as
+ * the tests folder) that are always searched completely.
+ */
+public class ProjectFileFinder
+{
+    public static final Iterable<String> defaultIgnorePatterns = Iterable.create(
+        ".git/",
+        ".hg/",
+        ".svn/",
+        "node_modules/",
+        "/outputs/",
+        "/target/");
+    public static final Iterable<String> unboundedFolders = Iterable.create(
+        "tests");
+
+    private static final String listingsPropertyName = "listings";
+
+    private final List<String> ignorePatterns;
+    private File listingCacheFile;
+    private boolean writeListingCache;
+    private boolean useGitignore;
+    private int maximumDepth;
+    private LookupRunner lookupRunner;
+
+    public ProjectFileFinder()
+    {
+        this.ignorePatterns = List.create(ProjectFileFinder.defaultIgnorePatterns);
+        this.writeListingCache = true;
+        this.useGitignore = true;
+        this.maximumDepth = -1;
+        this.lookupRunner = LookupRunner.create();
+    }
+
+    /**
+     * Create a new ProjectFileFinder with the same ignore patterns, depth, and LookupRunner as this
+     * one.
+     */
+    public ProjectFileFinder copy()
+    {
+        final ProjectFileFinder result = new ProjectFileFinder()
+            .setWriteListingCache(this.writeListingCache)
+            .setUseGitignore(this.useGitignore)
+            .setLookupRunner(this.lookupRunner);
+        result.maximumDepth = this.maximumDepth;
+        result.ignorePatterns.clear();
+        result.ignorePatterns.addAll(this.ignorePatterns);
+        return result;
+    }
+
+    public Iterable<String> getIgnorePatterns()
+    {
+        return this.ignorePatterns;
+    }
+
+    public ProjectFileFinder addIgnorePattern(String ignorePattern)
+    {
+        PreCondition.assertNotNullAndNotEmpty(ignorePattern, "ignorePattern");
+
+        this.ignorePatterns.add(ignorePattern);
+        return this;
+    }
+
+    public boolean getUseGitignore()
+    {
+        return this.useGitignore;
+    }
+
+    public ProjectFileFinder setUseGitignore(boolean useGitignore)
+    {
+        this.useGitignore = useGitignore;
+        return this;
+    }
+
+    public boolean hasMaximumDepth()
+    {
+        return this.maximumDepth >= 0;
+    }
+
+    public int getMaximumDepth()
+    {
+        return this.maximumDepth;
+    }
+
+    public ProjectFileFinder setMaximumDepth(int maximumDepth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumDepth, 0, "maximumDepth");
+
+        this.maximumDepth = maximumDepth;
+        return this;
+    }
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public ProjectFileFinder setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+
+    public File getListingCacheFile()
+    {
+        return this.listingCacheFile;
+    }
+
+    public ProjectFileFinder setListingCacheFile(File listingCacheFile)
+    {
+        PreCondition.assertNotNull(listingCacheFile, "listingCacheFile");
+
+        this.listingCacheFile = listingCacheFile;
+        return this;
+    }
+
+    public boolean getWriteListingCache()
+    {
+        return this.writeListingCache;
+    }
+
+    public ProjectFileFinder setWriteListingCache(boolean writeListingCache)
+    {
+        this.writeListingCache = writeListingCache;
+        return this;
+    }
+
+    /**
+     * Find the files with the provided extension in the provided folder.
+     */
+    public List<File> find(Folder folder, String fileExtension)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNullAndNotEmpty(fileExtension, "fileExtension");
+
+        final List<File> result = List.create();
+        this.walk(folder, (File file, String relativePath) ->
+        {
+            if (Comparer.equal(fileExtension, file.getFileExtension()))
+            {
+                result.add(file);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Visit each of the files in the provided folder that isn't ignored.
+     */
+    public void walk(Folder folder, Action2<File,String> visitor)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(visitor, "visitor");
+
+        final List<String> folderPatterns = List.create(this.ignorePatterns);
+        if (this.useGitignore)
+        {
+            folderPatterns.addAll(ProjectFileFinder.readGitignorePatterns(folder));
+        }
+
+        final Map<String,ProjectFolderListing> cachedListings = this.readListingCache();
+        final List<ProjectFolderListing> listings = List.create();
+
+        List<Folder> levelFolders = List.create(folder);
+        List<String> levelPaths = List.create("");
+        List<Boolean> levelUnbounded = List.create(false);
+        int depth = 0;
+        while (levelFolders.any())
+        {
+            final List<Integer> levelIndexes = List.create();
+            for (int i = 0; i < levelFolders.getCount(); ++i)
+            {
+                levelIndexes.add(i);
+            }
+
+            final List<Folder> currentFolders = levelFolders;
+            final List<String> currentPaths = levelPaths;
+            final List<ProjectFolderListing> levelListings = this.lookupRunner.map(levelIndexes, (Integer levelIndex) ->
+                this.getListing(currentPaths.get(levelIndex), currentFolders.get(levelIndex), cachedListings));
+
+            final List<Folder> nextFolders = List.create();
+            final List<String> nextPaths = List.create();
+            final List<Boolean> nextUnbounded = List.create();
+            for (int levelIndex = 0; levelIndex < levelListings.getCount(); ++levelIndex)
+            {
+                final ProjectFolderListing listing = levelListings.get(levelIndex);
+                if (listing != null)
+                {
+                    listings.add(listing);
+
+                    final Folder levelFolder = levelFolders.get(levelIndex);
+                    final String pathPrefix = listing.getPath().isEmpty() ? "" : listing.getPath() + "/";
+                    for (final String fileName : listing.getFileNames())
+                    {
+                        final String relativePath = pathPrefix + fileName;
+                        if (!ProjectFileFinder.isIgnored(this.ignorePatterns, relativePath, fileName, false))
+                        {
+                            visitor.run(levelFolder.getFile(fileName).await(), relativePath);
+                        }
+                    }
+
+                    for (final String folderName : listing.getFolderNames())
+                    {
+                        final String relativePath = pathPrefix + folderName;
+                        final boolean unbounded = levelUnbounded.get(levelIndex) || ProjectFileFinder.unboundedFolders.contains(relativePath);
+                        if ((unbounded || !this.hasMaximumDepth() || depth < this.maximumDepth) &&
+                            !ProjectFileFinder.isIgnored(folderPatterns, relativePath, folderName, true))
+                        {
+                            nextFolders.add(levelFolder.getFolder(folderName).await());
+                            nextPaths.add(relativePath);
+                            nextUnbounded.add(unbounded);
+                        }
+                    }
+                }
+            }
+
+            levelFolders = nextFolders;
+            levelPaths = nextPaths;
+            levelUnbounded = nextUnbounded;
+            ++depth;
+        }
+
+        this.writeListingCache(listings);
+    }
+
+    private ProjectFolderListing getListing(String path, Folder folder, Map<String,ProjectFolderListing> cachedListings)
+    {
+        ProjectFolderListing result = null;
+        String lastModified = null;
+        if (this.listingCacheFile != null)
+        {
+            // The last modified time is read before the folder is listed so that a change made
+            // while the folder is being listed makes the listing stale instead of being missed.
+            lastModified = ProjectFolderListing.getLastModified(folder);
+            if (lastModified != null)
+            {
+                final ProjectFolderListing cachedListing = cachedListings.get(path)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (cachedListing != null && lastModified.equals(cachedListing.getLastModified()))
+                {
+                    result = cachedListing;
+                }
+            }
+        }
+
+        if (result == null)
+        {
+            result = ProjectFolderListing.create(path, lastModified, folder);
+        }
+        return result;
+    }
+
+    private Map<String,ProjectFolderListing> readListingCache()
+    {
+        final Map<String,ProjectFolderListing> result = Map.create();
+        if (this.listingCacheFile != null)
+        {
+            final JSONObject cacheJson = this.listingCacheFile.getContentsAsString()
+                .then((String cacheText) -> JSON.parseObject(cacheText).await())
+                .catchError()
+                .await();
+            final JSONArray listingsJson = cacheJson == null
+                ? null
+                : cacheJson.getArray(ProjectFileFinder.listingsPropertyName).catchError().await();
+            if (listingsJson != null)
+            {
+                for (final JSONSegment listingJson : listingsJson)
+                {
+                    if (listingJson instanceof JSONObject)
+                    {
+                        final ProjectFolderListing listing = ProjectFolderListing.parse((JSONObject)listingJson);
+                        if (listing != null)
+                        {
+                            result.set(listing.getPath(), listing);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void writeListingCache(Iterable<ProjectFolderListing> listings)
+    {
+        if (this.listingCacheFile != null && this.writeListingCache)
+        {
+            final JSONArray listingsJson = JSONArray.create();
+            for (final ProjectFolderListing listing : listings)
+            {
+                listingsJson.add(listing.toJson());
+            }
+
+            Result.create(() -> QubDependencies.writeIfChanged(this.listingCacheFile,
+                JSONObject.create()
+                    .setArray(ProjectFileFinder.listingsPropertyName, listingsJson)
+                    .toString()))
+                .catchError()
+                .await();
+        }
+    }
+
+    /**
+     * Read the ignore patterns from the .gitignore file in the provided folder.
+     */
+    static Iterable<String> readGitignorePatterns(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        final List<String> result = List.create();
+        final String gitignoreText = folder.getFileContentsAsString(".gitignore")
+            .catchError(FileNotFoundException.class)
+            .await();
+        if (!Strings.isNullOrEmpty(gitignoreText))
+        {
+            for (final String line : Strings.getLines(gitignoreText))
+            {
+                final String pattern = line.trim();
+                if (!pattern.isEmpty() && !pattern.startsWith("#") && !pattern.startsWith("!"))
+                {
+                    result.add(pattern);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided entry matches any of the provided ignore patterns.
+     */
+    static boolean isIgnored(Iterable<String> patterns, String relativePath, String name, boolean isFolder)
+    {
+        PreCondition.assertNotNull(patterns, "patterns");
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertNotNull(name, "name");
+
+        boolean result = false;
+        for (final String pattern : patterns)
+        {
+            if (ProjectFileFinder.matches(pattern, relativePath, name, isFolder))
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    static boolean matches(String pattern, String relativePath, String name, boolean isFolder)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pattern, "pattern");
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertNotNull(name, "name");
+
+        int patternStart = 0;
+        int patternEnd = pattern.length();
+        boolean folderOnly = false;
+        if (pattern.endsWith("/"))
+        {
+            folderOnly = true;
+            --patternEnd;
+        }
+
+        boolean result = false;
+        if (patternEnd > patternStart && (isFolder || !folderOnly))
+        {
+            final int slashIndex = pattern.indexOf('/');
+            final boolean anchored = 0 <= slashIndex && slashIndex < patternEnd;
+            if (pattern.charAt(patternStart) == '/')
+            {
+                ++patternStart;
+            }
+
+            if (anchored)
+            {
+                final String path = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
+                result = ProjectFileFinder.globMatches(pattern, patternStart, patternEnd, path, 0);
+            }
+            else
+            {
+                result = ProjectFileFinder.globMatches(pattern, patternStart, patternEnd, name, 0);
+            }
+        }
+        return result;
+    }
+
+    private static boolean globMatches(String pattern, int patternIndex, int patternEnd, String text, int textIndex)
+    {
+        while (patternIndex < patternEnd)
+        {
+            final char patternCharacter = pattern.charAt(patternIndex);
+            if (patternCharacter == '*')
+            {
+                final boolean crossesFolders = patternIndex + 1 < patternEnd && pattern.charAt(patternIndex + 1) == '*';
+                patternIndex += crossesFolders ? 2 : 1;
+                for (int i = textIndex; i <= text.length(); ++i)
+                {
+                    if (ProjectFileFinder.globMatches(pattern, patternIndex, patternEnd, text, i))
+                    {
+                        return true;
+                    }
+                    if (i < text.length() && text.charAt(i) == '/' && !crossesFolders)
+                    {
+                        break;
+                    }
+                }
+                return false;
+            }
+            else if (textIndex >= text.length() ||
+                (patternCharacter == '?' ? text.charAt(textIndex) == '/' : patternCharacter != text.charAt(textIndex)))
+            {
+                return false;
+            }
+            ++patternIndex;
+            ++textIndex;
+        }
+        return textIndex == text.length();
+    }
+}
@@ -0,0 +1,167 @@
+package qub;
+
+/**
+ * The names of the files and folders that were in a project folder when it had a particular last
+ * modified time. A folder's last modified time changes whenever an entry is added to or removed
+ * from it, so a listing can be reused for as long as the folder's last modified time matches.
+ */
+public class ProjectFolderListing
+{
+    private static final String pathPropertyName = "path";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String filesPropertyName = "files";
+    private static final String foldersPropertyName = "folders";
+
+    private final String path;
+    private final String lastModified;
+    private final List<String> fileNames;
+    private final List<String> folderNames;
+
+    public ProjectFolderListing(String path, String lastModified)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        this.path = path;
+        this.lastModified = lastModified;
+        this.fileNames = List.create();
+        this.folderNames = List.create();
+    }
+
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    public String getLastModified()
+    {
+        return this.lastModified;
+    }
+
+    public Iterable<String> getFileNames()
+    {
+        return this.fileNames;
+    }
+
+    public ProjectFolderListing addFileName(String fileName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fileName, "fileName");
+
+        this.fileNames.add(fileName);
+        return this;
+    }
+
+    public Iterable<String> getFolderNames()
+    {
+        return this.folderNames;
+    }
+
+    public ProjectFolderListing addFolderName(String folderName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(folderName, "folderName");
+
+        this.folderNames.add(folderName);
+        return this;
+    }
+
+    /**
+     * List the provided folder.
+     */
+    public static ProjectFolderListing create(String path, String lastModified, Folder folder)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertNotNull(folder, "folder");
+
+        ProjectFolderListing result = null;
+        final Iterable<FileSystemEntry> entries = folder.getFilesAndFolders()
+            .catchError(FolderNotFoundException.class)
+            .await();
+        if (entries != null)
+        {
+            result = new ProjectFolderListing(path, lastModified);
+            for (final FileSystemEntry entry : entries)
+            {
+                if (entry instanceof Folder)
+                {
+                    result.addFolderName(entry.getName());
+                }
+                else
+                {
+                    result.addFileName(entry.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the last modified time of the provided folder as a string, or null if it couldn't be
+     * determined.
+     */
+    public static String getLastModified(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        final DateTime lastModified = folder.getLastModified()
+            .catchError()
+            .await();
+        return lastModified == null ? null : lastModified.toString();
+    }
+
+    public JSONObject toJson()
+    {
+        final JSONArray filesJson = JSONArray.create();
+        for (final String fileName : this.fileNames)
+        {
+            filesJson.add(JSONString.get(fileName));
+        }
+
+        final JSONArray foldersJson = JSONArray.create();
+        for (final String folderName : this.folderNames)
+        {
+            foldersJson.add(JSONString.get(folderName));
+        }
+
+        final JSONObject result = JSONObject.create()
+            .setString(ProjectFolderListing.pathPropertyName, this.path);
+        if (this.lastModified != null)
+        {
+            result.setString(ProjectFolderListing.lastModifiedPropertyName, this.lastModified);
+        }
+        return result
+            .setArray(ProjectFolderListing.filesPropertyName, filesJson)
+            .setArray(ProjectFolderListing.foldersPropertyName, foldersJson);
+    }
+
+    /**
+     * Parse a listing from the provided JSON object, or return null if the object isn't a valid
+     * listing.
+     */
+    public static ProjectFolderListing parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        ProjectFolderListing result = null;
+        final String path = json.getString(ProjectFolderListing.pathPropertyName).catchError().await();
+        final JSONArray filesJson = json.getArray(ProjectFolderListing.filesPropertyName).catchError().await();
+        final JSONArray foldersJson = json.getArray(ProjectFolderListing.foldersPropertyName).catchError().await();
+        if (path != null && filesJson != null && foldersJson != null)
+        {
+            result = new ProjectFolderListing(path, json.getString(ProjectFolderListing.lastModifiedPropertyName).catchError().await());
+            for (final JSONSegment fileJson : filesJson)
+            {
+                if (fileJson instanceof JSONString)
+                {
+                    result.addFileName(((JSONString)fileJson).getValue());
+                }
+            }
+            for (final JSONSegment folderJson : foldersJson)
+            {
+                if (folderJson instanceof JSONString)
+                {
+                    result.addFolderName(((JSONString)folderJson).getValue());
+                }
+            }
+        }
+        return result;
+    }
+}
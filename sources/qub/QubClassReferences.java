@@ -0,0 +1,459 @@
+package qub;
+
+/**
+ * Functions that find the classes that compiled Java code defines and references without loading
+ * any of those classes.
+ */
+public interface QubClassReferences
+{
+    int classFileMagic = 0xCAFEBABE;
+
+    /**
+     * Get the internal names (such as "qub/List") of the classes that are referenced by the
+     * provided class file.
+     */
+    static Set<String> getReferencedClassNames(byte[] classFileBytes)
+    {
+        PreCondition.assertNotNull(classFileBytes, "classFileBytes");
+
+        Set<String> result = null;
+        if (classFileBytes.length >= 10 && QubClassReferences.readU4(classFileBytes, 0) == QubClassReferences.classFileMagic)
+        {
+            final int constantPoolCount = QubClassReferences.readU2(classFileBytes, 8);
+            final String[] utf8Constants = new String[constantPoolCount];
+            final int[] classNameIndexes = new int[constantPoolCount];
+            int classCount = 0;
+            int offset = 10;
+            boolean valid = true;
+            for (int constantIndex = 1; valid && constantIndex < constantPoolCount; ++constantIndex)
+            {
+                final int tag = offset < classFileBytes.length ? classFileBytes[offset] : -1;
+                final int constantLength;
+                switch (tag)
+                {
+                    case 1: // Utf8
+                        constantLength = offset + 3 <= classFileBytes.length
+                            ? 3 + QubClassReferences.readU2(classFileBytes, offset + 1)
+                            : -1;
+                        if (constantLength != -1 && offset + constantLength <= classFileBytes.length)
+                        {
+                            utf8Constants[constantIndex] = new String(classFileBytes, offset + 3, constantLength - 3, java.nio.charset.StandardCharsets.UTF_8);
+                        }
+                        break;
+
+                    case 7: // Class
+                        constantLength = 3;
+                        if (offset + constantLength <= classFileBytes.length)
+                        {
+                            classNameIndexes[classCount++] = QubClassReferences.readU2(classFileBytes, offset + 1);
+                        }
+                        break;
+
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        constantLength = 3;
+                        break;
+
+                    case 15: // MethodHandle
+                        constantLength = 4;
+                        break;
+
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        constantLength = 5;
+                        break;
+
+                    case 5: // Long
+                    case 6: // Double
+                        // Eight-byte constants take up two entries in the constant pool.
+                        constantLength = 9;
+                        ++constantIndex;
+                        break;
+
+                    default:
+                        constantLength = -1;
+                        break;
+                }
+
+                if (constantLength == -1 || offset + constantLength > classFileBytes.length)
+                {
+                    valid = false;
+                }
+                else
+                {
+                    offset += constantLength;
+                }
+            }
+
+            if (valid)
+            {
+                result = Set.create();
+                for (int i = 0; i < classCount; ++i)
+                {
+                    final int classNameIndex = classNameIndexes[i];
+                    final String className = classNameIndex < constantPoolCount ? QubClassReferences.getElementClassName(utf8Constants[classNameIndex]) : null;
+                    if (className != null)
+                    {
+                        result.add(className);
+                    }
+                }
+
+                // Classes that are only used as the type of a field, parameter, return value, or
+                // annotation have no class constant, so they are only named by Utf8 constants.
+                for (final String utf8Constant : utf8Constants)
+                {
+                    if (utf8Constant != null)
+                    {
+                        QubClassReferences.addDescriptorClassNames(utf8Constant, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the internal name of the class that the provided constant pool class name refers to.
+     */
+    static String getElementClassName(String className)
+    {
+        String result = className;
+        if (result != null && result.startsWith("["))
+        {
+            int elementStart = 0;
+            while (elementStart < result.length() && result.charAt(elementStart) == '[')
+            {
+                ++elementStart;
+            }
+            result = elementStart + 2 < result.length() && result.charAt(elementStart) == 'L' && result.endsWith(";")
+                ? result.substring(elementStart + 1, result.length() - 1)
+                : null;
+        }
+        return result;
+    }
+
+    /**
+     * Add the internal names of the classes that are named by the provided descriptor or generic
+     * signature (such as "(Lqub/List<Lqub/File;>;)V") to the provided set.
+     */
+    static boolean addDescriptorClassNames(String text, Set<String> classNames)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(classNames, "classNames");
+
+        final List<String> foundClassNames = List.create();
+        int index = -1;
+        if (!text.isEmpty())
+        {
+            // Method descriptors and signatures: [<TypeParameters>] (Types) ReturnType ^Throws*
+            // Class signatures: [<TypeParameters>] SuperClass Interfaces*
+            // Field descriptors and signatures: Type
+            index = text.charAt(0) == '<' ? QubClassReferences.parseTypeParameters(text, 0, foundClassNames) : 0;
+            if (index != -1 && index < text.length() && text.charAt(index) == '(')
+            {
+                ++index;
+                while (index != -1 && index < text.length() && text.charAt(index) != ')')
+                {
+                    index = QubClassReferences.parseType(text, index, foundClassNames);
+                }
+                if (index != -1 && index < text.length())
+                {
+                    ++index;
+                    index = index < text.length() && text.charAt(index) == 'V'
+                        ? index + 1
+                        : QubClassReferences.parseType(text, index, foundClassNames);
+                    while (index != -1 && index < text.length() && text.charAt(index) == '^')
+                    {
+                        index = QubClassReferences.parseReferenceType(text, index + 1, foundClassNames);
+                    }
+                }
+                else
+                {
+                    index = -1;
+                }
+            }
+            else if (index > 0)
+            {
+                while (index != -1 && index < text.length())
+                {
+                    index = QubClassReferences.parseClassType(text, index, foundClassNames);
+                }
+            }
+            else if (index == 0)
+            {
+                index = QubClassReferences.parseType(text, 0, foundClassNames);
+            }
+        }
+
+        final boolean result = index == text.length();
+        if (result)
+        {
+            classNames.addAll(foundClassNames);
+        }
+        return result;
+    }
+
+    static int parseType(String text, int index, List<String> classNames)
+    {
+        int result = -1;
+        if (index < text.length())
+        {
+            switch (text.charAt(index))
+            {
+                case 'B':
+                case 'C':
+                case 'D':
+                case 'F':
+                case 'I':
+                case 'J':
+                case 'S':
+                case 'Z':
+                    result = index + 1;
+                    break;
+
+                default:
+                    result = QubClassReferences.parseReferenceType(text, index, classNames);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    static int parseReferenceType(String text, int index, List<String> classNames)
+    {
+        int result = -1;
+        if (index < text.length())
+        {
+            switch (text.charAt(index))
+            {
+                case 'L':
+                    result = QubClassReferences.parseClassType(text, index, classNames);
+                    break;
+
+                case 'T':
+                    result = QubClassReferences.parseIdentifier(text, index + 1, false);
+                    result = result != -1 && result < text.length() && text.charAt(result) == ';' ? result + 1 : -1;
+                    break;
+
+                case '[':
+                    result = QubClassReferences.parseType(text, index + 1, classNames);
+                    break;
+            }
+        }
+        return result;
+    }
+
+    static int parseClassType(String text, int index, List<String> classNames)
+    {
+        int result = -1;
+        if (index < text.length() && text.charAt(index) == 'L')
+        {
+            result = QubClassReferences.parseIdentifier(text, index + 1, true);
+            if (result != -1)
+            {
+                String className = text.substring(index + 1, result);
+                classNames.add(className);
+                if (result < text.length() && text.charAt(result) == '<')
+                {
+                    result = QubClassReferences.parseTypeArguments(text, result, classNames);
+                }
+                while (result != -1 && result < text.length() && text.charAt(result) == '.')
+                {
+                    final int innerNameStart = result + 1;
+                    result = QubClassReferences.parseIdentifier(text, innerNameStart, false);
+                    if (result != -1)
+                    {
+                        className += "$" + text.substring(innerNameStart, result);
+                        classNames.add(className);
+                        if (result < text.length() && text.charAt(result) == '<')
+                        {
+                            result = QubClassReferences.parseTypeArguments(text, result, classNames);
+                        }
+                    }
+                }
+                result = result != -1 && result < text.length() && text.charAt(result) == ';' ? result + 1 : -1;
+            }
+        }
+        return result;
+    }
+
+    static int parseTypeArguments(String text, int index, List<String> classNames)
+    {
+        int result = index + 1;
+        while (result != -1 && result < text.length() && text.charAt(result) != '>')
+        {
+            final char argumentStart = text.charAt(result);
+            if (argumentStart == '*')
+            {
+                ++result;
+            }
+            else
+            {
+                result = QubClassReferences.parseReferenceType(text, argumentStart == '+' || argumentStart == '-' ? result + 1 : result, classNames);
+            }
+        }
+        return result != -1 && result > index + 1 && result < text.length() ? result + 1 : -1;
+    }
+
+    static int parseTypeParameters(String text, int index, List<String> classNames)
+    {
+        int result = index + 1;
+        while (result != -1 && result < text.length() && text.charAt(result) != '>')
+        {
+            result = QubClassReferences.parseIdentifier(text, result, false);
+            if (result != -1 && result < text.length() && text.charAt(result) == ':')
+            {
+                // The class bound can be empty, but each interface bound can't.
+                ++result;
+                if (result < text.length() && text.charAt(result) != ':')
+                {
+                    result = QubClassReferences.parseReferenceType(text, result, classNames);
+                }
+                while (result != -1 && result < text.length() && text.charAt(result) == ':')
+                {
+                    result = QubClassReferences.parseReferenceType(text, result + 1, classNames);
+                }
+            }
+            else
+            {
+                result = -1;
+            }
+        }
+        return result != -1 && result > index + 1 && result < text.length() ? result + 1 : -1;
+    }
+
+    /**
+     * Get the index after the identifier that starts at the provided index.
+     */
+    static int parseIdentifier(String text, int index, boolean allowSlashes)
+    {
+        int result = index;
+        boolean done = false;
+        while (!done && result < text.length())
+        {
+            switch (text.charAt(result))
+            {
+                case '/':
+                    done = !allowSlashes || result == index || text.charAt(result - 1) == '/';
+                    if (done)
+                    {
+                        result = -1;
+                    }
+                    else
+                    {
+                        ++result;
+                    }
+                    break;
+
+                case '.':
+                case ';':
+                case '[':
+                case '<':
+                case '>':
+                case ':':
+                case ' ':
+                case '(':
+                case ')':
+                    done = true;
+                    break;
+
+                default:
+                    ++result;
+                    break;
+            }
+        }
+        return result == index || (result != -1 && text.charAt(result - 1) == '/') ? -1 : result;
+    }
+
+    /**
+     * Get the internal names (such as "qub/List") of the classes that are defined in the provided
+     * jar file.
+     */
+    static Set<String> getDefinedClassNames(File jarFile)
+    {
+        PreCondition.assertNotNull(jarFile, "jarFile");
+
+        Set<String> result = null;
+        final java.nio.file.Path diskPath = QubDependencies.getDiskPath(jarFile);
+        if (diskPath != null)
+        {
+            try (final java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(diskPath.toFile()))
+            {
+                result = Set.create();
+                final java.util.Enumeration<? extends java.util.zip.ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements())
+                {
+                    QubClassReferences.addDefinedClassName(entries.nextElement(), result);
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                result = null;
+            }
+        }
+        else
+        {
+            final byte[] jarBytes = jarFile.getContents().catchError().await();
+            if (jarBytes != null)
+            {
+                result = QubClassReferences.getDefinedClassNames(jarBytes);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the internal names (such as "qub/List") of the classes that are defined in the provided
+     * jar file.
+     */
+    static Set<String> getDefinedClassNames(byte[] jarBytes)
+    {
+        PreCondition.assertNotNull(jarBytes, "jarBytes");
+
+        Set<String> result = Set.create();
+        try (final java.util.zip.ZipInputStream zipStream = new java.util.zip.ZipInputStream(new java.io.ByteArrayInputStream(jarBytes)))
+        {
+            java.util.zip.ZipEntry entry = zipStream.getNextEntry();
+            while (entry != null)
+            {
+                QubClassReferences.addDefinedClassName(entry, result);
+                entry = zipStream.getNextEntry();
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            result = null;
+        }
+        return result;
+    }
+
+    private static void addDefinedClassName(java.util.zip.ZipEntry entry, Set<String> classNames)
+    {
+        final String entryName = entry.getName();
+        if (!entry.isDirectory() &&
+            entryName.endsWith(".class") &&
+            !entryName.startsWith("META-INF/") &&
+            !entryName.endsWith("module-info.class"))
+        {
+            classNames.add(entryName.substring(0, entryName.length() - ".class".length()));
+        }
+    }
+
+    static int readU2(byte[] bytes, int offset)
+    {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    static int readU4(byte[] bytes, int offset)
+    {
+        return (QubClassReferences.readU2(bytes, offset) << 16) | QubClassReferences.readU2(bytes, offset + 2);
+    }
+}
@@ -20,8 +20,14 @@ public interface QubDependencies
             .setApplicationName(QubDependencies.applicationName)
             .setApplicationDescription(QubDependencies.applicationDescription);
 
+        actions.addAction(QubDependenciesCds.actionName, QubDependenciesCds::getParameters, QubDependenciesCds::run)
+            .setDescription(QubDependenciesCds.actionDescription);
+        actions.addAction(QubDependenciesClasspath.actionName, QubDependenciesClasspath::getParameters, QubDependenciesClasspath::run)
+            .setDescription(QubDependenciesClasspath.actionDescription);
         actions.addAction(QubDependenciesList.actionName, QubDependenciesList::getParameters, QubDependenciesList::run)
             .setDescription(QubDependenciesList.actionDescription);
+        actions.addAction(QubDependenciesUnused.actionName, QubDependenciesUnused::getParameters, QubDependenciesUnused::run)
+            .setDescription(QubDependenciesUnused.actionDescription);
         actions.addAction(QubDependenciesUpdate.actionName, QubDependenciesUpdate::getParameters, QubDependenciesUpdate::run)
             .setDescription(QubDependenciesUpdate.actionDescription);
 
@@ -34,4 +40,164 @@ public interface QubDependencies
 
         return QubDependencies.applicationName + " " + actionName;
     }
+
+    static CommandLineParameter<String> addConcurrency(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("concurrency")
+            .setDescription("The maximum number of dependency lookups to run at the same time. Defaults to " + LookupRunner.defaultConcurrency + ". Use 1 to run lookups one at a time.");
+    }
+
+    static LookupRunner getLookupRunner(DesktopProcess process, CommandLineParameter<String> concurrencyParameter)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(concurrencyParameter, "concurrencyParameter");
+
+        final Integer concurrency = QubDependencies.parsePositiveInteger(process, "concurrency", concurrencyParameter.getValue().await(), LookupRunner.defaultConcurrency);
+
+        return concurrency == null
+            ? null
+            : concurrency == 1
+                ? LookupRunner.create()
+                : LookupRunner.create(process.getParallelAsyncRunner(), concurrency);
+    }
+
+    /**
+     * Get the Qub folder that is named by the QUB_HOME environment variable, or write why it can't
+     * be found and return null.
+     */
+    static QubFolder getQubFolder(Folder folder, EnvironmentVariables environmentVariables, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(output, "output");
+
+        QubFolder result = null;
+        final String qubHome = environmentVariables.get("QUB_HOME")
+            .catchError(NotFoundException.class)
+            .await();
+        if (Strings.isNullOrEmpty(qubHome))
+        {
+            output.writeLine("Can't discover transitive dependencies if a QUB_HOME environment variable is not specified.").await();
+        }
+        else
+        {
+            final Path qubHomePath = Path.parse(qubHome);
+            if (!qubHomePath.isRooted())
+            {
+                output.writeLine("Can't discover transitive dependencies if the QUB_HOME environment variable is not rooted.").await();
+            }
+            else
+            {
+                result = QubFolder.get(folder.getFileSystem().getFolder(qubHomePath).await());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the provided command line parameter value as a positive integer.
+     */
+    static Integer parsePositiveInteger(DesktopProcess process, String parameterName, String text, int defaultValue)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNullAndNotEmpty(parameterName, "parameterName");
+
+        Integer result = defaultValue;
+        if (!Strings.isNullOrEmpty(text))
+        {
+            try
+            {
+                result = Integer.parseInt(text.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                result = null;
+            }
+
+            if (result == null || result <= 0)
+            {
+                process.getOutputWriteStream().writeLine("Invalid --" + parameterName + " value: \"" + text + "\". The value must be a positive integer.").await();
+                process.setExitCode(1);
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split the provided comma-separated command line parameter value into its non-empty values.
+     */
+    static Iterable<String> parseList(String text)
+    {
+        final List<String> result = List.create();
+        if (!Strings.isNullOrEmpty(text))
+        {
+            for (final String value : text.split(","))
+            {
+                final String trimmedValue = value.trim();
+                if (!trimmedValue.isEmpty())
+                {
+                    result.add(trimmedValue);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the path of the provided file on disk, or null if the file doesn't belong to a
+     * JavaFileSystem.
+     */
+    static java.nio.file.Path getDiskPath(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return file.getFileSystem() instanceof JavaFileSystem
+            ? java.nio.file.Paths.get(file.toString())
+            : null;
+    }
+
+    /**
+     * Write the provided contents to the provided file if they are different from the file's
+     * current contents.
+     */
+    static boolean writeIfChanged(File file, String contents)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(contents, "contents");
+
+        final String currentContents = file.getContentsAsString()
+            .catchError(FileNotFoundException.class)
+            .await();
+        final boolean result = !contents.equals(currentContents);
+        if (result)
+        {
+            final java.nio.file.Path diskPath = QubDependencies.getDiskPath(file);
+            if (diskPath != null)
+            {
+                final File tempFile = file.getParentFolder().await().getFile(file.getName() + ".tmp").await();
+                tempFile.setContentsAsString(contents).await();
+                try
+                {
+                    java.nio.file.Files.move(
+                        QubDependencies.getDiskPath(tempFile),
+                        diskPath,
+                        java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                        java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (java.io.IOException e)
+                {
+                    tempFile.delete().catchError().await();
+                    throw new RuntimeException(e);
+                }
+            }
+            else
+            {
+                file.setContentsAsString(contents).await();
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,377 @@
+package qub;
+
+public interface QubDependenciesCds
+{
+    String actionName = "cds";
+    String actionDescription = "Create a class data sharing archive for the runtime classpath of a project.";
+
+    String classListFilePath = "outputs/qub-dependencies/cds.classlist";
+    String archiveFilePath = "outputs/qub-dependencies/cds.jsa";
+    String recordFilePath = "outputs/qub-dependencies/cds.json";
+    String argumentsFilePath = "outputs/qub-dependencies/cds.args";
+
+    String closureHashPropertyName = "closureHash";
+
+    int defaultTrainingTimeoutSeconds = 60;
+
+    static QubDependenciesCdsParameters getParameters(DesktopProcess process)
+    {
+        PreCondition.assertNotNull(process, "process");
+
+        QubDependenciesCdsParameters result = null;
+
+        final CommandLineParameters parameters = process.createCommandLineParameters()
+            .setApplicationName(QubDependencies.getActionFullName(QubDependenciesCds.actionName))
+            .setApplicationDescription(QubDependenciesCds.actionDescription);
+        final CommandLineParameter<String> trainingArgumentsParameter = parameters.addString("training-arguments")
+            .setDescription("A comma-separated list of the arguments that the main class is run with during the training launch.");
+        final CommandLineParameter<String> trainingTimeoutParameter = parameters.addString("training-timeout")
+            .setDescription("The number of seconds that the training launch can run before it is stopped. Defaults to " + QubDependenciesCds.defaultTrainingTimeoutSeconds + ".");
+        final CommandLineParameter<String> concurrencyParameter = QubDependencies.addConcurrency(parameters);
+        final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubDependenciesCds.class);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            profilerParameter.await();
+
+            final CharacterWriteStream output = process.getOutputWriteStream();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            final Folder folder = process.getCurrentFolder();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final LookupRunner lookupRunner = QubDependencies.getLookupRunner(process, concurrencyParameter);
+            final ChildProcessRunner childProcessRunner = process.getChildProcessRunner();
+            final AsyncRunner asyncRunner = process.getParallelAsyncRunner();
+            final Integer trainingTimeoutSeconds = lookupRunner == null
+                ? null
+                : QubDependencies.parsePositiveInteger(process, "training-timeout", trainingTimeoutParameter.getValue().await(), QubDependenciesCds.defaultTrainingTimeoutSeconds);
+            if (trainingTimeoutSeconds != null)
+            {
+                result = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                    .setLookupRunner(lookupRunner)
+                    .setTrainingArguments(QubDependencies.parseList(trainingArgumentsParameter.getValue().await()))
+                    .setTrainingTimeout(Duration.seconds(trainingTimeoutSeconds))
+                    .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) ->
+                        QubDependenciesCds.runJava(childProcessRunner, asyncRunner, javaFile, arguments, timeout));
+            }
+        }
+
+        return result;
+    }
+
+    static int run(QubDependenciesCdsParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(parameters.getJavaRunner(), "parameters.getJavaRunner()");
+
+        int exitCode = 0;
+
+        final CharacterWriteStream output = parameters.getOutput();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder folder = parameters.getFolder();
+        final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
+
+        output.writeLine("Creating class data sharing archive for " + folder + "...").await();
+
+        final File projectJsonFile = folder.getFile("project.json").await();
+        final ProjectJSON projectJSON = ProjectJSON.parse(projectJsonFile)
+            .catchError(FileNotFoundException.class)
+            .await();
+        final ProjectJSONJava projectJSONJava = projectJSON == null ? null : projectJSON.getJava();
+        final String mainClass = projectJSONJava == null ? null : projectJSONJava.getMainClass();
+        if (projectJSON == null)
+        {
+            output.writeLine("No project.json file found at " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else if (projectJSONJava == null)
+        {
+            output.writeLine("No \"java\" property found in " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else if (Strings.isNullOrEmpty(mainClass))
+        {
+            output.writeLine("No \"mainClass\" property found in the \"java\" property of " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else
+        {
+            final File javaFile = QubDependenciesCds.getJavaFile(folder, environmentVariables, output);
+            final Iterable<String> jarPaths = javaFile == null
+                ? null
+                : QubDependenciesClasspath.getJarPaths(folder, projectJsonFile, projectJSONJava, environmentVariables, parameters.getLookupRunner(), verbose, output);
+            if (jarPaths == null)
+            {
+                exitCode = 1;
+            }
+            else
+            {
+                // The archive can only be used by launches whose classpath starts with the
+                // classpath that the archive was dumped with, so the jar files come before the
+                // project's outputs folder. Only jar files are archived because the outputs
+                // folder changes with every build.
+                final String jarClasspath = QubDependenciesClasspath.joinClasspath(folder, jarPaths);
+                final List<String> launchClasspathEntries = List.create(jarPaths);
+                launchClasspathEntries.add(folder.getFolder("outputs").await().toString());
+                final String launchClasspath = QubDependenciesClasspath.joinClasspath(folder, launchClasspathEntries);
+
+                final File archiveFile = folder.getFile(QubDependenciesCds.archiveFilePath).await();
+                final File recordFile = folder.getFile(QubDependenciesCds.recordFilePath).await();
+                final String closureHash = QubDependenciesCds.getClosureHash(javaFile, mainClass, parameters.getTrainingArguments(), jarPaths, parameters.getLookupRunner());
+                if (archiveFile.exists().await() && closureHash.equals(QubDependenciesCds.readClosureHash(recordFile)))
+                {
+                    output.writeLine(archiveFile + " is up to date.").await();
+                }
+                else
+                {
+                    final File classListFile = folder.getFile(QubDependenciesCds.classListFilePath).await();
+                    recordFile.delete().catchError().await();
+                    classListFile.getParentFolder().await().create().catchError().await();
+
+                    output.writeLine("Running a training launch of " + mainClass + "...").await();
+                    final List<String> trainingLaunchArguments = List.create(
+                        "-Xshare:off",
+                        "-XX:DumpLoadedClassList=" + classListFile,
+                        "-classpath",
+                        launchClasspath,
+                        mainClass);
+                    trainingLaunchArguments.addAll(parameters.getTrainingArguments());
+                    // The class list is written as classes are loaded, so a training launch that
+                    // is stopped because it doesn't exit on its own (such as a server) still
+                    // produces a class list that can be dumped.
+                    final Integer trainingExitCode = parameters.getJavaRunner().run(javaFile, trainingLaunchArguments, parameters.getTrainingTimeout());
+                    boolean recordClosureHash = true;
+                    if (trainingExitCode == null)
+                    {
+                        output.writeLine("The training launch was stopped after " + parameters.getTrainingTimeout() + ".").await();
+
+                        // A stopped launch can end without closing the class list, so the class
+                        // list may be missing or end with a partial line.
+                        final String classListText = classListFile.getContentsAsString()
+                            .catchError()
+                            .await();
+                        if (Strings.isNullOrEmpty(classListText))
+                        {
+                            output.writeLine("The stopped training launch didn't write a class list to " + classListFile + ".").await();
+                            exitCode = 1;
+                        }
+                        else if (!classListText.endsWith("\n"))
+                        {
+                            output.writeLine("The class list from the stopped training launch was incomplete, so " + archiveFile + " will be created again by the next run.").await();
+                            classListFile.setContentsAsString(classListText.substring(0, classListText.lastIndexOf('\n') + 1)).await();
+                            recordClosureHash = false;
+                        }
+                    }
+                    else if (trainingExitCode != 0)
+                    {
+                        output.writeLine("The training launch failed with exit code " + trainingExitCode + ".").await();
+                        exitCode = 1;
+                    }
+
+                    if (exitCode == 0)
+                    {
+                        output.writeLine("Dumping " + archiveFile + "...").await();
+                        final Integer dumpExitCode = parameters.getJavaRunner().run(javaFile, Iterable.create(
+                            "-Xshare:dump",
+                            "-XX:SharedClassListFile=" + classListFile,
+                            "-XX:SharedArchiveFile=" + archiveFile,
+                            "-classpath",
+                            jarClasspath), null);
+                        if (dumpExitCode == null || dumpExitCode != 0)
+                        {
+                            output.writeLine("Dumping the archive failed with exit code " + dumpExitCode + ".").await();
+                            exitCode = 1;
+                        }
+                        else
+                        {
+                            if (recordClosureHash)
+                            {
+                                QubDependencies.writeIfChanged(recordFile, JSONObject.create()
+                                    .setString(QubDependenciesCds.closureHashPropertyName, closureHash)
+                                    .toString());
+                            }
+                            output.writeLine("Created " + archiveFile + ".").await();
+                        }
+                    }
+                }
+
+                if (exitCode == 0)
+                {
+                    final File argumentsFile = folder.getFile(QubDependenciesCds.argumentsFilePath).await();
+                    final String argumentsText = QubDependenciesClasspath.getArgumentsFileText(
+                        Iterable.create("-XX:SharedArchiveFile=" + archiveFile),
+                        launchClasspath);
+                    output.writeLine(QubDependencies.writeIfChanged(argumentsFile, argumentsText)
+                        ? "Updated " + argumentsFile + "."
+                        : "No changes to " + argumentsFile + ".").await();
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the java executable of the JDK that is named by the JAVA_HOME environment variable, or
+     * write why it can't be found and return null.
+     */
+    static File getJavaFile(Folder folder, EnvironmentVariables environmentVariables, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(output, "output");
+
+        File result = null;
+        final String javaHome = environmentVariables.get("JAVA_HOME")
+            .catchError(NotFoundException.class)
+            .await();
+        if (Strings.isNullOrEmpty(javaHome))
+        {
+            output.writeLine("Can't create a class data sharing archive if a JAVA_HOME environment variable is not specified.").await();
+        }
+        else
+        {
+            final Path javaHomePath = Path.parse(javaHome);
+            if (!javaHomePath.isRooted())
+            {
+                output.writeLine("Can't create a class data sharing archive if the JAVA_HOME environment variable is not rooted.").await();
+            }
+            else
+            {
+                final Folder javaHomeFolder = folder.getFileSystem().getFolder(javaHomePath).await();
+                result = javaHomeFolder.getFile(QubDependenciesClasspath.getPathSeparator(javaHomeFolder) == ';' ? "bin/java.exe" : "bin/java").await();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Run the provided java executable with the provided ChildProcessRunner. If a timeout is
+     * provided and the java process doesn't exit before it passes, then the java process is
+     * stopped and null is returned.
+     */
+    static Integer runJava(ChildProcessRunner childProcessRunner, AsyncRunner asyncRunner, File javaFile, Iterable<String> arguments, Duration timeout)
+    {
+        PreCondition.assertNotNull(childProcessRunner, "childProcessRunner");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+        PreCondition.assertNotNull(javaFile, "javaFile");
+        PreCondition.assertNotNull(arguments, "arguments");
+
+        Integer result;
+        if (timeout == null)
+        {
+            result = childProcessRunner.run(javaFile.getPath(), arguments).await();
+        }
+        else
+        {
+            final ChildProcess childProcess = childProcessRunner.start(javaFile.getPath(), arguments).await();
+            result = QubDependenciesCds.awaitExitCode(childProcess::await, () -> childProcess.kill().await(), timeout, asyncRunner);
+        }
+        return result;
+    }
+
+    /**
+     * Wait for the provided exit code getter to return, or run the provided stopper and return
+     * null if the provided timeout passes first.
+     */
+    static Integer awaitExitCode(Function0<Integer> exitCodeGetter, Action0 stopper, Duration timeout, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(exitCodeGetter, "exitCodeGetter");
+        PreCondition.assertNotNull(stopper, "stopper");
+        PreCondition.assertNotNull(timeout, "timeout");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        final java.util.concurrent.CountDownLatch exited = new java.util.concurrent.CountDownLatch(1);
+        final Result<Integer> exitCode = asyncRunner.schedule(() ->
+        {
+            try
+            {
+                return exitCodeGetter.run();
+            }
+            finally
+            {
+                exited.countDown();
+            }
+        });
+
+        boolean exitedBeforeTimeout;
+        try
+        {
+            exitedBeforeTimeout = exited.await((long)timeout.toMilliseconds().getValue(), java.util.concurrent.TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            exitedBeforeTimeout = false;
+        }
+
+        Integer result;
+        if (exitedBeforeTimeout)
+        {
+            result = exitCode.await();
+        }
+        else
+        {
+            // Stopping the process may end it forcibly (it always does on Windows), so it may not
+            // get to close the files that it was writing.
+            stopper.run();
+            exitCode.catchError().await();
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Get the hash that identifies the archive for the provided JDK, training launch, and jar
+     * files.
+     */
+    static String getClosureHash(File javaFile, String mainClass, Iterable<String> trainingArguments, Iterable<String> jarPaths, LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(javaFile, "javaFile");
+        PreCondition.assertNotNullAndNotEmpty(mainClass, "mainClass");
+        PreCondition.assertNotNull(trainingArguments, "trainingArguments");
+        PreCondition.assertNotNull(jarPaths, "jarPaths");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        final FileSystem fileSystem = javaFile.getFileSystem();
+        final List<String> lastModifiedTimes = lookupRunner.map(jarPaths, (String jarPath) ->
+            QubDependenciesCds.getLastModifiedText(fileSystem, jarPath));
+
+        final CharacterList closureText = CharacterList.create();
+        closureText.addAll(javaFile + " " + QubDependenciesCds.getLastModifiedText(fileSystem, javaFile.toString()));
+        closureText.add('\n');
+        closureText.addAll(mainClass);
+        for (final String trainingArgument : trainingArguments)
+        {
+            closureText.addAll(" " + trainingArgument);
+        }
+        int jarIndex = 0;
+        for (final String jarPath : jarPaths)
+        {
+            closureText.add('\n');
+            closureText.addAll(jarPath + " " + lastModifiedTimes.get(jarIndex++));
+        }
+        return QubDependenciesLock.getHash(closureText.toString(true));
+    }
+
+    private static String getLastModifiedText(FileSystem fileSystem, String filePath)
+    {
+        final DateTime lastModified = fileSystem.getFile(filePath)
+            .then((File file) -> file.getLastModified().await())
+            .catchError()
+            .await();
+        return lastModified == null ? "missing" : lastModified.toString();
+    }
+
+    static String readClosureHash(File recordFile)
+    {
+        PreCondition.assertNotNull(recordFile, "recordFile");
+
+        final JSONObject record = recordFile.getContentsAsString()
+            .then((String recordText) -> JSON.parseObject(recordText).await())
+            .catchError()
+            .await();
+        return record == null ? null : record.getString(QubDependenciesCds.closureHashPropertyName).catchError().await();
+    }
+}
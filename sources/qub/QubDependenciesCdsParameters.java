@@ -0,0 +1,104 @@
+package qub;
+
+public class QubDependenciesCdsParameters
+{
+    private final CharacterWriteStream output;
+    private final VerboseCharacterToByteWriteStream verbose;
+    private final Folder folder;
+    private final EnvironmentVariables environmentVariables;
+    private LookupRunner lookupRunner;
+    private final List<String> trainingArguments;
+    private Duration trainingTimeout;
+    private Function3<File,Iterable<String>,Duration,Integer> javaRunner;
+
+    public QubDependenciesCdsParameters(CharacterWriteStream output, VerboseCharacterToByteWriteStream verbose, Folder folder, EnvironmentVariables environmentVariables)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+
+        this.output = output;
+        this.verbose = verbose;
+        this.folder = folder;
+        this.environmentVariables = environmentVariables;
+        this.lookupRunner = LookupRunner.create();
+        this.trainingArguments = List.create();
+    }
+
+    public CharacterWriteStream getOutput()
+    {
+        return this.output;
+    }
+
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    public Folder getFolder()
+    {
+        return this.folder;
+    }
+
+    public EnvironmentVariables getEnvironmentVariables()
+    {
+        return this.environmentVariables;
+    }
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public QubDependenciesCdsParameters setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+
+    public Iterable<String> getTrainingArguments()
+    {
+        return this.trainingArguments;
+    }
+
+    /**
+     * Set the arguments that the main class is run with during the training launch.
+     */
+    public QubDependenciesCdsParameters setTrainingArguments(Iterable<String> trainingArguments)
+    {
+        PreCondition.assertNotNull(trainingArguments, "trainingArguments");
+
+        this.trainingArguments.clear();
+        this.trainingArguments.addAll(trainingArguments);
+        return this;
+    }
+
+    public Duration getTrainingTimeout()
+    {
+        return this.trainingTimeout;
+    }
+
+    public QubDependenciesCdsParameters setTrainingTimeout(Duration trainingTimeout)
+    {
+        PreCondition.assertNotNull(trainingTimeout, "trainingTimeout");
+
+        this.trainingTimeout = trainingTimeout;
+        return this;
+    }
+
+    public Function3<File,Iterable<String>,Duration,Integer> getJavaRunner()
+    {
+        return this.javaRunner;
+    }
+
+    public QubDependenciesCdsParameters setJavaRunner(Function3<File,Iterable<String>,Duration,Integer> javaRunner)
+    {
+        PreCondition.assertNotNull(javaRunner, "javaRunner");
+
+        this.javaRunner = javaRunner;
+        return this;
+    }
+}
@@ -0,0 +1,261 @@
+package qub;
+
+public interface QubDependenciesClasspath
+{
+    String actionName = "classpath";
+    String actionDescription = "Write the runtime classpath of a project to a classpath file and a Java argument file.";
+
+    String classpathFilePath = "outputs/qub-dependencies/classpath.txt";
+    String argumentsFilePath = "outputs/qub-dependencies/classpath.args";
+
+    static QubDependenciesClasspathParameters getParameters(DesktopProcess process)
+    {
+        PreCondition.assertNotNull(process, "process");
+
+        QubDependenciesClasspathParameters result = null;
+
+        final CommandLineParameters parameters = process.createCommandLineParameters()
+            .setApplicationName(QubDependencies.getActionFullName(QubDependenciesClasspath.actionName))
+            .setApplicationDescription(QubDependenciesClasspath.actionDescription);
+        final CommandLineParameter<String> concurrencyParameter = QubDependencies.addConcurrency(parameters);
+        final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubDependenciesClasspath.class);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            profilerParameter.await();
+
+            final CharacterWriteStream output = process.getOutputWriteStream();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            final Folder folder = process.getCurrentFolder();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final LookupRunner lookupRunner = QubDependencies.getLookupRunner(process, concurrencyParameter);
+            if (lookupRunner != null)
+            {
+                result = new QubDependenciesClasspathParameters(output, verbose, folder, environmentVariables)
+                    .setLookupRunner(lookupRunner);
+            }
+        }
+
+        return result;
+    }
+
+    static int run(QubDependenciesClasspathParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        int exitCode = 0;
+
+        final CharacterWriteStream output = parameters.getOutput();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder folder = parameters.getFolder();
+
+        output.writeLine("Writing classpath for " + folder + "...").await();
+
+        final File projectJsonFile = folder.getFile("project.json").await();
+        final ProjectJSON projectJSON = ProjectJSON.parse(projectJsonFile)
+            .catchError(FileNotFoundException.class)
+            .await();
+        if (projectJSON == null)
+        {
+            output.writeLine("No project.json file found at " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else
+        {
+            final ProjectJSONJava projectJSONJava = projectJSON.getJava();
+            if (projectJSONJava == null)
+            {
+                output.writeLine("No \"java\" property found in " + projectJsonFile + ".").await();
+                exitCode = 1;
+            }
+            else
+            {
+                final Iterable<String> jarPaths = QubDependenciesClasspath.getJarPaths(folder, projectJsonFile, projectJSONJava, parameters.getEnvironmentVariables(), parameters.getLookupRunner(), verbose, output);
+                if (jarPaths == null)
+                {
+                    exitCode = 1;
+                }
+                else
+                {
+                    QubDependenciesClasspath.writeClasspathFiles(folder, QubDependenciesClasspath.getClasspath(folder, jarPaths), output);
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the paths to the compiled sources jar files of the provided project's transitive
+     * dependencies.
+     */
+    static Iterable<String> getJarPaths(Folder folder, File projectJsonFile, ProjectJSONJava projectJSONJava, EnvironmentVariables environmentVariables, LookupRunner lookupRunner, VerboseCharacterToByteWriteStream verbose, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(projectJsonFile, "projectJsonFile");
+        PreCondition.assertNotNull(projectJSONJava, "projectJSONJava");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(output, "output");
+
+        Iterable<String> result = null;
+        final QubDependenciesLock lock = QubDependenciesList.getCurrentLock(folder, projectJsonFile, lookupRunner);
+        if (lock != null)
+        {
+            verbose.writeLine("Using " + folder.getFile(QubDependenciesLock.lockFileName).await() + ".").await();
+            result = QubDependenciesClasspath.getJarPaths(lock);
+        }
+        else
+        {
+            final QubFolder qubFolder = QubDependencies.getQubFolder(folder, environmentVariables, output);
+            if (qubFolder != null)
+            {
+                final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                    .setLookupRunner(lookupRunner)
+                    .resolve(projectJSONJava.getDependencies());
+                result = QubDependenciesClasspath.getJarPaths(qubFolder, dependencyGraph);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the paths to the compiled sources jar files of the projects in the transitive closure of
+     * the provided graph.
+     */
+    static Iterable<String> getJarPaths(QubFolder qubFolder, QubDependencyGraph dependencyGraph)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+
+        final List<String> result = List.create();
+        for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes())
+        {
+            if (dependencyGraph.getNodeState(nodeIndex) == QubDependencyNodeState.Found)
+            {
+                final QubProjectVersionFolder projectVersionFolder = QubDependencyJarStatistics.getProjectVersionFolder(qubFolder, dependencyGraph.getNode(nodeIndex));
+                result.add(projectVersionFolder.getCompiledSourcesFile().await().toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the paths to the compiled sources jar files of the projects in the transitive closure of
+     * the provided lock.
+     */
+    static Iterable<String> getJarPaths(QubDependenciesLock lock)
+    {
+        PreCondition.assertNotNull(lock, "lock");
+
+        final QubDependencyGraph dependencyGraph = lock.getDependencyGraph();
+        final List<String> result = List.create();
+        for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes())
+        {
+            if (dependencyGraph.getNodeState(nodeIndex) == QubDependencyNodeState.Found)
+            {
+                result.add(lock.getCompiledSourcesPath(nodeIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the runtime classpath of the provided project: the project's outputs folder followed by
+     * the provided jar files.
+     */
+    static Iterable<String> getClasspath(Folder projectFolder, Iterable<String> jarPaths)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(jarPaths, "jarPaths");
+
+        final List<String> result = List.create();
+        result.add(projectFolder.getFolder("outputs").await().toString());
+        result.addAll(jarPaths);
+        return result;
+    }
+
+    /**
+     * Join the provided classpath entries with the classpath separator of the provided folder.
+     */
+    static String joinClasspath(Folder folder, Iterable<String> classpath)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(classpath, "classpath");
+
+        final char pathSeparator = QubDependenciesClasspath.getPathSeparator(folder);
+        final CharacterList result = CharacterList.create();
+        for (final String entry : classpath)
+        {
+            if (result.any())
+            {
+                result.add(pathSeparator);
+            }
+            result.addAll(entry);
+        }
+        return result.toString(true);
+    }
+
+    /**
+     * Get the contents of a Java argument file that sets the provided classpath after the provided
+     * arguments.
+     */
+    static String getArgumentsFileText(Iterable<String> arguments, String classpath)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+        PreCondition.assertNotNull(classpath, "classpath");
+
+        final CharacterList result = CharacterList.create();
+        for (final String argument : arguments)
+        {
+            result.addAll(QubDependenciesClasspath.quoteArgument(argument));
+            result.add('\n');
+        }
+        result.addAll("-classpath\n" + QubDependenciesClasspath.quoteArgument(classpath) + "\n");
+        return result.toString(true);
+    }
+
+    static String quoteArgument(String argument)
+    {
+        PreCondition.assertNotNull(argument, "argument");
+
+        return "\"" + argument.replace("\\", "\\\\") + "\"";
+    }
+
+    /**
+     * Get the separator that is put between the entries of a classpath for the provided folder.
+     */
+    static char getPathSeparator(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        final String folderPath = folder.toString();
+        return folderPath.length() >= 2 && folderPath.charAt(1) == ':' ? ';' : ':';
+    }
+
+    /**
+     * Write the provided classpath to the project's classpath file and Java argument file.
+     */
+    static void writeClasspathFiles(Folder projectFolder, Iterable<String> classpath, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(classpath, "classpath");
+        PreCondition.assertNotNull(output, "output");
+
+        final String classpathString = QubDependenciesClasspath.joinClasspath(projectFolder, classpath);
+        final String argumentsText = QubDependenciesClasspath.getArgumentsFileText(Iterable.create(), classpathString);
+
+        final File classpathFile = projectFolder.getFile(QubDependenciesClasspath.classpathFilePath).await();
+        output.writeLine(QubDependencies.writeIfChanged(classpathFile, classpathString + "\n")
+            ? "Updated " + classpathFile + "."
+            : "No changes to " + classpathFile + ".").await();
+
+        final File argumentsFile = projectFolder.getFile(QubDependenciesClasspath.argumentsFilePath).await();
+        output.writeLine(QubDependencies.writeIfChanged(argumentsFile, argumentsText)
+            ? "Updated " + argumentsFile + "."
+            : "No changes to " + argumentsFile + ".").await();
+    }
+}
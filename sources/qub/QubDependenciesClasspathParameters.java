@@ -0,0 +1,57 @@
+package qub;
+
+public class QubDependenciesClasspathParameters
+{
+    private final CharacterWriteStream output;
+    private final VerboseCharacterToByteWriteStream verbose;
+    private final Folder folder;
+    private final EnvironmentVariables environmentVariables;
+    private LookupRunner lookupRunner;
+
+    public QubDependenciesClasspathParameters(CharacterWriteStream output, VerboseCharacterToByteWriteStream verbose, Folder folder, EnvironmentVariables environmentVariables)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+
+        this.output = output;
+        this.verbose = verbose;
+        this.folder = folder;
+        this.environmentVariables = environmentVariables;
+        this.lookupRunner = LookupRunner.create();
+    }
+
+    public CharacterWriteStream getOutput()
+    {
+        return this.output;
+    }
+
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    public Folder getFolder()
+    {
+        return this.folder;
+    }
+
+    public EnvironmentVariables getEnvironmentVariables()
+    {
+        return this.environmentVariables;
+    }
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public QubDependenciesClasspathParameters setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+}
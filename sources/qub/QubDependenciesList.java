@@ -14,6 +14,15 @@ public interface QubDependenciesList
         final CommandLineParameters parameters = process.createCommandLineParameters()
             .setApplicationName(QubDependencies.getActionFullName(QubDependenciesList.actionName))
             .setApplicationDescription(QubDependenciesList.actionDescription);
+        final CommandLineParameter<String> depthParameter = parameters.addString("depth")
+            .setDescription("The maximum depth of the dependency tree to resolve. Direct dependencies have a depth of 1.");
+        final CommandLineParameter<String> publisherParameter = parameters.addString("publisher")
+            .setDescription("A comma-separated list of the publishers whose dependencies will be resolved.");
+        final CommandLineParameter<String> excludeParameter = parameters.addString("exclude")
+            .setDescription("A comma-separated list of publisher/project dependencies that will not be resolved.");
+        final CommandLineParameterBoolean sizesParameter = parameters.addBoolean("sizes", false)
+            .setDescription("Whether or not to show the sizes of the dependencies' jar files.");
+        final CommandLineParameter<String> concurrencyParameter = QubDependencies.addConcurrency(parameters);
         final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubDependenciesList.class);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterHelp helpParameter = parameters.addHelp();
@@ -26,8 +35,31 @@ public interface QubDependenciesList
             final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
             final Folder folder = process.getCurrentFolder();
             final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final LookupRunner lookupRunner = QubDependencies.getLookupRunner(process, concurrencyParameter);
+            final Integer depth = QubDependencies.parsePositiveInteger(process, "depth", depthParameter.getValue().await(), -1);
+            if (lookupRunner != null && depth != null)
+            {
+                final QubDependencyFilter filter = new QubDependencyFilter();
+                if (depth != -1)
+                {
+                    filter.setMaximumDepth(depth);
+                }
+                for (final String publisher : QubDependencies.parseList(publisherParameter.getValue().await()))
+                {
+                    filter.addPublisher(publisher);
+                }
+                for (final String excludedProject : QubDependencies.parseList(excludeParameter.getValue().await()))
+                {
+                    filter.addExcludedProject(excludedProject);
+                }
+
+                final boolean sizes = sizesParameter.getValue().await();
 
-            result = new QubDependenciesListParameters(output, verbose, folder, environmentVariables);
+                result = new QubDependenciesListParameters(output, verbose, folder, environmentVariables)
+                    .setLookupRunner(lookupRunner)
+                    .setFilter(filter)
+                    .setSizes(sizes);
+            }
         }
 
         return result;
@@ -43,6 +75,8 @@ public interface QubDependenciesList
         final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
         final Folder folder = parameters.getFolder();
         final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
+        final QubDependencyFilter filter = parameters.getFilter();
+        final boolean sizes = parameters.getSizes();
 
         output.writeLine("Getting dependencies for " + folder + "...").await();
 
@@ -72,32 +106,33 @@ public interface QubDependenciesList
                 }
                 else
                 {
-                    final String qubHome = environmentVariables.get("QUB_HOME")
-                        .catchError(NotFoundException.class)
-                        .await();
-                    if (Strings.isNullOrEmpty(qubHome))
+                    // A current dependencies.lock file answers for the whole dependency graph, so
+                    // none of the dependencies' project.json files need to be read.
+                    final QubDependenciesLock lock = filter.includesAll()
+                        ? QubDependenciesList.getCurrentLock(folder, projectJsonFile, parameters.getLookupRunner())
+                        : null;
+                    if (lock != null)
                     {
-                        output.writeLine("Can't discover transitive dependencies if a QUB_HOME environment variable is not specified.").await();
-                        exitCode = 1;
+                        verbose.writeLine("Using " + folder.getFile(QubDependenciesLock.lockFileName).await() + ".").await();
+                        QubDependenciesList.writeDependencies(output, lock.getDependencyGraph(), filter, sizes ? lock.getJarStatistics() : null);
                     }
                     else
                     {
-                        final Path qubHomePath = Path.parse(qubHome);
-                        if (!qubHomePath.isRooted())
+                        final QubFolder qubFolder = QubDependencies.getQubFolder(folder, environmentVariables, output);
+                        if (qubFolder == null)
                         {
-                            output.writeLine("Can't discover transitive dependencies if the QUB_HOME environment variable is not rooted.").await();
                             exitCode = 1;
                         }
                         else
                         {
-                            final QubFolder qubFolder = QubFolder.get(folder.getFileSystem().getFolder(qubHomePath).await());
-                            final int dependencyCount = dependencies.getCount();
-                            output.writeLine("Found " + dependencyCount + " " + (dependencyCount == 1 ? "dependency" : "dependencies") + ":").await();
-                            final IndentedCharacterWriteStream indentedOutput = IndentedCharacterWriteStream.create(output);
-                            for (final ProjectSignature dependency : dependencies)
-                            {
-                                QubDependenciesList.writeDependencyTree(indentedOutput, dependency, qubFolder);
-                            }
+                            final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                                .setLookupRunner(parameters.getLookupRunner())
+                                .setFilter(filter)
+                                .resolve(dependencies);
+                            final QubDependencyJarStatistics jarStatistics = !sizes
+                                ? null
+                                : QubDependencyJarStatistics.create(qubFolder, dependencyGraph, parameters.getLookupRunner());
+                            QubDependenciesList.writeDependencies(output, dependencyGraph, filter, jarStatistics);
                         }
                     }
                 }
@@ -107,43 +142,111 @@ public interface QubDependenciesList
         return exitCode;
     }
 
-    static void writeDependencyTree(IndentedCharacterWriteStream output, ProjectSignature dependency, QubFolder qubFolder)
+    /**
+     * Get the dependencies.lock file in the provided folder if it is current with the provided
+     * project.json file and with the jar files that it lists.
+     */
+    static QubDependenciesLock getCurrentLock(Folder folder, File projectJsonFile, LookupRunner lookupRunner)
     {
-        output.indent(() ->
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(projectJsonFile, "projectJsonFile");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        QubDependenciesLock result = QubDependenciesLock.read(folder.getFile(QubDependenciesLock.lockFileName).await());
+        if (result != null)
         {
-            final File dependencyProjectJsonFile = qubFolder.getProjectJSONFile(
-                dependency.getPublisher(),
-                dependency.getProject(),
-                dependency.getVersion()).await();
-            final ProjectJSON dependencyProjectJson = ProjectJSON.parse(dependencyProjectJsonFile)
-                .catchError(FileNotFoundException.class)
+            final String projectJsonText = projectJsonFile.getContentsAsString()
+                .catchError()
                 .await();
+            if (projectJsonText == null || !result.isCurrent(projectJsonText, folder.getFileSystem(), lookupRunner))
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
 
-            output.write(dependency.toString()).await();
-            if (dependencyProjectJson == null)
+    static void writeDependencies(CharacterWriteStream output, QubDependencyGraph dependencyGraph, QubDependencyFilter filter, QubDependencyJarStatistics jarStatistics)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertNotNull(filter, "filter");
+
+        final int dependencyCount = dependencyGraph.getRootCount();
+        output.writeLine("Found " + dependencyCount + " " + (dependencyCount == 1 ? "dependency" : "dependencies") + ":").await();
+        final IndentedCharacterWriteStream indentedOutput = IndentedCharacterWriteStream.create(output);
+        for (int rootIndex = 0; rootIndex < dependencyCount; ++rootIndex)
+        {
+            QubDependenciesList.writeDependencyTree(indentedOutput, dependencyGraph, dependencyGraph.getRoot(rootIndex), filter, 1, jarStatistics, new boolean[dependencyGraph.getNodeCount()]);
+        }
+
+        if (jarStatistics != null)
+        {
+            final int closureCount = dependencyGraph.getTransitiveDependencyNodes().length;
+            indentedOutput.writeLine("Transitive closure: " + closureCount + " " + (closureCount == 1 ? "project" : "projects")).await();
+            indentedOutput.indent(() ->
             {
-                output.writeLine(" - Not Found").await();
+                indentedOutput.writeLine("Compiled sources: " + jarStatistics.getClosureCompiledSourcesByteCount() + " bytes").await();
+                indentedOutput.writeLine("Sources: " + jarStatistics.getClosureSourcesByteCount() + " bytes").await();
+            });
+        }
+    }
+
+    static void writeDependencyTree(IndentedCharacterWriteStream output, QubDependencyGraph dependencyGraph, int nodeIndex, QubDependencyFilter filter, int depth, QubDependencyJarStatistics jarStatistics, boolean[] nodesOnPath)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertIndexAccess(nodeIndex, dependencyGraph.getNodeCount(), "nodeIndex");
+        PreCondition.assertNotNull(filter, "filter");
+        PreCondition.assertGreaterThanOrEqualTo(depth, 1, "depth");
+        PreCondition.assertNotNull(nodesOnPath, "nodesOnPath");
+
+        output.indent(() ->
+        {
+            output.write(dependencyGraph.getNode(nodeIndex).toString()).await();
+            if (nodesOnPath[nodeIndex])
+            {
+                output.writeLine(" (cycle)").await();
             }
             else
             {
-                final ProjectJSONJava dependencyProjectJsonJava = dependencyProjectJson.getJava();
-                if (dependencyProjectJsonJava == null)
-                {
-                    output.writeLine(" - No Java Property").await();
-                }
-                else
+                switch (dependencyGraph.getNodeState(nodeIndex))
                 {
-                    output.writeLine().await();
-                    final Iterable<ProjectSignature> dependencyDependencies = dependencyProjectJsonJava.getDependencies();
-                    if (!Iterable.isNullOrEmpty(dependencyDependencies))
-                    {
-                        for (final ProjectSignature dependencyDependency : dependencyDependencies)
+                    case NotFound:
+                        output.writeLine(" - Not Found").await();
+                        break;
+
+                    case NoJavaProperty:
+                        output.writeLine(" - No Java Property").await();
+                        break;
+
+                    default:
+                        if (jarStatistics != null)
                         {
-                            QubDependenciesList.writeDependencyTree(output, dependencyDependency, qubFolder);
+                            output.write(" (compiled: " + QubDependenciesList.getByteCountString(jarStatistics.getCompiledSourcesByteCount(nodeIndex)) +
+                                ", sources: " + QubDependenciesList.getByteCountString(jarStatistics.getSourcesByteCount(nodeIndex)) + ")").await();
                         }
-                    }
+                        output.writeLine().await();
+                        // A node that is shared between branches is resolved at its shallowest
+                        // depth, so deeper occurrences of it must be cut off here.
+                        if (filter.canExpand(depth))
+                        {
+                            nodesOnPath[nodeIndex] = true;
+                            final int dependencyCount = dependencyGraph.getDependencyCount(nodeIndex);
+                            for (int i = 0; i < dependencyCount; ++i)
+                            {
+                                QubDependenciesList.writeDependencyTree(output, dependencyGraph, dependencyGraph.getDependency(nodeIndex, i), filter, depth + 1, jarStatistics, nodesOnPath);
+                            }
+                            nodesOnPath[nodeIndex] = false;
+                        }
+                        break;
                 }
             }
         });
     }
+
+    static String getByteCountString(long byteCount)
+    {
+        return byteCount < 0 ? "missing" : byteCount + " bytes";
+    }
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ public class QubDependenciesListParameters
     private final VerboseCharacterToByteWriteStream verbose;
     private final Folder folder;
     private final EnvironmentVariables environmentVariables;
+    private LookupRunner lookupRunner;
+    private QubDependencyFilter filter;
+    private boolean sizes;
 
     public QubDependenciesListParameters(CharacterWriteStream output, VerboseCharacterToByteWriteStream verbose, Folder folder, EnvironmentVariables environmentVariables)
     {
@@ -18,6 +21,9 @@ public class QubDependenciesListParameters
         this.verbose = verbose;
         this.folder = folder;
         this.environmentVariables = environmentVariables;
+        this.lookupRunner = LookupRunner.create();
+        this.filter = new QubDependencyFilter();
+        this.sizes = false;
     }
 
     public CharacterWriteStream getOutput()
@@ -39,4 +45,41 @@ public class QubDependenciesListParameters
     {
         return this.environmentVariables;
     }
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public QubDependenciesListParameters setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+
+    public QubDependencyFilter getFilter()
+    {
+        return this.filter;
+    }
+
+    public QubDependenciesListParameters setFilter(QubDependencyFilter filter)
+    {
+        PreCondition.assertNotNull(filter, "filter");
+
+        this.filter = filter;
+        return this;
+    }
+
+    public boolean getSizes()
+    {
+        return this.sizes;
+    }
+
+    public QubDependenciesListParameters setSizes(boolean sizes)
+    {
+        this.sizes = sizes;
+        return this;
+    }
 }
\ No newline at end of file
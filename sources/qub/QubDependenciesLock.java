@@ -0,0 +1,389 @@
+package qub;
+
+/**
+ * The fully resolved dependencies of a project, as they are written to a dependencies.lock file
+ * next to the project's project.json file. A lock records the hash of the project.json file that
+ * it was resolved from, every node of the resolved {@link QubDependencyGraph}, and the path,
+ * size, last modified time, and optionally the SHA-256 hash of each node's jar files. A lock is
+ * current for as long as the project.json file hashes to the same value and each jar file has the
+ * same last modified time, which can be checked without reading any project.json files in the Qub
+ * folder.
+ */
+public class QubDependenciesLock
+{
+    public static final String lockFileName = "dependencies.lock";
+
+    private static final String projectJsonHashPropertyName = "projectJsonHash";
+    private static final String hashPropertyName = "hash";
+    private static final String rootsPropertyName = "roots";
+    private static final String nodesPropertyName = "nodes";
+    private static final String publisherPropertyName = "publisher";
+    private static final String projectPropertyName = "project";
+    private static final String versionPropertyName = "version";
+    private static final String statePropertyName = "state";
+    private static final String dependenciesPropertyName = "dependencies";
+    private static final String compiledSourcesPropertyName = "compiledSources";
+    private static final String sourcesPropertyName = "sources";
+    private static final String pathPropertyName = "path";
+    private static final String sizePropertyName = "size";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String sha256PropertyName = "sha256";
+
+    private final String projectJsonHash;
+    private final QubDependencyGraph dependencyGraph;
+    private final QubDependenciesLock.Jar[] compiledSourcesJars;
+    private final QubDependenciesLock.Jar[] sourcesJars;
+
+    private QubDependenciesLock(String projectJsonHash, QubDependencyGraph dependencyGraph, QubDependenciesLock.Jar[] compiledSourcesJars, QubDependenciesLock.Jar[] sourcesJars)
+    {
+        this.projectJsonHash = projectJsonHash;
+        this.dependencyGraph = dependencyGraph;
+        this.compiledSourcesJars = compiledSourcesJars;
+        this.sourcesJars = sourcesJars;
+    }
+
+    /**
+     * Create a lock for the provided resolved dependencies.
+     */
+    public static QubDependenciesLock create(QubFolder qubFolder, QubDependencyGraph dependencyGraph, String projectJsonText, LookupRunner lookupRunner)
+    {
+        return QubDependenciesLock.create(qubFolder, dependencyGraph, projectJsonText, lookupRunner, null);
+    }
+
+    /**
+     * Create a lock for the provided resolved dependencies that also records the SHA-256 hash of
+     * each of the jar files.
+     */
+    public static QubDependenciesLock create(QubFolder qubFolder, QubDependencyGraph dependencyGraph, String projectJsonText, LookupRunner lookupRunner, QubJarHashCache jarHashCache)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertNotNull(projectJsonText, "projectJsonText");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        final int nodeCount = dependencyGraph.getNodeCount();
+        final List<Integer> nodeIndexes = List.create();
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            nodeIndexes.add(nodeIndex);
+        }
+
+        final List<QubDependenciesLock.Jar[]> nodeJars = lookupRunner.map(nodeIndexes, (Integer nodeIndex) ->
+        {
+            final QubProjectVersionFolder projectVersionFolder = QubDependencyJarStatistics.getProjectVersionFolder(qubFolder, dependencyGraph.getNode(nodeIndex));
+            return new QubDependenciesLock.Jar[]
+            {
+                QubDependenciesLock.Jar.create(projectVersionFolder.getCompiledSourcesFile().await(), jarHashCache),
+                QubDependenciesLock.Jar.create(projectVersionFolder.getSourcesFile().await(), jarHashCache),
+            };
+        });
+
+        final QubDependenciesLock.Jar[] compiledSourcesJars = new QubDependenciesLock.Jar[nodeCount];
+        final QubDependenciesLock.Jar[] sourcesJars = new QubDependenciesLock.Jar[nodeCount];
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            compiledSourcesJars[nodeIndex] = nodeJars.get(nodeIndex)[0];
+            sourcesJars[nodeIndex] = nodeJars.get(nodeIndex)[1];
+        }
+
+        return new QubDependenciesLock(QubDependenciesLock.getHash(projectJsonText), dependencyGraph, compiledSourcesJars, sourcesJars);
+    }
+
+    /**
+     * Read the lock in the provided lock file.
+     */
+    public static QubDependenciesLock read(File lockFile)
+    {
+        PreCondition.assertNotNull(lockFile, "lockFile");
+
+        final JSONObject lockJson = lockFile.getContentsAsString()
+            .then((String lockText) -> JSON.parseObject(lockText).await())
+            .catchError()
+            .await();
+        return lockJson == null ? null : QubDependenciesLock.parse(lockJson);
+    }
+
+    /**
+     * Parse a lock from the provided JSON object.
+     */
+    public static QubDependenciesLock parse(JSONObject lockJson)
+    {
+        PreCondition.assertNotNull(lockJson, "lockJson");
+
+        QubDependenciesLock result = null;
+        final String projectJsonHash = lockJson.getString(QubDependenciesLock.projectJsonHashPropertyName).catchError().await();
+        final JSONArray rootsJson = lockJson.getArray(QubDependenciesLock.rootsPropertyName).catchError().await();
+        final JSONArray nodesJson = lockJson.getArray(QubDependenciesLock.nodesPropertyName).catchError().await();
+        if (!Strings.isNullOrEmpty(projectJsonHash) &&
+            rootsJson != null &&
+            nodesJson != null)
+        {
+            result = Result.create(() -> QubDependenciesLock.parse(projectJsonHash, rootsJson, nodesJson))
+                .catchError()
+                .await();
+        }
+        return result;
+    }
+
+    private static QubDependenciesLock parse(String projectJsonHash, JSONArray rootsJson, JSONArray nodesJson)
+    {
+        final int nodeCount = nodesJson.getCount();
+        final List<ProjectSignature> nodes = List.create();
+        final QubDependencyNodeState[] nodeStates = new QubDependencyNodeState[nodeCount];
+        final QubDependenciesLock.Jar[] compiledSourcesJars = new QubDependenciesLock.Jar[nodeCount];
+        final QubDependenciesLock.Jar[] sourcesJars = new QubDependenciesLock.Jar[nodeCount];
+        final List<Integer> edgeSources = List.create();
+        final List<Integer> edgeTargets = List.create();
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            final JSONObject nodeJson = (JSONObject)nodesJson.get(nodeIndex);
+            nodes.add(ProjectSignature.create(
+                nodeJson.getString(QubDependenciesLock.publisherPropertyName).await(),
+                nodeJson.getString(QubDependenciesLock.projectPropertyName).await(),
+                nodeJson.getString(QubDependenciesLock.versionPropertyName).await()));
+            nodeStates[nodeIndex] = QubDependencyNodeState.valueOf(nodeJson.getString(QubDependenciesLock.statePropertyName).await());
+            for (final int dependencyIndex : QubDependenciesLock.parseIndexes(nodeJson.getArray(QubDependenciesLock.dependenciesPropertyName).await(), nodeCount))
+            {
+                edgeSources.add(nodeIndex);
+                edgeTargets.add(dependencyIndex);
+            }
+            compiledSourcesJars[nodeIndex] = QubDependenciesLock.Jar.parse(nodeJson.getObject(QubDependenciesLock.compiledSourcesPropertyName).await());
+            sourcesJars[nodeIndex] = QubDependenciesLock.Jar.parse(nodeJson.getObject(QubDependenciesLock.sourcesPropertyName).await());
+        }
+
+        final int edgeCount = edgeSources.getCount();
+        final int[] edgeSourcesArray = new int[edgeCount];
+        final int[] edgeTargetsArray = new int[edgeCount];
+        for (int i = 0; i < edgeCount; ++i)
+        {
+            edgeSourcesArray[i] = edgeSources.get(i);
+            edgeTargetsArray[i] = edgeTargets.get(i);
+        }
+
+        final QubDependencyGraph dependencyGraph = new QubDependencyGraph(nodes, nodeStates, QubDependenciesLock.parseIndexes(rootsJson, nodeCount), edgeSourcesArray, edgeTargetsArray, edgeCount);
+        return new QubDependenciesLock(projectJsonHash, dependencyGraph, compiledSourcesJars, sourcesJars);
+    }
+
+    private static int[] parseIndexes(JSONArray indexesJson, int nodeCount)
+    {
+        final int[] result = new int[indexesJson.getCount()];
+        for (int i = 0; i < result.length; ++i)
+        {
+            final double index = ((JSONNumber)indexesJson.get(i)).getValue();
+            PreCondition.assertIndexAccess((int)index, nodeCount, "index");
+            result[i] = (int)index;
+        }
+        return result;
+    }
+
+    /**
+     * Get the SHA-256 hash of the provided text as a lowercase hexadecimal string.
+     */
+    static String getHash(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return QubJarHashCache.getHash(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static String toHexString(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final char[] hexCharacters = "0123456789abcdef".toCharArray();
+        final char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i)
+        {
+            result[i * 2] = hexCharacters[(bytes[i] >> 4) & 0xF];
+            result[i * 2 + 1] = hexCharacters[bytes[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    public String getProjectJsonHash()
+    {
+        return this.projectJsonHash;
+    }
+
+    public QubDependencyGraph getDependencyGraph()
+    {
+        return this.dependencyGraph;
+    }
+
+    /**
+     * Get the jar file sizes of the lock's nodes as they were when the lock was created.
+     */
+    public QubDependencyJarStatistics getJarStatistics()
+    {
+        final int nodeCount = this.dependencyGraph.getNodeCount();
+        final long[] compiledSourcesByteCounts = new long[nodeCount];
+        final long[] sourcesByteCounts = new long[nodeCount];
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            compiledSourcesByteCounts[nodeIndex] = this.compiledSourcesJars[nodeIndex].size;
+            sourcesByteCounts[nodeIndex] = this.sourcesJars[nodeIndex].size;
+        }
+        return new QubDependencyJarStatistics(this.dependencyGraph, compiledSourcesByteCounts, sourcesByteCounts);
+    }
+
+    public String getCompiledSourcesPath(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.compiledSourcesJars.length, "nodeIndex");
+
+        return this.compiledSourcesJars[nodeIndex].path;
+    }
+
+    public String getCompiledSourcesHash(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.compiledSourcesJars.length, "nodeIndex");
+
+        return this.compiledSourcesJars[nodeIndex].sha256;
+    }
+
+    public String getSourcesHash(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.sourcesJars.length, "nodeIndex");
+
+        return this.sourcesJars[nodeIndex].sha256;
+    }
+
+    /**
+     * Get whether or not this lock still describes the dependencies of the project whose
+     * project.json file has the provided text.
+     */
+    public boolean isCurrent(String projectJsonText, FileSystem fileSystem, LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(projectJsonText, "projectJsonText");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        boolean result = this.projectJsonHash.equals(QubDependenciesLock.getHash(projectJsonText));
+        if (result)
+        {
+            final List<QubDependenciesLock.Jar> jars = List.create();
+            jars.addAll(Iterable.create(this.compiledSourcesJars));
+            jars.addAll(Iterable.create(this.sourcesJars));
+            for (final boolean jarIsCurrent : lookupRunner.map(jars, (QubDependenciesLock.Jar jar) -> jar.isCurrent(fileSystem)))
+            {
+                if (!jarIsCurrent)
+                {
+                    result = false;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public JSONObject toJson()
+    {
+        final JSONArray rootsJson = JSONArray.create();
+        for (int rootIndex = 0; rootIndex < this.dependencyGraph.getRootCount(); ++rootIndex)
+        {
+            rootsJson.add(JSONNumber.get(this.dependencyGraph.getRoot(rootIndex)));
+        }
+
+        final JSONArray nodesJson = JSONArray.create();
+        for (int nodeIndex = 0; nodeIndex < this.dependencyGraph.getNodeCount(); ++nodeIndex)
+        {
+            final ProjectSignature node = this.dependencyGraph.getNode(nodeIndex);
+            final JSONArray dependenciesJson = JSONArray.create();
+            for (int i = 0; i < this.dependencyGraph.getDependencyCount(nodeIndex); ++i)
+            {
+                dependenciesJson.add(JSONNumber.get(this.dependencyGraph.getDependency(nodeIndex, i)));
+            }
+            nodesJson.add(JSONObject.create()
+                .setString(QubDependenciesLock.publisherPropertyName, node.getPublisher())
+                .setString(QubDependenciesLock.projectPropertyName, node.getProject())
+                .setString(QubDependenciesLock.versionPropertyName, node.getVersion().toString())
+                .setString(QubDependenciesLock.statePropertyName, this.dependencyGraph.getNodeState(nodeIndex).toString())
+                .setArray(QubDependenciesLock.dependenciesPropertyName, dependenciesJson)
+                .setObject(QubDependenciesLock.compiledSourcesPropertyName, this.compiledSourcesJars[nodeIndex].toJson())
+                .setObject(QubDependenciesLock.sourcesPropertyName, this.sourcesJars[nodeIndex].toJson()));
+        }
+
+        // The hash identifies the resolved dependencies, so two locks with the same roots and
+        // nodes have the same hash no matter which project.json file they were resolved from.
+        final String hash = QubDependenciesLock.getHash(JSONObject.create()
+            .setArray(QubDependenciesLock.rootsPropertyName, rootsJson)
+            .setArray(QubDependenciesLock.nodesPropertyName, nodesJson)
+            .toString());
+
+        return JSONObject.create()
+            .setString(QubDependenciesLock.projectJsonHashPropertyName, this.projectJsonHash)
+            .setString(QubDependenciesLock.hashPropertyName, hash)
+            .setArray(QubDependenciesLock.rootsPropertyName, rootsJson)
+            .setArray(QubDependenciesLock.nodesPropertyName, nodesJson);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJson().toString(JSONFormat.pretty);
+    }
+
+    /**
+     * The path, size, last modified time, and optional SHA-256 hash of a jar file when a lock was
+     * created.
+     */
+    private static class Jar
+    {
+        private final String path;
+        private final long size;
+        private final String lastModified;
+        private final String sha256;
+
+        Jar(String path, long size, String lastModified, String sha256)
+        {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha256 = sha256;
+        }
+
+        static QubDependenciesLock.Jar create(File file, QubJarHashCache jarHashCache)
+        {
+            final long size = QubDependencyJarStatistics.getByteCount(file);
+            final DateTime lastModified = size < 0 ? null : file.getLastModified().catchError().await();
+            final String sha256 = size < 0 || jarHashCache == null ? null : jarHashCache.getHash(file);
+            return new QubDependenciesLock.Jar(file.toString(), size, lastModified == null ? null : lastModified.toString(), sha256);
+        }
+
+        static QubDependenciesLock.Jar parse(JSONObject json)
+        {
+            final Double size = json.getNumber(QubDependenciesLock.sizePropertyName).await();
+            return new QubDependenciesLock.Jar(
+                json.getString(QubDependenciesLock.pathPropertyName).await(),
+                size.longValue(),
+                json.getString(QubDependenciesLock.lastModifiedPropertyName).catchError().await(),
+                json.getString(QubDependenciesLock.sha256PropertyName).catchError().await());
+        }
+
+        boolean isCurrent(FileSystem fileSystem)
+        {
+            final File file = fileSystem.getFile(this.path).await();
+            final long currentSize = QubDependencyJarStatistics.getByteCount(file);
+            final DateTime currentLastModified = currentSize < 0
+                ? null
+                : file.getLastModified().catchError().await();
+            return this.size == currentSize &&
+                Comparer.equal(this.lastModified, currentLastModified == null ? null : currentLastModified.toString());
+        }
+
+        JSONObject toJson()
+        {
+            final JSONObject result = JSONObject.create()
+                .setString(QubDependenciesLock.pathPropertyName, this.path)
+                .setNumber(QubDependenciesLock.sizePropertyName, this.size);
+            if (this.lastModified != null)
+            {
+                result.setString(QubDependenciesLock.lastModifiedPropertyName, this.lastModified);
+            }
+            if (this.sha256 != null)
+            {
+                result.setString(QubDependenciesLock.sha256PropertyName, this.sha256);
+            }
+            return result;
+        }
+    }
+}
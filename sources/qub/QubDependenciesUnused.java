@@ -0,0 +1,357 @@
+package qub;
+
+public interface QubDependenciesUnused
+{
+    String actionName = "unused";
+    String actionDescription = "Find the dependencies of a project that its compiled classes don't use.";
+
+    static QubDependenciesUnusedParameters getParameters(DesktopProcess process)
+    {
+        PreCondition.assertNotNull(process, "process");
+
+        QubDependenciesUnusedParameters result = null;
+
+        final CommandLineParameters parameters = process.createCommandLineParameters()
+            .setApplicationName(QubDependencies.getActionFullName(QubDependenciesUnused.actionName))
+            .setApplicationDescription(QubDependenciesUnused.actionDescription);
+        final CommandLineParameter<String> concurrencyParameter = QubDependencies.addConcurrency(parameters);
+        final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubDependenciesUnused.class);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            profilerParameter.await();
+
+            final CharacterWriteStream output = process.getOutputWriteStream();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            final Folder folder = process.getCurrentFolder();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final LookupRunner lookupRunner = QubDependencies.getLookupRunner(process, concurrencyParameter);
+            if (lookupRunner != null)
+            {
+                result = new QubDependenciesUnusedParameters(output, verbose, folder, environmentVariables)
+                    .setLookupRunner(lookupRunner);
+            }
+        }
+
+        return result;
+    }
+
+    static int run(QubDependenciesUnusedParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        int exitCode = 0;
+
+        final CharacterWriteStream output = parameters.getOutput();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder folder = parameters.getFolder();
+        final LookupRunner lookupRunner = parameters.getLookupRunner();
+
+        output.writeLine("Finding unused dependencies of " + folder + "...").await();
+
+        final File projectJsonFile = folder.getFile("project.json").await();
+        final ProjectJSON projectJSON = ProjectJSON.parse(projectJsonFile)
+            .catchError(FileNotFoundException.class)
+            .await();
+        final ProjectJSONJava projectJSONJava = projectJSON == null ? null : projectJSON.getJava();
+        if (projectJSON == null)
+        {
+            output.writeLine("No project.json file found at " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else if (projectJSONJava == null)
+        {
+            output.writeLine("No \"java\" property found in " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else if (Iterable.isNullOrEmpty(projectJSONJava.getDependencies()))
+        {
+            output.writeLine("No dependencies found in " + projectJsonFile + ".").await();
+        }
+        else
+        {
+            final Folder outputsFolder = folder.getFolder("outputs").await();
+            final Folder sourcesFolder = folder.getFolder("sources").await();
+            final Iterable<File> classFiles = QubDependenciesUnused.getSourceClassFiles(sourcesFolder, outputsFolder);
+            if (!classFiles.any())
+            {
+                output.writeLine("No classes compiled from " + sourcesFolder + " found in " + outputsFolder + ".").await();
+                exitCode = 1;
+            }
+            else
+            {
+                QubDependencyGraph dependencyGraph = null;
+                String[] nodeJarPaths = null;
+                final QubDependenciesLock lock = QubDependenciesList.getCurrentLock(folder, projectJsonFile, lookupRunner);
+                if (lock != null)
+                {
+                    verbose.writeLine("Using " + folder.getFile(QubDependenciesLock.lockFileName).await() + ".").await();
+                    dependencyGraph = lock.getDependencyGraph();
+                    nodeJarPaths = new String[dependencyGraph.getNodeCount()];
+                    for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes())
+                    {
+                        if (dependencyGraph.getNodeState(nodeIndex) == QubDependencyNodeState.Found)
+                        {
+                            nodeJarPaths[nodeIndex] = lock.getCompiledSourcesPath(nodeIndex);
+                        }
+                    }
+                }
+                else
+                {
+                    final QubFolder qubFolder = QubDependencies.getQubFolder(folder, parameters.getEnvironmentVariables(), output);
+                    if (qubFolder == null)
+                    {
+                        exitCode = 1;
+                    }
+                    else
+                    {
+                        dependencyGraph = new QubDependencyResolver(qubFolder)
+                            .setLookupRunner(lookupRunner)
+                            .resolve(projectJSONJava.getDependencies());
+                        nodeJarPaths = new String[dependencyGraph.getNodeCount()];
+                        for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes())
+                        {
+                            if (dependencyGraph.getNodeState(nodeIndex) == QubDependencyNodeState.Found)
+                            {
+                                final QubProjectVersionFolder projectVersionFolder = QubDependencyJarStatistics.getProjectVersionFolder(qubFolder, dependencyGraph.getNode(nodeIndex));
+                                nodeJarPaths[nodeIndex] = projectVersionFolder.getCompiledSourcesFile().await().toString();
+                            }
+                        }
+                    }
+                }
+
+                if (dependencyGraph != null)
+                {
+                    final Set<String> referencedClassNames = QubDependenciesUnused.getReferencedClassNames(classFiles, lookupRunner, verbose);
+                    final int[] referencedClassCounts = QubDependenciesUnused.getReferencedClassCounts(folder.getFileSystem(), nodeJarPaths, referencedClassNames, lookupRunner, verbose);
+                    QubDependenciesUnused.writeUnusedDependencies(output, dependencyGraph, nodeJarPaths, referencedClassCounts);
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the class files in the provided outputs folder that were compiled from the Java files in
+     * the provided sources folder. The classes that were compiled from the tests folder share the
+     * outputs folder, but their references don't make a dependency used.
+     */
+    static Iterable<File> getSourceClassFiles(Folder sourcesFolder, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(sourcesFolder, "sourcesFolder");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        final Set<String> sourceClassPaths = Set.create();
+        final Iterable<File> sourcesFiles = sourcesFolder.getFilesRecursively()
+            .catchError(FolderNotFoundException.class)
+            .await();
+        if (sourcesFiles != null)
+        {
+            for (final File sourcesFile : sourcesFiles)
+            {
+                if (sourcesFile.getName().endsWith(".java"))
+                {
+                    sourceClassPaths.add(QubDependenciesUnused.getClassPath(sourcesFolder, sourcesFile, ".java"));
+                }
+            }
+        }
+
+        final List<File> result = List.create();
+        final Iterable<File> outputsFiles = sourceClassPaths.any()
+            ? outputsFolder.getFilesRecursively()
+                .catchError(FolderNotFoundException.class)
+                .await()
+            : null;
+        if (outputsFiles != null)
+        {
+            for (final File outputsFile : outputsFiles)
+            {
+                if (outputsFile.getName().endsWith(".class"))
+                {
+                    // Nested classes are compiled to files named after their top-level class,
+                    // such as A$B.class for the class B that is nested in A.
+                    String classPath = QubDependenciesUnused.getClassPath(outputsFolder, outputsFile, ".class");
+                    final int nestedClassIndex = classPath.indexOf('$', classPath.lastIndexOf('/') + 1);
+                    if (nestedClassIndex >= 0)
+                    {
+                        classPath = classPath.substring(0, nestedClassIndex);
+                    }
+                    if (sourceClassPaths.contains(classPath))
+                    {
+                        result.add(outputsFile);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String getClassPath(Folder folder, File file, String fileExtension)
+    {
+        String result = file.toString().substring(folder.toString().length());
+        if (result.startsWith("/"))
+        {
+            result = result.substring(1);
+        }
+        return result.substring(0, result.length() - fileExtension.length());
+    }
+
+    /**
+     * Get the internal names of the classes that are referenced by the provided class files.
+     */
+    static Set<String> getReferencedClassNames(Iterable<File> classFiles, LookupRunner lookupRunner, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final List<Set<String>> classFileReferences = lookupRunner.map(classFiles, (File classFile) ->
+        {
+            final byte[] classFileBytes = classFile.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            return classFileBytes == null ? null : QubClassReferences.getReferencedClassNames(classFileBytes);
+        });
+
+        final Set<String> result = Set.create();
+        int classFileIndex = 0;
+        for (final File classFile : classFiles)
+        {
+            final Set<String> references = classFileReferences.get(classFileIndex++);
+            if (references == null)
+            {
+                verbose.writeLine("Couldn't read " + classFile + ".").await();
+            }
+            else
+            {
+                result.addAll(references);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of referenced classes that each node's jar file defines. A referenced class
+     * that is defined by several jar files is counted for each of them.
+     */
+    static int[] getReferencedClassCounts(FileSystem fileSystem, String[] nodeJarPaths, Set<String> referencedClassNames, LookupRunner lookupRunner, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+        PreCondition.assertNotNull(nodeJarPaths, "nodeJarPaths");
+        PreCondition.assertNotNull(referencedClassNames, "referencedClassNames");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final List<Integer> nodeIndexes = List.create();
+        for (int nodeIndex = 0; nodeIndex < nodeJarPaths.length; ++nodeIndex)
+        {
+            if (nodeJarPaths[nodeIndex] != null)
+            {
+                nodeIndexes.add(nodeIndex);
+            }
+        }
+
+        final List<Set<String>> nodeClassNames = lookupRunner.map(nodeIndexes, (Integer nodeIndex) ->
+        {
+            final File jarFile = fileSystem.getFile(nodeJarPaths[nodeIndex])
+                .catchError()
+                .await();
+            return jarFile == null ? null : QubClassReferences.getDefinedClassNames(jarFile);
+        });
+
+        final int[] result = new int[nodeJarPaths.length];
+        for (int i = 0; i < nodeIndexes.getCount(); ++i)
+        {
+            final int nodeIndex = nodeIndexes.get(i);
+            final Set<String> classNames = nodeClassNames.get(i);
+            if (classNames == null)
+            {
+                verbose.writeLine("Couldn't read " + nodeJarPaths[nodeIndex] + ".").await();
+                result[nodeIndex] = -1;
+            }
+            else
+            {
+                for (final String className : classNames)
+                {
+                    if (referencedClassNames.contains(className))
+                    {
+                        ++result[nodeIndex];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the direct dependencies whose classes aren't referenced and the transitive dependencies
+     * whose classes are referenced.
+     */
+    static void writeUnusedDependencies(CharacterWriteStream output, QubDependencyGraph dependencyGraph, String[] nodeJarPaths, int[] referencedClassCounts)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertNotNull(nodeJarPaths, "nodeJarPaths");
+        PreCondition.assertNotNull(referencedClassCounts, "referencedClassCounts");
+
+        final boolean[] directNodes = new boolean[dependencyGraph.getNodeCount()];
+        final List<ProjectSignature> unusedDependencies = List.create();
+        final int rootCount = dependencyGraph.getRootCount();
+        for (int rootIndex = 0; rootIndex < rootCount; ++rootIndex)
+        {
+            final int nodeIndex = dependencyGraph.getRoot(rootIndex);
+            directNodes[nodeIndex] = true;
+            if (nodeJarPaths[nodeIndex] != null && referencedClassCounts[nodeIndex] == 0)
+            {
+                unusedDependencies.add(dependencyGraph.getNode(nodeIndex));
+            }
+        }
+
+        final List<ProjectSignature> referencedTransitiveDependencies = List.create();
+        for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes())
+        {
+            if (!directNodes[nodeIndex] && nodeJarPaths[nodeIndex] != null && referencedClassCounts[nodeIndex] > 0)
+            {
+                referencedTransitiveDependencies.add(dependencyGraph.getNode(nodeIndex));
+            }
+        }
+
+        final IndentedCharacterWriteStream indentedOutput = IndentedCharacterWriteStream.create(output);
+        final int unusedCount = unusedDependencies.getCount();
+        if (unusedCount == 0)
+        {
+            indentedOutput.writeLine("No unused dependencies found.").await();
+        }
+        else
+        {
+            indentedOutput.writeLine("Found " + unusedCount + " unused " + (unusedCount == 1 ? "dependency" : "dependencies") + ":").await();
+            indentedOutput.indent(() ->
+            {
+                for (final ProjectSignature unusedDependency : unusedDependencies)
+                {
+                    indentedOutput.writeLine(unusedDependency.toString()).await();
+                }
+            });
+        }
+
+        final int referencedCount = referencedTransitiveDependencies.getCount();
+        if (referencedCount == 0)
+        {
+            indentedOutput.writeLine("No transitive dependencies are referenced directly.").await();
+        }
+        else
+        {
+            indentedOutput.writeLine("Found " + referencedCount + " transitive " + (referencedCount == 1 ? "dependency that is" : "dependencies that are") + " referenced directly:").await();
+            indentedOutput.indent(() ->
+            {
+                for (final ProjectSignature referencedDependency : referencedTransitiveDependencies)
+                {
+                    indentedOutput.writeLine(referencedDependency.toString()).await();
+                }
+            });
+        }
+    }
+}
@@ -4,6 +4,9 @@ public interface QubDependenciesUpdate
 {
     String actionName = "update";
     String actionDescription = "Update the dependencies of a project.";
+    String listingCacheFilePath = "outputs/qub-dependencies/folder-listings.json";
+    String testClassIndexFilePath = "outputs/qub-dependencies/test-classes.json";
+    int defaultProjectConcurrency = 4;
 
     static QubDependenciesUpdateParameters getParameters(DesktopProcess process)
     {
@@ -16,6 +19,29 @@ public interface QubDependenciesUpdate
             .setApplicationDescription(QubDependenciesUpdate.actionDescription);
         final CommandLineParameterBoolean intellijParameter = parameters.addBoolean("intellij", true)
             .setDescription("Whether or not to update IntelliJ project files.");
+        final CommandLineParameterBoolean transitiveParameter = parameters.addBoolean("transitive", false)
+            .setDescription("Whether or not to report the updates that are available for indirect dependencies.");
+        final CommandLineParameterBoolean dryRunParameter = parameters.addBoolean("dry-run", false)
+            .setDescription("Whether or not to only report the changes that would be made without changing any files.");
+        final CommandLineParameterBoolean jsonParameter = parameters.addBoolean("json", false)
+            .setDescription("Whether or not to write the changes as a JSON object instead of as a log.");
+        final CommandLineParameter<String> ignoreParameter = parameters.addString("ignore")
+            .setDescription("A comma-separated list of .gitignore-style patterns for the folders that won't be searched for IntelliJ module files.");
+        final CommandLineParameter<String> searchDepthParameter = parameters.addString("search-depth")
+            .setDescription("The number of folder levels below the project folder that are searched for IntelliJ module files. The tests folder is always searched completely. Defaults to no limit.");
+        final CommandLineParameterBoolean requireTestMethodParameter = parameters.addBoolean("require-test-method", false)
+            .setDescription("Whether or not to only create run configurations for test classes that declare a static void test(TestRunner) method.");
+        final CommandLineParameterBoolean recursiveParameter = parameters.addBoolean("recursive", false)
+            .setDescription("Whether or not to update every project under the current folder that has a project.json file.");
+        final CommandLineParameter<String> projectsParameter = parameters.addString("projects")
+            .setDescription("A comma-separated list of the project folders to update instead of the current folder.");
+        final CommandLineParameterBoolean lockParameter = parameters.addBoolean("lock", false)
+            .setDescription("Whether or not to write a dependencies.lock file next to the project.json file.");
+        final CommandLineParameterBoolean verifyParameter = parameters.addBoolean("verify", false)
+            .setDescription("Whether or not to only check that the dependencies.lock file is current instead of updating the project.");
+        final CommandLineParameterBoolean classpathParameter = parameters.addBoolean("classpath", false)
+            .setDescription("Whether or not to write the project's runtime classpath to a classpath file and a Java argument file.");
+        final CommandLineParameter<String> concurrencyParameter = QubDependencies.addConcurrency(parameters);
         final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubDependenciesUpdate.class);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterHelp helpParameter = parameters.addHelp();
@@ -28,10 +54,54 @@ public interface QubDependenciesUpdate
             final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
             final Folder folder = process.getCurrentFolder();
             final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
-            final boolean intellij = intellijParameter.getValue().await();
+            final LookupRunner lookupRunner = QubDependencies.getLookupRunner(process, concurrencyParameter);
+            final Integer searchDepth = lookupRunner == null
+                ? null
+                : QubDependencies.parsePositiveInteger(process, "search-depth", searchDepthParameter.getValue().await(), 0);
+            if (searchDepth != null)
+            {
+                final boolean intellij = intellijParameter.getValue().await();
+                final boolean transitive = transitiveParameter.getValue().await();
+                final boolean dryRun = dryRunParameter.getValue().await();
+                final boolean json = jsonParameter.getValue().await();
+                final boolean requireTestMethod = requireTestMethodParameter.getValue().await();
+                final ProjectFileFinder fileFinder = new ProjectFileFinder()
+                    .setLookupRunner(lookupRunner)
+                    .setListingCacheFile(folder.getFile(QubDependenciesUpdate.listingCacheFilePath).await())
+                    .setWriteListingCache(!dryRun);
+                if (searchDepth > 0)
+                {
+                    fileFinder.setMaximumDepth(searchDepth);
+                }
+                for (final String ignorePattern : QubDependencies.parseList(ignoreParameter.getValue().await()))
+                {
+                    fileFinder.addIgnorePattern(ignorePattern);
+                }
+                final LookupRunner projectLookupRunner = lookupRunner.getConcurrency() == 1
+                    ? LookupRunner.create()
+                    : LookupRunner.create(process.getParallelAsyncRunner(), QubDependenciesUpdate.defaultProjectConcurrency);
 
-            result = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
-                .setIntellij(intellij);
+                result = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                    .setIntellij(intellij)
+                    .setTransitive(transitive)
+                    .setDryRun(dryRun)
+                    .setJson(json)
+                    .setRequireTestMethod(requireTestMethod)
+                    .setFileFinder(fileFinder)
+                    .setRecursive(recursiveParameter.getValue().await())
+                    .setLock(lockParameter.getValue().await())
+                    .setVerify(verifyParameter.getValue().await())
+                    .setClasspath(classpathParameter.getValue().await())
+                    .setProjectLookupRunner(projectLookupRunner)
+                    .setLookupRunner(lookupRunner);
+                for (final String projectPath : QubDependencies.parseList(projectsParameter.getValue().await()))
+                {
+                    final Path path = Path.parse(projectPath);
+                    result.addProjectFolder(path.isRooted()
+                        ? folder.getFileSystem().getFolder(path).await()
+                        : folder.getFolder(path).await());
+                }
+            }
         }
 
         return result;
@@ -41,13 +111,541 @@ public interface QubDependenciesUpdate
     {
         PreCondition.assertNotNull(parameters, "parameters");
 
+        int exitCode;
+        if (parameters.getVerify())
+        {
+            exitCode = parameters.getRecursive() || parameters.getProjectFolders().any()
+                ? QubDependenciesUpdate.verifyLocks(parameters)
+                : QubDependenciesUpdate.verifyLock(parameters);
+        }
+        else if (parameters.getRecursive() || parameters.getProjectFolders().any())
+        {
+            exitCode = QubDependenciesUpdate.runProjects(parameters);
+        }
+        else
+        {
+            final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+            exitCode = QubDependenciesUpdate.runProject(parameters, plan);
+
+            if (parameters.getJson() && exitCode == 0)
+            {
+                parameters.getOutput().writeLine(plan.toJson().toString(JSONFormat.pretty)).await();
+            }
+        }
+        return exitCode;
+    }
+
+    /**
+     * Check whether the dependencies.lock file in the provided parameters' folder is current
+     * without resolving the project's dependencies.
+     */
+    static int verifyLock(QubDependenciesUpdateParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
         int exitCode = 0;
 
         final CharacterWriteStream output = parameters.getOutput();
+        final Folder folder = parameters.getFolder();
+
+        output.writeLine("Verifying dependencies for " + folder + "...").await();
+
+        final File projectJsonFile = folder.getFile("project.json").await();
+        final String projectJsonText = projectJsonFile.getContentsAsString()
+            .catchError(FileNotFoundException.class)
+            .await();
+        if (projectJsonText == null)
+        {
+            output.writeLine("No project.json file found at " + projectJsonFile + ".").await();
+            exitCode = 1;
+        }
+        else
+        {
+            final File lockFile = folder.getFile(QubDependenciesLock.lockFileName).await();
+            final QubDependenciesLock lock = QubDependenciesLock.read(lockFile);
+            if (lock == null)
+            {
+                output.writeLine("No valid " + QubDependenciesLock.lockFileName + " file found at " + lockFile + ".").await();
+                exitCode = 1;
+            }
+            else if (!lock.isCurrent(projectJsonText, folder.getFileSystem(), parameters.getLookupRunner()))
+            {
+                output.writeLine(lockFile + " is out of date.").await();
+                exitCode = 1;
+            }
+            else
+            {
+                output.writeLine(lockFile + " is up to date.").await();
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Check the dependencies.lock file of each of the provided parameters' project folders, or of
+     * every project under the provided parameters' folder if the parameters are recursive.
+     */
+    static int verifyLocks(QubDependenciesUpdateParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        int exitCode = 0;
+
+        final List<Folder> projectFolders = QubDependenciesUpdate.getProjectFolders(parameters);
+        if (!projectFolders.any())
+        {
+            parameters.getOutput().writeLine("No projects found in " + parameters.getFolder() + ".").await();
+            exitCode = 1;
+        }
+        else
+        {
+            for (final Folder projectFolder : projectFolders)
+            {
+                final QubDependenciesUpdateParameters projectParameters = new QubDependenciesUpdateParameters(parameters.getOutput(), parameters.getVerbose(), projectFolder, parameters.getEnvironmentVariables())
+                    .setLookupRunner(parameters.getLookupRunner());
+                if (QubDependenciesUpdate.verifyLock(projectParameters) != 0)
+                {
+                    exitCode = 1;
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the distinct project folders of the provided parameters, followed by every project under
+     * the provided parameters' folder if the parameters are recursive.
+     */
+    static List<Folder> getProjectFolders(QubDependenciesUpdateParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final List<Folder> projectFolders = List.create(parameters.getProjectFolders());
+        if (parameters.getRecursive())
+        {
+            // The project folders are found one depth at a time, so a project is always found
+            // before the projects that are nested inside of it.
+            for (final File projectJsonFile : parameters.getFileFinder().find(parameters.getFolder(), ".json"))
+            {
+                if (Comparer.equal("project.json", projectJsonFile.getName()))
+                {
+                    projectFolders.add(projectJsonFile.getParentFolder().await());
+                }
+            }
+        }
+
+        final List<Folder> result = List.create();
+        final Set<String> projectFolderPaths = Set.create();
+        for (final Folder projectFolder : projectFolders)
+        {
+            final String projectFolderPath = projectFolder.toString();
+            if (!projectFolderPaths.contains(projectFolderPath))
+            {
+                projectFolderPaths.add(projectFolderPath);
+                result.add(projectFolder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update each of the provided parameters' project folders, or every project under the provided
+     * parameters' folder if the parameters are recursive.
+     */
+    static int runProjects(QubDependenciesUpdateParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        int exitCode = 0;
+
+        final CharacterWriteStream output = parameters.getOutput();
+        final Folder folder = parameters.getFolder();
+        final boolean json = parameters.getJson();
+
+        final List<Folder> distinctProjectFolders = QubDependenciesUpdate.getProjectFolders(parameters);
+
+        if (!distinctProjectFolders.any())
+        {
+            (json ? parameters.getVerbose() : output).writeLine("No projects found in " + folder + ".").await();
+            exitCode = 1;
+        }
+        else
+        {
+            final QubFolder qubFolder = QubDependencies.getQubFolder(folder, parameters.getEnvironmentVariables(), json ? parameters.getVerbose() : output);
+            if (qubFolder == null)
+            {
+                exitCode = 1;
+            }
+            else
+            {
+                final QubLatestVersionCache latestVersionCache = parameters.getLatestVersionCache() != null
+                    ? parameters.getLatestVersionCache()
+                    : new QubLatestVersionCache(qubFolder).setWriteRecords(!parameters.getDryRun());
+                final QubDependencyResolver dependencyResolver = parameters.getDependencyResolver() != null
+                    ? parameters.getDependencyResolver()
+                    : new QubDependencyResolver(qubFolder).setLookupRunner(parameters.getLookupRunner());
+                final QubJarHashCache jarHashCache = parameters.getJarHashCache() != null
+                    ? parameters.getJarHashCache()
+                    : QubJarHashCache.create(qubFolder);
+
+                final List<InMemoryCharacterToByteStream> projectOutputs = List.create();
+                final List<QubDependenciesUpdateParameters> projectParametersList = List.create();
+                final List<QubDependenciesUpdatePlan> projectPlans = List.create();
+                for (final Folder projectFolder : distinctProjectFolders)
+                {
+                    final InMemoryCharacterToByteStream projectOutput = InMemoryCharacterToByteStream.create();
+                    projectOutputs.add(projectOutput);
+                    projectPlans.add(new QubDependenciesUpdatePlan());
+
+                    // Each project gets its own listing cache, and the projects that are nested
+                    // inside of it are left to their own updates.
+                    final String projectFolderPath = projectFolder.toString();
+                    final ProjectFileFinder projectFileFinder = parameters.getFileFinder().copy()
+                        .setListingCacheFile(projectFolder.getFile(QubDependenciesUpdate.listingCacheFilePath).await());
+                    for (final Folder otherProjectFolder : distinctProjectFolders)
+                    {
+                        final String otherProjectFolderPath = otherProjectFolder.toString();
+                        if (otherProjectFolderPath.length() > projectFolderPath.length() && otherProjectFolderPath.startsWith(projectFolderPath))
+                        {
+                            String nestedProjectPattern = "/" + otherProjectFolderPath.substring(projectFolderPath.length());
+                            if (!nestedProjectPattern.endsWith("/"))
+                            {
+                                nestedProjectPattern += "/";
+                            }
+                            projectFileFinder.addIgnorePattern(nestedProjectPattern);
+                        }
+                    }
+
+                    projectParametersList.add(new QubDependenciesUpdateParameters(projectOutput, parameters.getVerbose(), projectFolder, parameters.getEnvironmentVariables())
+                        .setIntellij(parameters.getIntellij())
+                        .setTransitive(parameters.getTransitive())
+                        .setDryRun(parameters.getDryRun())
+                        .setJson(json)
+                        .setRequireTestMethod(parameters.getRequireTestMethod())
+                        .setFileFinder(projectFileFinder)
+                        .setLookupRunner(parameters.getLookupRunner())
+                        .setLock(parameters.getLock())
+                        .setClasspath(parameters.getClasspath())
+                        .setLatestVersionCache(latestVersionCache)
+                        .setDependencyResolver(dependencyResolver)
+                        .setJarHashCache(jarHashCache));
+                }
+
+                // A project that depends on another project in the same workspace is updated in a
+                // later wave than that project, and the latest versions of each wave's projects
+                // are looked up again by the waves that follow it.
+                final List<ProjectJSON> projectJsons = List.create();
+                for (final Folder projectFolder : distinctProjectFolders)
+                {
+                    projectJsons.add(ProjectJSON.parse(projectFolder.getFile("project.json").await())
+                        .catchError()
+                        .await());
+                }
+                final List<List<Integer>> updateWaves = QubDependenciesUpdate.getUpdateWaves(projectJsons);
+                final int[] projectExitCodes = new int[distinctProjectFolders.getCount()];
+                int waveNumber = 0;
+                for (final List<Integer> updateWave : updateWaves)
+                {
+                    ++waveNumber;
+                    final CharacterList waveDescription = CharacterList.create();
+                    waveDescription.addAll("Update wave " + waveNumber + " of " + updateWaves.getCount() + ":");
+                    for (final int projectIndex : updateWave)
+                    {
+                        waveDescription.addAll(" " + distinctProjectFolders.get(projectIndex));
+                    }
+                    parameters.getVerbose().writeLine(waveDescription.toString(true)).await();
+
+                    final List<Integer> waveExitCodes = parameters.getProjectLookupRunner().map(updateWave,
+                        (Integer projectIndex) -> QubDependenciesUpdate.runProject(projectParametersList.get(projectIndex), projectPlans.get(projectIndex)));
+                    for (int i = 0; i < updateWave.getCount(); ++i)
+                    {
+                        final int projectIndex = updateWave.get(i);
+                        projectExitCodes[projectIndex] = waveExitCodes.get(i);
+
+                        final ProjectJSON projectJson = projectJsons.get(projectIndex);
+                        if (QubDependenciesUpdate.getWorkspaceProjectKey(projectJson) != null)
+                        {
+                            latestVersionCache.invalidate(projectJson.getPublisher(), projectJson.getProject());
+                        }
+                    }
+                }
+                if (parameters.getJarHashCache() == null)
+                {
+                    jarHashCache.write();
+                }
+
+                final JSONArray projectsJson = JSONArray.create();
+                boolean hasChanges = false;
+                for (int i = 0; i < projectExitCodes.length; ++i)
+                {
+                    final int projectExitCode = projectExitCodes[i];
+                    if (projectExitCode != 0)
+                    {
+                        exitCode = 1;
+                    }
+
+                    if (json)
+                    {
+                        final QubDependenciesUpdatePlan projectPlan = projectPlans.get(i);
+                        hasChanges |= projectPlan.hasChanges();
+                        projectsJson.add(JSONObject.create()
+                            .setString("folder", distinctProjectFolders.get(i).toString())
+                            .setNumber("exitCode", projectExitCode)
+                            .setObject("plan", projectPlan.toJson()));
+                    }
+                    else
+                    {
+                        output.write(projectOutputs.get(i).getText().await()).await();
+                    }
+                }
+
+                if (json)
+                {
+                    output.writeLine(JSONObject.create()
+                        .setBoolean("hasChanges", hasChanges)
+                        .setArray("projects", projectsJson)
+                        .toString(JSONFormat.pretty)).await();
+                }
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the waves that the provided workspace projects will be updated in.
+     */
+    static List<List<Integer>> getUpdateWaves(List<ProjectJSON> projectJsons)
+    {
+        PreCondition.assertNotNull(projectJsons, "projectJsons");
+
+        final int projectCount = projectJsons.getCount();
+        final Map<String,Integer> projectIndexes = Map.create();
+        for (int i = 0; i < projectCount; ++i)
+        {
+            final String projectKey = QubDependenciesUpdate.getWorkspaceProjectKey(projectJsons.get(i));
+            if (projectKey != null && !projectIndexes.containsKey(projectKey))
+            {
+                projectIndexes.set(projectKey, i);
+            }
+        }
+
+        final List<List<Integer>> projectDependencies = List.create();
+        for (int i = 0; i < projectCount; ++i)
+        {
+            final List<Integer> dependencyIndexes = List.create();
+            final ProjectJSON projectJson = projectJsons.get(i);
+            final ProjectJSONJava projectJsonJava = projectJson == null ? null : projectJson.getJava();
+            final Iterable<ProjectSignature> dependencies = projectJsonJava == null ? null : projectJsonJava.getDependencies();
+            if (dependencies != null)
+            {
+                for (final ProjectSignature dependency : dependencies)
+                {
+                    final Integer dependencyIndex = projectIndexes.get(dependency.getPublisher() + "/" + dependency.getProject())
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (dependencyIndex != null && dependencyIndex != i)
+                    {
+                        dependencyIndexes.add(dependencyIndex);
+                    }
+                }
+            }
+            projectDependencies.add(dependencyIndexes);
+        }
+
+        // The waves are scheduled over the graph of the dependency cycles (and the projects that
+        // aren't in a cycle), which never has a cycle of its own.
+        final int[] componentIndexes = QubDependenciesUpdate.getStronglyConnectedComponents(projectDependencies);
+        int componentCount = 0;
+        for (final int componentIndex : componentIndexes)
+        {
+            componentCount = Math.max(componentCount, componentIndex + 1);
+        }
+
+        final int[] remainingDependencyCounts = new int[componentCount];
+        final List<Set<Integer>> componentDependents = List.create();
+        for (int i = 0; i < componentCount; ++i)
+        {
+            componentDependents.add(Set.create());
+        }
+        for (int i = 0; i < projectCount; ++i)
+        {
+            final int componentIndex = componentIndexes[i];
+            for (final int dependencyIndex : projectDependencies.get(i))
+            {
+                final Set<Integer> dependents = componentDependents.get(componentIndexes[dependencyIndex]);
+                if (componentIndexes[dependencyIndex] != componentIndex && !dependents.contains(componentIndex))
+                {
+                    dependents.add(componentIndex);
+                    ++remainingDependencyCounts[componentIndex];
+                }
+            }
+        }
+
+        final List<List<Integer>> result = List.create();
+        boolean[] ready = new boolean[componentCount];
+        boolean anyReady = false;
+        for (int i = 0; i < componentCount; ++i)
+        {
+            if (remainingDependencyCounts[i] == 0)
+            {
+                ready[i] = true;
+                anyReady = true;
+            }
+        }
+        while (anyReady)
+        {
+            // The projects in each wave stay in the order that they were provided in.
+            final List<Integer> wave = List.create();
+            for (int i = 0; i < projectCount; ++i)
+            {
+                if (ready[componentIndexes[i]])
+                {
+                    wave.add(i);
+                }
+            }
+            result.add(wave);
+
+            final boolean[] nextReady = new boolean[componentCount];
+            anyReady = false;
+            for (int i = 0; i < componentCount; ++i)
+            {
+                if (ready[i])
+                {
+                    for (final int dependentIndex : componentDependents.get(i))
+                    {
+                        if (--remainingDependencyCounts[dependentIndex] == 0)
+                        {
+                            nextReady[dependentIndex] = true;
+                            anyReady = true;
+                        }
+                    }
+                }
+            }
+            ready = nextReady;
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the strongly connected component that each node of the provided graph belongs to, using
+     * an iterative form of Tarjan's algorithm.
+     */
+    static int[] getStronglyConnectedComponents(List<List<Integer>> dependencies)
+    {
+        PreCondition.assertNotNull(dependencies, "dependencies");
+
+        final int nodeCount = dependencies.getCount();
+        final int[] result = new int[nodeCount];
+        final int[] visitIndexes = new int[nodeCount];
+        java.util.Arrays.fill(visitIndexes, -1);
+        final int[] lowLinks = new int[nodeCount];
+        final boolean[] onStack = new boolean[nodeCount];
+        final int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        final int[] callStack = new int[nodeCount];
+        final int[] callStackEdges = new int[nodeCount];
+        int callStackSize = 0;
+        int visitCount = 0;
+        int componentCount = 0;
+        for (int root = 0; root < nodeCount; ++root)
+        {
+            if (visitIndexes[root] == -1)
+            {
+                visitIndexes[root] = visitCount;
+                lowLinks[root] = visitCount;
+                ++visitCount;
+                stack[stackSize++] = root;
+                onStack[root] = true;
+                callStack[callStackSize] = root;
+                callStackEdges[callStackSize] = 0;
+                ++callStackSize;
+
+                while (callStackSize > 0)
+                {
+                    final int node = callStack[callStackSize - 1];
+                    final List<Integer> nodeDependencies = dependencies.get(node);
+                    if (callStackEdges[callStackSize - 1] < nodeDependencies.getCount())
+                    {
+                        final int dependency = nodeDependencies.get(callStackEdges[callStackSize - 1]++);
+                        if (visitIndexes[dependency] == -1)
+                        {
+                            visitIndexes[dependency] = visitCount;
+                            lowLinks[dependency] = visitCount;
+                            ++visitCount;
+                            stack[stackSize++] = dependency;
+                            onStack[dependency] = true;
+                            callStack[callStackSize] = dependency;
+                            callStackEdges[callStackSize] = 0;
+                            ++callStackSize;
+                        }
+                        else if (onStack[dependency])
+                        {
+                            lowLinks[node] = Math.min(lowLinks[node], visitIndexes[dependency]);
+                        }
+                    }
+                    else
+                    {
+                        --callStackSize;
+                        if (callStackSize > 0)
+                        {
+                            final int parent = callStack[callStackSize - 1];
+                            lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+                        }
+
+                        if (lowLinks[node] == visitIndexes[node])
+                        {
+                            int member;
+                            do
+                            {
+                                member = stack[--stackSize];
+                                onStack[member] = false;
+                                result[member] = componentCount;
+                            }
+                            while (member != node);
+                            ++componentCount;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String getWorkspaceProjectKey(ProjectJSON projectJson)
+    {
+        String result = null;
+        if (projectJson != null && !Strings.isNullOrEmpty(projectJson.getPublisher()) && !Strings.isNullOrEmpty(projectJson.getProject()))
+        {
+            result = projectJson.getPublisher() + "/" + projectJson.getProject();
+        }
+        return result;
+    }
+
+    /**
+     * Update the project in the provided parameters' folder.
+     */
+    static int runProject(QubDependenciesUpdateParameters parameters, QubDependenciesUpdatePlan plan)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(plan, "plan");
+
+        int exitCode = 0;
+
         final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
         final Folder folder = parameters.getFolder();
         final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
         final boolean intellij = parameters.getIntellij();
+        final boolean transitive = parameters.getTransitive();
+        final boolean dryRun = parameters.getDryRun();
+        final boolean json = parameters.getJson();
+
+        // When the plan is written as JSON, the log is only written to the verbose stream so that
+        // the output can be parsed.
+        final CharacterWriteStream output = json ? verbose : parameters.getOutput();
 
         output.writeLine("Updating dependencies for " + folder + "...").await();
 
@@ -70,269 +668,498 @@ public interface QubDependenciesUpdate
             }
             else
             {
-                final String qubHome = environmentVariables.get("QUB_HOME")
-                    .catchError(NotFoundException.class)
-                    .await();
-                if (Strings.isNullOrEmpty(qubHome))
+                final QubFolder qubFolder = QubDependencies.getQubFolder(folder, environmentVariables, output);
+                if (qubFolder == null)
                 {
-                    output.writeLine("Can't discover transitive dependencies if a QUB_HOME environment variable is not specified.").await();
                     exitCode = 1;
                 }
                 else
                 {
-                    final Path qubHomePath = Path.parse(qubHome);
-                    if (!qubHomePath.isRooted())
-                    {
-                        output.writeLine("Can't discover transitive dependencies if the QUB_HOME environment variable is not rooted.").await();
-                        exitCode = 1;
-                    }
-                    else
+                    final QubLatestVersionCache latestVersionCache = parameters.getLatestVersionCache() != null
+                        ? parameters.getLatestVersionCache()
+                        : new QubLatestVersionCache(qubFolder).setWriteRecords(!dryRun);
+                    final QubDependencyResolver dependencyResolver = parameters.getDependencyResolver() != null
+                        ? parameters.getDependencyResolver()
+                        : new QubDependencyResolver(qubFolder).setLookupRunner(parameters.getLookupRunner());
+
+                    // The walk of the project folder doesn't depend on the project's dependencies,
+                    // so it is started before their latest versions are looked up and is only
+                    // waited on once the IntelliJ files are updated. The walk doesn't write to the
+                    // output, so the output is the same whether or not it runs concurrently.
+                    final List<String> fullTestClassNames = List.create();
+                    final Result<Iterable<File>> intellijProjectFilesResult = !intellij
+                        ? null
+                        : parameters.getLookupRunner().start(() ->
+                        {
+                            final QubTestClassIndex testClassIndex = parameters.getRequireTestMethod()
+                                ? new QubTestClassIndex(folder.getFile(QubDependenciesUpdate.testClassIndexFilePath).await())
+                                : null;
+                            return QubDependenciesUpdate.walkProjectFolder(parameters.getFileFinder(), folder, testClassIndex, fullTestClassNames, dryRun);
+                        });
+
+                    final Iterable<ProjectSignature> dependencies = projectJSONJava.getDependencies();
+                    final int dependencyCount = dependencies.getCount();
+                    output.writeLine("Found " + dependencyCount + " " + (dependencyCount == 1 ? "dependency" : "dependencies") + (dependencyCount == 0 ? "." : ":")).await();
+                    final IndentedCharacterWriteStream indentedOutput = IndentedCharacterWriteStream.create(output);
+                    final List<ProjectSignature> newDependencies = List.create();
+                    indentedOutput.indent(() ->
                     {
-                        final QubFolder qubFolder = QubFolder.get(folder.getFileSystem().getFolder(qubHomePath).await());
-                        final Iterable<ProjectSignature> dependencies = projectJSONJava.getDependencies();
-                        final int dependencyCount = dependencies.getCount();
-                        output.writeLine("Found " + dependencyCount + " " + (dependencyCount == 1 ? "dependency" : "dependencies") + (dependencyCount == 0 ? "." : ":")).await();
-                        final IndentedCharacterWriteStream indentedOutput = IndentedCharacterWriteStream.create(output);
-                        final List<ProjectSignature> newDependencies = List.create();
-                        indentedOutput.indent(() ->
+                        final List<VersionNumber> latestVersions = parameters.getLookupRunner().map(dependencies, latestVersionCache::getLatestVersion);
+
+                        boolean dependenciesChanged = false;
+                        int dependencyIndex = 0;
+                        for (final ProjectSignature dependency : dependencies)
                         {
-                            boolean dependenciesChanged = false;
-                            for (final ProjectSignature dependency : dependencies)
-                            {
-                                indentedOutput.write(dependency.toString()).await();
+                            indentedOutput.write(dependency.toString()).await();
 
-                                final QubProjectFolder projectFolder = qubFolder.getProjectFolder(dependency.getPublisher(), dependency.getProject()).await();
-                                final QubProjectVersionFolder latestVersionFolder = projectFolder.getLatestProjectVersionFolder().catchError().await();
-                                if (latestVersionFolder == null)
-                                {
-                                    newDependencies.add(dependency);
-                                    indentedOutput.writeLine(" - Not Found").await();
-                                }
-                                else
-                                {
-                                    final VersionNumber latestVersion = latestVersionFolder.getVersion().await();
-                                    if (Comparer.equal(dependency.getVersion(), latestVersion))
-                                    {
-                                        newDependencies.add(dependency);
-                                        indentedOutput.writeLine(" - No updates").await();
-                                    }
-                                    else
-                                    {
-                                        final ProjectSignature newDependency = ProjectSignature.create(dependency.getPublisher(), dependency.getProject(), latestVersion);
-                                        newDependencies.add(newDependency);
-                                        dependenciesChanged = true;
-                                        indentedOutput.writeLine(" - Updated to " + newDependency).await();
-                                    }
-                                }
+                            final VersionNumber latestVersion = latestVersions.get(dependencyIndex++);
+                            if (latestVersion == null)
+                            {
+                                newDependencies.add(dependency);
+                                indentedOutput.writeLine(" - Not Found").await();
                             }
-
-                            if (dependenciesChanged)
+                            else if (Comparer.equal(dependency.getVersion(), latestVersion))
                             {
-                                projectJSONJava.setDependencies(newDependencies);
-                                projectJsonFile.setContentsAsString(projectJSON.toString(JSONFormat.pretty)).await();
+                                newDependencies.add(dependency);
+                                indentedOutput.writeLine(" - No updates").await();
                             }
-                        });
+                            else
+                            {
+                                final ProjectSignature newDependency = ProjectSignature.create(dependency.getPublisher(), dependency.getProject(), latestVersion);
+                                newDependencies.add(newDependency);
+                                dependenciesChanged = true;
+                                indentedOutput.writeLine(" - Updated to " + newDependency).await();
+                            }
+                        }
+
+                        plan.setDependencies(projectJsonFile.toString(), newDependencies, dependenciesChanged);
+                        if (dependenciesChanged && !dryRun)
+                        {
+                            projectJSONJava.setDependencies(newDependencies);
+                            QubDependencies.writeIfChanged(projectJsonFile, projectJSON.toString(JSONFormat.pretty));
+                        }
+                    });
+
+                    if (transitive)
+                    {
+                        QubDependenciesUpdate.writeTransitiveUpdates(indentedOutput, dependencies, newDependencies, dependencyResolver, latestVersionCache, parameters.getLookupRunner());
+                    }
 
-                        if (intellij)
+                    final QubDependencyGraph newDependencyGraph = (parameters.getLock() || parameters.getClasspath()) && !dryRun
+                        ? dependencyResolver.resolve(newDependencies)
+                        : null;
+                    if (parameters.getLock() && !dryRun)
+                    {
+                        final File lockFile = folder.getFile(QubDependenciesLock.lockFileName).await();
+                        final QubJarHashCache jarHashCache = parameters.getJarHashCache() != null
+                            ? parameters.getJarHashCache()
+                            : QubJarHashCache.create(qubFolder);
+                        final QubDependenciesLock lock = QubDependenciesLock.create(
+                            qubFolder,
+                            newDependencyGraph,
+                            projectJsonFile.getContentsAsString().await(),
+                            parameters.getLookupRunner(),
+                            jarHashCache);
+                        if (parameters.getJarHashCache() == null)
                         {
-                            final Iterable<ProjectSignature> projectJsonTransitiveDependencies = projectJSONJava.getTransitiveDependencies(qubFolder).toList();
+                            jarHashCache.write();
+                        }
+                        output.writeLine(QubDependencies.writeIfChanged(lockFile, lock.toString())
+                            ? "Updated " + lockFile + "."
+                            : "No changes to " + lockFile + ".").await();
+                    }
 
-                            final Iterable<File> intellijProjectFiles = folder.getFilesRecursively().await()
-                                .where((File file) -> Comparer.equal(file.getFileExtension(), ".iml"));
-                            if (intellijProjectFiles.any())
+                    if (parameters.getClasspath() && !dryRun)
+                    {
+                        QubDependenciesClasspath.writeClasspathFiles(folder, QubDependenciesClasspath.getClasspath(folder, QubDependenciesClasspath.getJarPaths(qubFolder, newDependencyGraph)), output);
+                    }
+
+                    if (intellij)
+                    {
+                        final File intellijWorkspaceFile = folder.getFile(".idea/workspace.xml").await();
+                        final boolean intellijWorkspaceExists = intellijWorkspaceFile.exists().await();
+
+                        // The project's updated dependencies and the test runner that the
+                        // workspace's run configurations use are resolved as the roots of one
+                        // graph so that the projects they share are only read once. The updated
+                        // dependencies are used even in a dry run so that the plan shows the
+                        // changes that a real run would make.
+                        final List<ProjectSignature> roots = List.create(newDependencies);
+                        if (intellijWorkspaceExists)
+                        {
+                            final VersionNumber qubTestVersion = latestVersionCache.getLatestVersion("qub", "test-java");
+                            if (qubTestVersion != null)
                             {
-                                indentedOutput.writeLine("Updating IntelliJ module files...").await();
-                                indentedOutput.indent(() ->
-                                {
-                                    for (final File intellijProjectFile : intellijProjectFiles)
-                                    {
-                                        final IntellijModule intellijModule = IntellijModule.parse(intellijProjectFile)
-                                            .catchError(() -> indentedOutput.writeLine("Invalid Intellij Module file: " + intellijProjectFile).await())
-                                            .await();
-                                        if (intellijModule != null)
-                                        {
-                                            final List<ProjectSignature> dependenciesToAddToModule = List.create(projectJsonTransitiveDependencies);
-                                            final Iterable<IntellijModuleLibrary> currentModuleLibraries = intellijModule.getModuleLibraries().toList();
-
-                                            intellijModule.clearModuleLibraries();
-
-                                            for (final IntellijModuleLibrary moduleLibrary : currentModuleLibraries)
-                                            {
-                                                final String classesUrl = moduleLibrary.getClassesUrls().first();
-                                                if (Strings.isNullOrEmpty(classesUrl) || !classesUrl.startsWith("jar://"))
-                                                {
-                                                    intellijModule.addModuleLibrary(moduleLibrary);
-                                                }
-                                                else
-                                                {
-                                                    final int startIndex = "jar://".length();
-                                                    int endIndex = classesUrl.length();
-                                                    if (classesUrl.endsWith("!/"))
-                                                    {
-                                                        endIndex -= "!/".length();
-                                                    }
-                                                    final Path compiledSourcesFilePath = Path.parse(classesUrl.substring(startIndex, endIndex));
-                                                    if (!qubFolder.isAncestorOf(compiledSourcesFilePath).await())
-                                                    {
-                                                        indentedOutput.writeLine(compiledSourcesFilePath + " - No updates").await();
-                                                        intellijModule.addModuleLibrary(moduleLibrary);
-                                                    }
-                                                    else
-                                                    {
-                                                        final Path compiledSourcesRelativeFilePath = compiledSourcesFilePath.relativeTo(qubFolder);
-                                                        final Indexable<String> segments = compiledSourcesRelativeFilePath.getSegments();
-                                                        final String publisher = segments.get(0);
-                                                        final String project = segments.get(1);
-                                                        String version = segments.get(2);
-                                                        if (version.equals("versions"))
-                                                        {
-                                                            version = segments.get(3);
-                                                        }
-                                                        final ProjectSignature currentQubDependency = ProjectSignature.create(publisher, project, version);
-
-                                                        final ProjectSignature newQubDependency = dependenciesToAddToModule.removeFirst(currentQubDependency::equalsIgnoreVersion);
-                                                        if (newQubDependency == null)
-                                                        {
-                                                            indentedOutput.writeLine(currentQubDependency + " - Removed").await();
-                                                        }
-                                                        else
-                                                        {
-                                                            if (newQubDependency.equals(currentQubDependency))
-                                                            {
-                                                                indentedOutput.writeLine(currentQubDependency + " - No updates").await();
-                                                            }
-                                                            else
-                                                            {
-                                                                indentedOutput.writeLine(currentQubDependency + " - Updated to " + newQubDependency).await();
-                                                            }
-
-                                                            final QubProjectVersionFolder projectVersionFolder = qubFolder.getProjectVersionFolder(
-                                                                newQubDependency.getPublisher(),
-                                                                newQubDependency.getProject(),
-                                                                newQubDependency.getVersion()).await();
-                                                            intellijModule.addModuleLibrary(IntellijModuleLibrary.create()
-                                                                .addClassesUrl("jar://" + projectVersionFolder.getCompiledSourcesFile().await().toString() + "!/")
-                                                                .addSourcesUrl("jar://" + projectVersionFolder.getSourcesFile().await().toString() + "!/"));
-                                                        }
-                                                    }
-                                                }
-                                            }
-
-                                            for (final ProjectSignature dependencyToAddToModule : dependenciesToAddToModule)
-                                            {
-                                                indentedOutput.writeLine(dependencyToAddToModule + " - Added").await();
-
-                                                final QubProjectVersionFolder projectVersionFolder = qubFolder.getProjectVersionFolder(
-                                                    dependencyToAddToModule.getPublisher(),
-                                                    dependencyToAddToModule.getProject(),
-                                                    dependencyToAddToModule.getVersion())
-                                                    .await();
-                                                intellijModule.addModuleLibrary(IntellijModuleLibrary.create()
-                                                    .addClassesUrl("jar://" + projectVersionFolder.getCompiledSourcesFile().await().toString() + "!/")
-                                                    .addSourcesUrl("jar://" + projectVersionFolder.getSourcesFile().await().toString() + "!/"));
-                                            }
-
-                                            intellijProjectFile.setContentsAsString(intellijModule.toString(XMLFormat.pretty)).await();
-                                        }
-                                    }
-                                });
+                                roots.add(ProjectSignature.create("qub", "test-java", qubTestVersion));
                             }
+                        }
+                        final QubDependencyGraph dependencyGraph = dependencyResolver.resolve(roots);
+                        final int[] projectJsonRoots = dependencyGraph.getRoots(0, newDependencies.getCount());
+                        final int[] qubTestRoots = dependencyGraph.getRoots(projectJsonRoots.length, dependencyGraph.getRootCount());
+                        final Iterable<ProjectSignature> projectJsonTransitiveDependencies = dependencyGraph.getNodes(dependencyGraph.getTransitiveDependencyNodes(projectJsonRoots));
 
-                            final File intellijWorkspaceFile = folder.getFile(".idea/workspace.xml").await();
-                            if (intellijWorkspaceFile.exists().await())
+                        final Iterable<File> intellijProjectFiles = intellijProjectFilesResult.await();
+                        if (intellijProjectFiles.any())
+                        {
+                            indentedOutput.writeLine("Updating IntelliJ module files...").await();
+                            final QubModuleLibraryReconciler moduleLibraryReconciler = new QubModuleLibraryReconciler(qubFolder, projectJsonTransitiveDependencies);
+
+                            // The modules are independent of each other, so they are parsed,
+                            // reconciled, and written through the LookupRunner. Each module's log
+                            // is buffered and then written in the order that the module files were
+                            // found, so the output doesn't depend on which module finishes first.
+                            final List<QubDependenciesUpdate.ModuleUpdate> moduleUpdates = parameters.getLookupRunner().map(intellijProjectFiles,
+                                (File intellijProjectFile) -> QubDependenciesUpdate.updateModule(intellijProjectFile, moduleLibraryReconciler, dryRun));
+                            indentedOutput.indent(() ->
                             {
-                                indentedOutput.writeLine("Updating IntelliJ workspace file...").await();
-                                indentedOutput.indent(() ->
+                                for (final QubDependenciesUpdate.ModuleUpdate moduleUpdate : moduleUpdates)
                                 {
-                                    final IntellijWorkspace intellijWorkspace = Result.create(() -> IntellijWorkspace.create(XML.parse(intellijWorkspaceFile).await()))
-                                        .catchError(() -> indentedOutput.writeLine("Invalid Intellij Workspace file: " + intellijWorkspaceFile).await())
-                                        .await();
-
-                                    final Folder testsFolder = folder.getFolder("tests").await();
-                                    final Iterable<String> fullTestClassNames = testsFolder.getFilesRecursively().await()
-                                        .where((File file) -> Comparer.equal(".java", file.getFileExtension()))
-                                        .map((File testFile) -> testFile.relativeTo(testsFolder).withoutFileExtension().toString().replace('/', '.').replace('\\', '.'))
-                                        .toList();
-
-                                    final List<String> fullTestClassNamesToAdd = List.create(fullTestClassNames);
-
-                                    final QubProjectFolder qubTestProjectFolder = qubFolder.getProjectFolder("qub", "test-java").await();
-                                    final QubProjectVersionFolder qubTestLatestProjectVersionFolder = qubTestProjectFolder.getLatestProjectVersionFolder().await();
-                                    final ProjectJSON qubTestProjectJson = ProjectJSON.parse(qubTestLatestProjectVersionFolder.getProjectJSONFile().await()).await();
-                                    final ProjectJSONJava qubTestProjectJsonJava = qubTestProjectJson.getJava();
-                                    final ProjectSignature qubTestProjectSignature = ProjectSignature.create("qub", "test-java", qubTestProjectJson.getVersion());
-                                    final List<ProjectSignature> runConfigurationDependencies = List.create(qubTestProjectSignature)
-                                        .addAll(qubTestProjectJsonJava.getTransitiveDependencies(qubFolder));
-
-                                    for (final ProjectSignature projectJsonTransitiveDependency : projectJsonTransitiveDependencies)
+                                    if (moduleUpdate.moduleChanges != null)
                                     {
-                                        runConfigurationDependencies.removeFirst(projectJsonTransitiveDependency::equalsIgnoreVersion);
-                                        runConfigurationDependencies.add(projectJsonTransitiveDependency);
+                                        plan.addCompletedModuleChanges(moduleUpdate.moduleChanges);
                                     }
-
-                                    final CharacterList vmParameters = CharacterList.create();
-                                    vmParameters.addAll("-classpath $PROJECT_DIR$/outputs");
-                                    for (final ProjectSignature runConfigurationDependency : runConfigurationDependencies)
+                                    for (final String line : moduleUpdate.lines)
                                     {
-                                        vmParameters.add(';');
-                                        vmParameters.addAll(qubFolder.getCompiledSourcesFile(
-                                            runConfigurationDependency.getPublisher(),
-                                            runConfigurationDependency.getProject(),
-                                            runConfigurationDependency.getVersion())
-                                            .await()
-                                            .toString());
+                                        indentedOutput.writeLine(line).await();
                                     }
-                                    final String vmParametersString = vmParameters.toString(true);
-                                    final String outputFolderProgramParameter = "--output-folder=$PROJECT_DIR$/outputs";
-                                    final String testJsonProgramParameter = "--testjson=false";
+                                }
+                            });
+                        }
 
-                                    final List<IntellijWorkspaceRunConfiguration> runConfigurationsToRemove = List.create();
-                                    for (final IntellijWorkspaceRunConfiguration runConfiguration : intellijWorkspace.getRunConfigurations())
-                                    {
-                                        final String runConfigurationName = runConfiguration.getName();
-                                        if (!fullTestClassNames.contains(runConfigurationName))
-                                        {
-                                            runConfigurationsToRemove.add(runConfiguration);
-                                        }
-                                        else
-                                        {
-                                            fullTestClassNamesToAdd.remove(runConfigurationName);
-
-                                            runConfiguration.setType("Application");
-                                            runConfiguration.setFactoryName("Application");
-                                            runConfiguration.setMainClassFullName("qub.ConsoleTestRunner");
-                                            runConfiguration.setModuleName(projectJSON.getProject());
-                                            runConfiguration.setProgramParameters(Strings.join(' ', Iterable.create(outputFolderProgramParameter, testJsonProgramParameter, runConfigurationName)));
-                                            runConfiguration.setVmParameters(vmParametersString);
-                                        }
-                                    }
+                        if (intellijWorkspaceExists)
+                        {
+                            indentedOutput.writeLine("Updating IntelliJ workspace file...").await();
+                            indentedOutput.indent(() ->
+                            {
+                                final QubDependenciesUpdatePlan.FileChanges workspaceChanges = plan.setWorkspaceChanges(intellijWorkspaceFile.toString());
+                                // When the workspace file has a RunManager component, only that
+                                // component is parsed and regenerated so that the rest of the file
+                                // is left exactly as it was.
+                                final String intellijWorkspaceText = intellijWorkspaceFile.getContentsAsString().await();
+                                final IntellijRunManagerSection runManagerSection = IntellijRunManagerSection.find(intellijWorkspaceText);
+                                final IntellijWorkspace intellijWorkspace = Result.create(() -> runManagerSection != null
+                                        ? runManagerSection.parseWorkspace()
+                                        : IntellijWorkspace.create(XML.parse(intellijWorkspaceText).await()))
+                                    .catchError(() -> indentedOutput.writeLine("Invalid Intellij Workspace file: " + intellijWorkspaceFile).await())
+                                    .await();
 
-                                    for (final IntellijWorkspaceRunConfiguration runConfigurationToRemove : runConfigurationsToRemove)
-                                    {
-                                        intellijWorkspace.removeRunConfiguration(runConfigurationToRemove);
-                                    }
+                                // The project's own dependencies take precedence over the
+                                // versions that the test runner depends on.
+                                final Iterable<ProjectSignature> runConfigurationDependencies = dependencyGraph.getNodes(
+                                    dependencyGraph.getMergedTransitiveDependencyNodes(qubTestRoots, projectJsonRoots));
+
+                                final CharacterList vmParameters = CharacterList.create();
+                                vmParameters.addAll("-classpath $PROJECT_DIR$/outputs");
+                                for (final ProjectSignature runConfigurationDependency : runConfigurationDependencies)
+                                {
+                                    vmParameters.add(';');
+                                    vmParameters.addAll(qubFolder.getCompiledSourcesFile(
+                                        runConfigurationDependency.getPublisher(),
+                                        runConfigurationDependency.getProject(),
+                                        runConfigurationDependency.getVersion())
+                                        .await()
+                                        .toString());
+                                }
+                                final String vmParametersString = vmParameters.toString(true);
+                                if (intellijWorkspace != null)
+                                {
+                                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, fullTestClassNames, projectJSON.getProject(), vmParametersString, workspaceChanges, indentedOutput);
 
-                                    for (final String fullTestClassNameToAdd : fullTestClassNamesToAdd)
+                                    if (!dryRun)
                                     {
-                                        intellijWorkspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create()
-                                            .setName(fullTestClassNameToAdd)
-                                            .setType("Application")
-                                            .setFactoryName("Application")
-                                            .setMainClassFullName("qub.ConsoleTestRunner")
-                                            .setModuleName(projectJSON.getProject())
-                                            .setProgramParameters(Strings.join(' ', Iterable.create(outputFolderProgramParameter, testJsonProgramParameter, fullTestClassNameToAdd)))
-                                            .setVmParameters(vmParametersString));
+                                        QubDependencies.writeIfChanged(intellijWorkspaceFile, runManagerSection != null
+                                            ? runManagerSection.replace(intellijWorkspace)
+                                            : intellijWorkspace.toString(XMLFormat.pretty));
                                     }
-
-                                    intellijWorkspaceFile.setContentsAsString(intellijWorkspace.toString(XMLFormat.pretty)).await();
-                                });
-                            }
+                                }
+                            });
                         }
                     }
+
+                    if (dryRun)
+                    {
+                        output.writeLine(plan.hasChanges()
+                            ? "Dry run: changes were found, but no files were changed."
+                            : "Dry run: no changes were found.").await();
+                    }
                 }
             }
         }
 
         return exitCode;
     }
-}
+
+    /**
+     * The result of updating a single IntelliJ module file.
+     */
+    static class ModuleUpdate
+    {
+        final QubDependenciesUpdatePlan.FileChanges moduleChanges;
+
+        final Iterable<String> lines;
+
+        ModuleUpdate(QubDependenciesUpdatePlan.FileChanges moduleChanges, Iterable<String> lines)
+        {
+            this.moduleChanges = moduleChanges;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Parse the provided IntelliJ module file, reconcile its libraries, and write it back if it
+     * changed and this isn't a dry run.
+     */
+    static QubDependenciesUpdate.ModuleUpdate updateModule(File intellijProjectFile, QubModuleLibraryReconciler moduleLibraryReconciler, boolean dryRun)
+    {
+        PreCondition.assertNotNull(intellijProjectFile, "intellijProjectFile");
+        PreCondition.assertNotNull(moduleLibraryReconciler, "moduleLibraryReconciler");
+
+        final InMemoryCharacterToByteStream moduleOutput = InMemoryCharacterToByteStream.create();
+        QubDependenciesUpdatePlan.FileChanges moduleChanges = null;
+        final IntellijModule intellijModule = IntellijModule.parse(intellijProjectFile)
+            .catchError(() -> moduleOutput.writeLine("Invalid Intellij Module file: " + intellijProjectFile).await())
+            .await();
+        if (intellijModule != null)
+        {
+            moduleChanges = new QubDependenciesUpdatePlan.FileChanges(intellijProjectFile.toString());
+            moduleLibraryReconciler.reconcile(intellijModule, moduleChanges, moduleOutput);
+
+            if (!dryRun)
+            {
+                QubDependencies.writeIfChanged(intellijProjectFile, intellijModule.toString(XMLFormat.pretty));
+            }
+        }
+
+        final String moduleOutputText = moduleOutput.getText().await();
+        return new QubDependenciesUpdate.ModuleUpdate(
+            moduleChanges,
+            Strings.isNullOrEmpty(moduleOutputText) ? Iterable.create() : Strings.getLines(moduleOutputText));
+    }
+
+    /**
+     * Find the IntelliJ module files and the test classes in the provided project folder with a
+     * single walk of the folder.
+     */
+    static Iterable<File> walkProjectFolder(ProjectFileFinder fileFinder, Folder folder, QubTestClassIndex testClassIndex, List<String> fullTestClassNames, boolean dryRun)
+    {
+        PreCondition.assertNotNull(fileFinder, "fileFinder");
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(fullTestClassNames, "fullTestClassNames");
+
+        final List<File> result = List.create();
+        fileFinder.walk(folder, (File file, String relativePath) ->
+        {
+            final String fileExtension = file.getFileExtension();
+            if (Comparer.equal(".iml", fileExtension))
+            {
+                result.add(file);
+            }
+            else
+            {
+                final String fullTestClassName = testClassIndex == null
+                    ? QubTestClassIndex.getFullClassName(relativePath)
+                    : testClassIndex.getTestClassName(file, relativePath);
+                if (fullTestClassName != null)
+                {
+                    fullTestClassNames.add(fullTestClassName);
+                }
+            }
+        });
+        if (testClassIndex != null && !dryRun)
+        {
+            testClassIndex.write();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Update the run configurations of the provided workspace so that there is one run
+     * configuration for each of the provided test classes.
+     */
+    static void reconcileRunConfigurations(IntellijWorkspace intellijWorkspace, Iterable<String> fullTestClassNames, String moduleName, String vmParameters, QubDependenciesUpdatePlan.FileChanges workspaceChanges, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(intellijWorkspace, "intellijWorkspace");
+        PreCondition.assertNotNull(fullTestClassNames, "fullTestClassNames");
+        PreCondition.assertNotNull(vmParameters, "vmParameters");
+        PreCondition.assertNotNull(workspaceChanges, "workspaceChanges");
+        PreCondition.assertNotNull(output, "output");
+
+        final Set<String> testClassNames = Set.create();
+        testClassNames.addAll(fullTestClassNames);
+        final Set<String> existingRunConfigurationNames = Set.create();
+
+        final List<IntellijWorkspaceRunConfiguration> runConfigurationsToKeep = List.create();
+        final List<IntellijWorkspaceRunConfiguration> runConfigurationsToRemove = List.create();
+        final List<IntellijWorkspaceRunConfiguration> runConfigurationsToUpdate = List.create();
+        for (final IntellijWorkspaceRunConfiguration runConfiguration : intellijWorkspace.getRunConfigurations())
+        {
+            final String runConfigurationName = runConfiguration.getName();
+            if (!testClassNames.contains(runConfigurationName))
+            {
+                runConfigurationsToRemove.add(runConfiguration);
+            }
+            else
+            {
+                runConfigurationsToKeep.add(runConfiguration);
+                existingRunConfigurationNames.add(runConfigurationName);
+                if (!QubDependenciesUpdate.hasRunConfigurationProperties(runConfiguration, runConfigurationName, moduleName, vmParameters))
+                {
+                    runConfigurationsToUpdate.add(runConfiguration);
+                }
+            }
+        }
+
+        for (final IntellijWorkspaceRunConfiguration runConfigurationToUpdate : runConfigurationsToUpdate)
+        {
+            final String runConfigurationName = runConfigurationToUpdate.getName();
+            output.writeLine(runConfigurationName + " - Updated").await();
+            workspaceChanges.update(runConfigurationName, runConfigurationName);
+            QubDependenciesUpdate.setRunConfigurationProperties(runConfigurationToUpdate, runConfigurationName, moduleName, vmParameters);
+        }
+
+        if (runConfigurationsToRemove.any())
+        {
+            for (final IntellijWorkspaceRunConfiguration runConfigurationToRemove : runConfigurationsToRemove)
+            {
+                output.writeLine(runConfigurationToRemove.getName() + " - Removed").await();
+                workspaceChanges.remove(runConfigurationToRemove.getName());
+            }
+
+            // Removing run configurations one at a time searches the workspace for each one, so
+            // the kept run configurations are added back to a cleared workspace instead.
+            intellijWorkspace.clearRunConfigurations();
+            for (final IntellijWorkspaceRunConfiguration runConfigurationToKeep : runConfigurationsToKeep)
+            {
+                intellijWorkspace.addRunConfiguration(runConfigurationToKeep);
+            }
+        }
+
+        for (final String fullTestClassName : fullTestClassNames)
+        {
+            if (!existingRunConfigurationNames.contains(fullTestClassName))
+            {
+                // Adding the name to the set also skips test class names that are listed twice.
+                existingRunConfigurationNames.add(fullTestClassName);
+
+                output.writeLine(fullTestClassName + " - Added").await();
+                workspaceChanges.add(fullTestClassName);
+                intellijWorkspace.addRunConfiguration(QubDependenciesUpdate.setRunConfigurationProperties(
+                    IntellijWorkspaceRunConfiguration.create().setName(fullTestClassName), fullTestClassName, moduleName, vmParameters));
+            }
+        }
+    }
+
+    private static boolean hasRunConfigurationProperties(IntellijWorkspaceRunConfiguration runConfiguration, String fullTestClassName, String moduleName, String vmParameters)
+    {
+        return Comparer.equal("Application", runConfiguration.getType()) &&
+            Comparer.equal("Application", runConfiguration.getFactoryName()) &&
+            Comparer.equal("qub.ConsoleTestRunner", runConfiguration.getMainClassFullName()) &&
+            Comparer.equal(moduleName, runConfiguration.getModuleName()) &&
+            Comparer.equal(QubDependenciesUpdate.getRunConfigurationProgramParameters(fullTestClassName), runConfiguration.getProgramParameters()) &&
+            Comparer.equal(vmParameters, runConfiguration.getVmParameters());
+    }
+
+    private static String getRunConfigurationProgramParameters(String fullTestClassName)
+    {
+        return "--output-folder=$PROJECT_DIR$/outputs --testjson=false " + fullTestClassName;
+    }
+
+    private static IntellijWorkspaceRunConfiguration setRunConfigurationProperties(IntellijWorkspaceRunConfiguration runConfiguration, String fullTestClassName, String moduleName, String vmParameters)
+    {
+        return runConfiguration
+            .setType("Application")
+            .setFactoryName("Application")
+            .setMainClassFullName("qub.ConsoleTestRunner")
+            .setModuleName(moduleName)
+            .setProgramParameters(QubDependenciesUpdate.getRunConfigurationProgramParameters(fullTestClassName))
+            .setVmParameters(vmParameters);
+    }
+
+    /**
+     * Write the updates that are available for the indirect dependencies of a project.
+     */
+    static void writeTransitiveUpdates(IndentedCharacterWriteStream output, Iterable<ProjectSignature> dependencies, Iterable<ProjectSignature> newDependencies, QubDependencyResolver dependencyResolver, QubLatestVersionCache latestVersionCache, LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(dependencies, "dependencies");
+        PreCondition.assertNotNull(newDependencies, "newDependencies");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+        PreCondition.assertNotNull(latestVersionCache, "latestVersionCache");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        // The current and the updated direct dependencies are resolved as the roots of one graph
+        // so that the projects they share are only read once.
+        final QubDependencyGraph dependencyGraph = dependencyResolver.resolve(List.create(dependencies).addAll(newDependencies));
+        final int dependencyCount = dependencies.getCount();
+        final int[] currentRoots = dependencyGraph.getRoots(0, dependencyCount);
+
+        final boolean[] directProjects = new boolean[dependencyGraph.getProjectCount()];
+        for (int i = 0; i < dependencyGraph.getRootCount(); ++i)
+        {
+            directProjects[dependencyGraph.getNodeProject(dependencyGraph.getRoot(i))] = true;
+        }
+
+        final List<Integer> indirectNodes = List.create();
+        for (final int nodeIndex : dependencyGraph.getTransitiveDependencyNodes(currentRoots))
+        {
+            if (!directProjects[dependencyGraph.getNodeProject(nodeIndex)])
+            {
+                indirectNodes.add(nodeIndex);
+            }
+        }
+
+        final List<VersionNumber> latestVersions = lookupRunner.map(indirectNodes,
+            (Integer nodeIndex) -> latestVersionCache.getLatestVersion(dependencyGraph.getNode(nodeIndex)));
+
+        final int indirectCount = indirectNodes.getCount();
+        output.writeLine("Found " + indirectCount + " transitive " + (indirectCount == 1 ? "dependency" : "dependencies") + (indirectCount == 0 ? "." : ":")).await();
+        output.indent(() ->
+        {
+            for (int i = 0; i < indirectCount; ++i)
+            {
+                final int nodeIndex = indirectNodes.get(i);
+                final ProjectSignature indirectDependency = dependencyGraph.getNode(nodeIndex);
+                final VersionNumber latestVersion = latestVersions.get(i);
+
+                output.write(indirectDependency.toString()).await();
+                if (latestVersion == null)
+                {
+                    output.writeLine(" - Not Found").await();
+                }
+                else if (Comparer.equal(indirectDependency.getVersion(), latestVersion))
+                {
+                    output.writeLine(" - No updates").await();
+                }
+                else
+                {
+                    final ProjectSignature latestIndirectDependency = ProjectSignature.create(indirectDependency.getPublisher(), indirectDependency.getProject(), latestVersion);
+                    output.write(" - Stale, latest is " + latestIndirectDependency).await();
+
+                    boolean pulledForward = false;
+                    for (int rootIndex = dependencyCount; rootIndex < dependencyGraph.getRootCount(); ++rootIndex)
+                    {
+                        final int newRoot = dependencyGraph.getRoot(rootIndex);
+                        final int oldRoot = dependencyGraph.getRoot(rootIndex - dependencyCount);
+                        if (newRoot != oldRoot)
+                        {
+                            for (final int reachableNode : dependencyGraph.getTransitiveDependencyNodes(new int[] { newRoot }))
+                            {
+                                if (dependencyGraph.getNodeProject(reachableNode) == dependencyGraph.getNodeProject(nodeIndex) &&
+                                    !Comparer.equal(dependencyGraph.getNode(reachableNode).getVersion(), indirectDependency.getVersion()))
+                                {
+                                    output.write((pulledForward ? ", " : ", pulled forward by ") + dependencyGraph.getNode(newRoot) + " (" + dependencyGraph.getNode(reachableNode) + ")").await();
+                                    pulledForward = true;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    output.writeLine().await();
+                }
+            }
+        });
+    }
+}
\ No newline at end of file
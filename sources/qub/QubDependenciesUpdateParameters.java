@@ -6,7 +6,22 @@ public class QubDependenciesUpdateParameters
     private final VerboseCharacterToByteWriteStream verbose;
     private final Folder folder;
     private final EnvironmentVariables environmentVariables;
+    private LookupRunner lookupRunner;
     private boolean intellij;
+    private boolean transitive;
+    private boolean dryRun;
+    private boolean json;
+    private boolean requireTestMethod;
+    private ProjectFileFinder fileFinder;
+    private boolean recursive;
+    private boolean lock;
+    private boolean verify;
+    private boolean classpath;
+    private final List<Folder> projectFolders;
+    private LookupRunner projectLookupRunner;
+    private QubLatestVersionCache latestVersionCache;
+    private QubDependencyResolver dependencyResolver;
+    private QubJarHashCache jarHashCache;
 
     public QubDependenciesUpdateParameters(CharacterWriteStream output, VerboseCharacterToByteWriteStream verbose, Folder folder, EnvironmentVariables environmentVariables)
     {
@@ -19,7 +34,19 @@ public class QubDependenciesUpdateParameters
         this.verbose = verbose;
         this.folder = folder;
         this.environmentVariables = environmentVariables;
+        this.lookupRunner = LookupRunner.create();
         this.intellij = false;
+        this.transitive = false;
+        this.dryRun = false;
+        this.json = false;
+        this.requireTestMethod = false;
+        this.fileFinder = new ProjectFileFinder();
+        this.recursive = false;
+        this.lock = false;
+        this.verify = false;
+        this.classpath = false;
+        this.projectFolders = List.create();
+        this.projectLookupRunner = LookupRunner.create();
     }
 
     public CharacterWriteStream getOutput()
@@ -52,4 +79,183 @@ public class QubDependenciesUpdateParameters
         this.intellij = intellij;
         return this;
     }
-}
\ No newline at end of file
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public QubDependenciesUpdateParameters setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+
+    public boolean getTransitive()
+    {
+        return this.transitive;
+    }
+
+    public QubDependenciesUpdateParameters setTransitive(boolean transitive)
+    {
+        this.transitive = transitive;
+        return this;
+    }
+
+    public boolean getDryRun()
+    {
+        return this.dryRun;
+    }
+
+    public QubDependenciesUpdateParameters setDryRun(boolean dryRun)
+    {
+        this.dryRun = dryRun;
+        return this;
+    }
+
+    public boolean getJson()
+    {
+        return this.json;
+    }
+
+    public QubDependenciesUpdateParameters setJson(boolean json)
+    {
+        this.json = json;
+        return this;
+    }
+
+    public boolean getRequireTestMethod()
+    {
+        return this.requireTestMethod;
+    }
+
+    public QubDependenciesUpdateParameters setRequireTestMethod(boolean requireTestMethod)
+    {
+        this.requireTestMethod = requireTestMethod;
+        return this;
+    }
+
+    public ProjectFileFinder getFileFinder()
+    {
+        return this.fileFinder;
+    }
+
+    public QubDependenciesUpdateParameters setFileFinder(ProjectFileFinder fileFinder)
+    {
+        PreCondition.assertNotNull(fileFinder, "fileFinder");
+
+        this.fileFinder = fileFinder;
+        return this;
+    }
+
+    public boolean getRecursive()
+    {
+        return this.recursive;
+    }
+
+    public QubDependenciesUpdateParameters setRecursive(boolean recursive)
+    {
+        this.recursive = recursive;
+        return this;
+    }
+
+    public Iterable<Folder> getProjectFolders()
+    {
+        return this.projectFolders;
+    }
+
+    public QubDependenciesUpdateParameters addProjectFolder(Folder projectFolder)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        this.projectFolders.add(projectFolder);
+        return this;
+    }
+
+    public LookupRunner getProjectLookupRunner()
+    {
+        return this.projectLookupRunner;
+    }
+
+    public QubDependenciesUpdateParameters setProjectLookupRunner(LookupRunner projectLookupRunner)
+    {
+        PreCondition.assertNotNull(projectLookupRunner, "projectLookupRunner");
+
+        this.projectLookupRunner = projectLookupRunner;
+        return this;
+    }
+
+    public QubLatestVersionCache getLatestVersionCache()
+    {
+        return this.latestVersionCache;
+    }
+
+    public QubDependenciesUpdateParameters setLatestVersionCache(QubLatestVersionCache latestVersionCache)
+    {
+        PreCondition.assertNotNull(latestVersionCache, "latestVersionCache");
+
+        this.latestVersionCache = latestVersionCache;
+        return this;
+    }
+
+    public QubDependencyResolver getDependencyResolver()
+    {
+        return this.dependencyResolver;
+    }
+
+    public QubDependenciesUpdateParameters setDependencyResolver(QubDependencyResolver dependencyResolver)
+    {
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+
+        this.dependencyResolver = dependencyResolver;
+        return this;
+    }
+
+    public QubJarHashCache getJarHashCache()
+    {
+        return this.jarHashCache;
+    }
+
+    public QubDependenciesUpdateParameters setJarHashCache(QubJarHashCache jarHashCache)
+    {
+        PreCondition.assertNotNull(jarHashCache, "jarHashCache");
+
+        this.jarHashCache = jarHashCache;
+        return this;
+    }
+
+    public boolean getLock()
+    {
+        return this.lock;
+    }
+
+    public QubDependenciesUpdateParameters setLock(boolean lock)
+    {
+        this.lock = lock;
+        return this;
+    }
+
+    public boolean getVerify()
+    {
+        return this.verify;
+    }
+
+    public QubDependenciesUpdateParameters setVerify(boolean verify)
+    {
+        this.verify = verify;
+        return this;
+    }
+
+    public boolean getClasspath()
+    {
+        return this.classpath;
+    }
+
+    public QubDependenciesUpdateParameters setClasspath(boolean classpath)
+    {
+        this.classpath = classpath;
+        return this;
+    }
+}
@@ -0,0 +1,248 @@
+package qub;
+
+/**
+ * The changes that an update makes (or would make, during a dry run) to a project's files.
+ */
+public class QubDependenciesUpdatePlan
+{
+    private String projectJsonPath;
+    private final List<ProjectSignature> dependencies;
+    private boolean dependenciesChanged;
+    private final List<QubDependenciesUpdatePlan.FileChanges> moduleChanges;
+    private QubDependenciesUpdatePlan.FileChanges workspaceChanges;
+
+    public QubDependenciesUpdatePlan()
+    {
+        this.dependencies = List.create();
+        this.moduleChanges = List.create();
+    }
+
+    public String getProjectJsonPath()
+    {
+        return this.projectJsonPath;
+    }
+
+    public Iterable<ProjectSignature> getDependencies()
+    {
+        return this.dependencies;
+    }
+
+    public boolean getDependenciesChanged()
+    {
+        return this.dependenciesChanged;
+    }
+
+    /**
+     * Set the dependencies that the project's project.json file will have after the update.
+     */
+    public QubDependenciesUpdatePlan setDependencies(String projectJsonPath, Iterable<ProjectSignature> dependencies, boolean dependenciesChanged)
+    {
+        PreCondition.assertNotNullAndNotEmpty(projectJsonPath, "projectJsonPath");
+        PreCondition.assertNotNull(dependencies, "dependencies");
+
+        this.projectJsonPath = projectJsonPath;
+        this.dependencies.clear();
+        this.dependencies.addAll(dependencies);
+        this.dependenciesChanged = dependenciesChanged;
+        return this;
+    }
+
+    public Iterable<QubDependenciesUpdatePlan.FileChanges> getModuleChanges()
+    {
+        return this.moduleChanges;
+    }
+
+    /**
+     * Add a new set of changes for the IntelliJ module file at the provided path.
+     */
+    public QubDependenciesUpdatePlan.FileChanges addModuleChanges(String modulePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(modulePath, "modulePath");
+
+        final QubDependenciesUpdatePlan.FileChanges result = new QubDependenciesUpdatePlan.FileChanges(modulePath);
+        this.moduleChanges.add(result);
+        return result;
+    }
+
+    public QubDependenciesUpdatePlan addCompletedModuleChanges(QubDependenciesUpdatePlan.FileChanges moduleChanges)
+    {
+        PreCondition.assertNotNull(moduleChanges, "moduleChanges");
+
+        this.moduleChanges.add(moduleChanges);
+        return this;
+    }
+
+    public QubDependenciesUpdatePlan.FileChanges getWorkspaceChanges()
+    {
+        return this.workspaceChanges;
+    }
+
+    public QubDependenciesUpdatePlan.FileChanges setWorkspaceChanges(String workspacePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(workspacePath, "workspacePath");
+
+        this.workspaceChanges = new QubDependenciesUpdatePlan.FileChanges(workspacePath);
+        return this.workspaceChanges;
+    }
+
+    /**
+     * Get whether or not this plan changes any files.
+     */
+    public boolean hasChanges()
+    {
+        boolean result = this.dependenciesChanged ||
+            (this.workspaceChanges != null && this.workspaceChanges.hasChanges());
+        if (!result)
+        {
+            for (final QubDependenciesUpdatePlan.FileChanges moduleChanges : this.moduleChanges)
+            {
+                if (moduleChanges.hasChanges())
+                {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public JSONObject toJson()
+    {
+        final JSONObject result = JSONObject.create()
+            .setBoolean("hasChanges", this.hasChanges());
+
+        if (this.projectJsonPath != null)
+        {
+            result.setObject("projectJson", JSONObject.create()
+                .setString("path", this.projectJsonPath)
+                .setBoolean("changed", this.dependenciesChanged)
+                .setArray("dependencies", QubDependenciesUpdatePlan.toJsonArray(this.dependencies)));
+        }
+
+        final JSONArray modulesJson = JSONArray.create();
+        for (final QubDependenciesUpdatePlan.FileChanges moduleChanges : this.moduleChanges)
+        {
+            modulesJson.add(moduleChanges.toJson());
+        }
+        result.setArray("modules", modulesJson);
+
+        if (this.workspaceChanges != null)
+        {
+            result.setObject("workspace", this.workspaceChanges.toJson());
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJson().toString();
+    }
+
+    private static JSONArray toJsonArray(Iterable<?> values)
+    {
+        final JSONArray result = JSONArray.create();
+        for (final Object value : values)
+        {
+            result.add(JSONString.get(value.toString()));
+        }
+        return result;
+    }
+
+    /**
+     * The entries that are added to, removed from, and updated within a single file.
+     */
+    public static class FileChanges
+    {
+        private final String path;
+        private final List<String> added;
+        private final List<String> removed;
+        private final List<String> updatedFrom;
+        private final List<String> updatedTo;
+
+        FileChanges(String path)
+        {
+            PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+            this.path = path;
+            this.added = List.create();
+            this.removed = List.create();
+            this.updatedFrom = List.create();
+            this.updatedTo = List.create();
+        }
+
+        public String getPath()
+        {
+            return this.path;
+        }
+
+        public Iterable<String> getAdded()
+        {
+            return this.added;
+        }
+
+        public Iterable<String> getRemoved()
+        {
+            return this.removed;
+        }
+
+        public Iterable<String> getUpdatedFrom()
+        {
+            return this.updatedFrom;
+        }
+
+        public Iterable<String> getUpdatedTo()
+        {
+            return this.updatedTo;
+        }
+
+        public FileChanges add(Object entry)
+        {
+            PreCondition.assertNotNull(entry, "entry");
+
+            this.added.add(entry.toString());
+            return this;
+        }
+
+        public FileChanges remove(Object entry)
+        {
+            PreCondition.assertNotNull(entry, "entry");
+
+            this.removed.add(entry.toString());
+            return this;
+        }
+
+        public FileChanges update(Object from, Object to)
+        {
+            PreCondition.assertNotNull(from, "from");
+            PreCondition.assertNotNull(to, "to");
+
+            this.updatedFrom.add(from.toString());
+            this.updatedTo.add(to.toString());
+            return this;
+        }
+
+        public boolean hasChanges()
+        {
+            return this.added.any() || this.removed.any() || this.updatedFrom.any();
+        }
+
+        public JSONObject toJson()
+        {
+            final JSONArray updatedJson = JSONArray.create();
+            for (int i = 0; i < this.updatedFrom.getCount(); ++i)
+            {
+                updatedJson.add(JSONObject.create()
+                    .setString("from", this.updatedFrom.get(i))
+                    .setString("to", this.updatedTo.get(i)));
+            }
+
+            return JSONObject.create()
+                .setString("path", this.path)
+                .setArray("added", QubDependenciesUpdatePlan.toJsonArray(this.added))
+                .setArray("removed", QubDependenciesUpdatePlan.toJsonArray(this.removed))
+                .setArray("updated", updatedJson);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package qub;
+
+/**
+ * A filter that determines which projects are resolved when a {@link QubDependencyGraph} is
+ * built. Projects that are not included by the filter are never read.
+ */
+public class QubDependencyFilter
+{
+    private int maximumDepth;
+    private final Set<String> publishers;
+    private final Set<String> excludedProjects;
+
+    public QubDependencyFilter()
+    {
+        this.maximumDepth = -1;
+        this.publishers = Set.create();
+        this.excludedProjects = Set.create();
+    }
+
+    /**
+     * Get whether or not this filter includes every project at every depth.
+     */
+    public boolean includesAll()
+    {
+        return !this.hasMaximumDepth() && !this.publishers.any() && !this.excludedProjects.any();
+    }
+
+    public boolean hasMaximumDepth()
+    {
+        return this.maximumDepth >= 1;
+    }
+
+    public int getMaximumDepth()
+    {
+        return this.maximumDepth;
+    }
+
+    public QubDependencyFilter setMaximumDepth(int maximumDepth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumDepth, 1, "maximumDepth");
+
+        this.maximumDepth = maximumDepth;
+        return this;
+    }
+
+    public Iterable<String> getPublishers()
+    {
+        return this.publishers;
+    }
+
+    public QubDependencyFilter addPublisher(String publisher)
+    {
+        PreCondition.assertNotNullAndNotEmpty(publisher, "publisher");
+
+        this.publishers.add(publisher);
+        return this;
+    }
+
+    public Iterable<String> getExcludedProjects()
+    {
+        return this.excludedProjects;
+    }
+
+    public QubDependencyFilter addExcludedProject(String excludedProject)
+    {
+        PreCondition.assertNotNullAndNotEmpty(excludedProject, "excludedProject");
+
+        this.excludedProjects.add(excludedProject);
+        return this;
+    }
+
+    /**
+     * Get whether or not the provided project should be part of the resolved graph.
+     */
+    public boolean includes(ProjectSignature projectSignature)
+    {
+        PreCondition.assertNotNull(projectSignature, "projectSignature");
+
+        return (!this.publishers.any() || this.publishers.contains(projectSignature.getPublisher())) &&
+            !this.excludedProjects.contains(QubDependencyGraph.getProjectKey(projectSignature));
+    }
+
+    /**
+     * Get whether or not the dependencies of a project at the provided depth should be resolved.
+     */
+    public boolean canExpand(int depth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(depth, 1, "depth");
+
+        return !this.hasMaximumDepth() || depth < this.maximumDepth;
+    }
+}
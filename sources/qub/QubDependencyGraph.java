@@ -0,0 +1,381 @@
+package qub;
+
+/**
+ * A resolved set of project dependencies. The edges between the projects are stored in
+ * compressed-sparse-row form: the dependencies of node i are the entries of dependencyTargets
+ * between dependencyOffsets[i] (inclusive) and dependencyOffsets[i + 1] (exclusive). The
+ * dependents of each node are stored the same way so that reverse lookups don't have to scan
+ * the whole graph.
+ */
+public class QubDependencyGraph
+{
+    private final List<ProjectSignature> nodes;
+    private final QubDependencyNodeState[] nodeStates;
+    private final int[] nodeProjects;
+    private final int projectCount;
+    private final Map<String,Integer> nodeIndexes;
+    private final int[] roots;
+    private final int[] dependencyOffsets;
+    private final int[] dependencyTargets;
+    private final int[] dependentOffsets;
+    private final int[] dependentTargets;
+    private final int[] topologicalOrder;
+
+    QubDependencyGraph(List<ProjectSignature> nodes, QubDependencyNodeState[] nodeStates, int[] roots, int[] edgeSources, int[] edgeTargets, int edgeCount)
+    {
+        PreCondition.assertNotNull(nodes, "nodes");
+        PreCondition.assertNotNull(nodeStates, "nodeStates");
+        PreCondition.assertEqual(nodes.getCount(), nodeStates.length, "nodeStates.length");
+        PreCondition.assertNotNull(roots, "roots");
+        PreCondition.assertNotNull(edgeSources, "edgeSources");
+        PreCondition.assertNotNull(edgeTargets, "edgeTargets");
+        PreCondition.assertBetween(0, edgeCount, Math.min(edgeSources.length, edgeTargets.length), "edgeCount");
+
+        final int nodeCount = nodes.getCount();
+
+        this.nodes = nodes;
+        this.nodeStates = nodeStates;
+        this.roots = roots;
+
+        this.nodeIndexes = Map.create();
+        this.nodeProjects = new int[nodeCount];
+        final Map<String,Integer> projectIndexes = Map.create();
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            final ProjectSignature node = nodes.get(nodeIndex);
+            this.nodeIndexes.set(node.toString(), nodeIndex);
+
+            final String projectKey = QubDependencyGraph.getProjectKey(node);
+            Integer projectIndex = projectIndexes.get(projectKey)
+                .catchError(NotFoundException.class)
+                .await();
+            if (projectIndex == null)
+            {
+                projectIndex = projectIndexes.getCount();
+                projectIndexes.set(projectKey, projectIndex);
+            }
+            this.nodeProjects[nodeIndex] = projectIndex;
+        }
+        this.projectCount = projectIndexes.getCount();
+
+        this.dependencyOffsets = new int[nodeCount + 1];
+        this.dependencyTargets = new int[edgeCount];
+        QubDependencyGraph.compress(edgeSources, edgeTargets, edgeCount, this.dependencyOffsets, this.dependencyTargets);
+
+        this.dependentOffsets = new int[nodeCount + 1];
+        this.dependentTargets = new int[edgeCount];
+        QubDependencyGraph.compress(edgeTargets, edgeSources, edgeCount, this.dependentOffsets, this.dependentTargets);
+
+        this.topologicalOrder = this.createTopologicalOrder();
+    }
+
+    /**
+     * Get the key that identifies the provided project regardless of its version.
+     */
+    public static String getProjectKey(ProjectSignature projectSignature)
+    {
+        PreCondition.assertNotNull(projectSignature, "projectSignature");
+
+        return projectSignature.getPublisher() + "/" + projectSignature.getProject();
+    }
+
+    private static void compress(int[] edgeSources, int[] edgeTargets, int edgeCount, int[] offsets, int[] targets)
+    {
+        for (int edgeIndex = 0; edgeIndex < edgeCount; ++edgeIndex)
+        {
+            ++offsets[edgeSources[edgeIndex] + 1];
+        }
+        for (int i = 1; i < offsets.length; ++i)
+        {
+            offsets[i] += offsets[i - 1];
+        }
+
+        // Walk the edges in their original order so that each node's targets keep the order
+        // that they were listed in.
+        final int[] cursors = new int[offsets.length - 1];
+        for (int edgeIndex = 0; edgeIndex < edgeCount; ++edgeIndex)
+        {
+            final int source = edgeSources[edgeIndex];
+            targets[offsets[source] + cursors[source]] = edgeTargets[edgeIndex];
+            ++cursors[source];
+        }
+    }
+
+    private int[] createTopologicalOrder()
+    {
+        final int nodeCount = this.getNodeCount();
+        final int[] result = new int[nodeCount];
+        final int[] remainingDependencyCounts = new int[nodeCount];
+        int resultCount = 0;
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            remainingDependencyCounts[nodeIndex] = this.getDependencyCount(nodeIndex);
+            if (remainingDependencyCounts[nodeIndex] == 0)
+            {
+                result[resultCount++] = nodeIndex;
+            }
+        }
+
+        int resultIndex = 0;
+        while (resultIndex < resultCount)
+        {
+            final int nodeIndex = result[resultIndex++];
+            for (int i = this.dependentOffsets[nodeIndex]; i < this.dependentOffsets[nodeIndex + 1]; ++i)
+            {
+                final int dependentIndex = this.dependentTargets[i];
+                if (--remainingDependencyCounts[dependentIndex] == 0)
+                {
+                    result[resultCount++] = dependentIndex;
+                }
+            }
+        }
+
+        // Nodes that are part of a dependency cycle never reach a remaining dependency count of
+        // zero, so they are added at the end in the order that they were discovered.
+        if (resultCount < nodeCount)
+        {
+            for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+            {
+                if (remainingDependencyCounts[nodeIndex] > 0)
+                {
+                    result[resultCount++] = nodeIndex;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public int getNodeCount()
+    {
+        return this.nodes.getCount();
+    }
+
+    public ProjectSignature getNode(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.getNodeCount(), "nodeIndex");
+
+        return this.nodes.get(nodeIndex);
+    }
+
+    public QubDependencyNodeState getNodeState(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.getNodeCount(), "nodeIndex");
+
+        return this.nodeStates[nodeIndex];
+    }
+
+    /**
+     * Get the index of the provided project node, or -1 if the project is not in this graph.
+     */
+    public int getNodeIndex(ProjectSignature projectSignature)
+    {
+        PreCondition.assertNotNull(projectSignature, "projectSignature");
+
+        final Integer result = this.nodeIndexes.get(projectSignature.toString())
+            .catchError(NotFoundException.class)
+            .await();
+        return result == null ? -1 : result;
+    }
+
+    public int getNodeProject(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.getNodeCount(), "nodeIndex");
+
+        return this.nodeProjects[nodeIndex];
+    }
+
+    public int getProjectCount()
+    {
+        return this.projectCount;
+    }
+
+    public int getRootCount()
+    {
+        return this.roots.length;
+    }
+
+    public int getRoot(int rootIndex)
+    {
+        PreCondition.assertIndexAccess(rootIndex, this.getRootCount(), "rootIndex");
+
+        return this.roots[rootIndex];
+    }
+
+    public int getDependencyCount(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.getNodeCount(), "nodeIndex");
+
+        return this.dependencyOffsets[nodeIndex + 1] - this.dependencyOffsets[nodeIndex];
+    }
+
+    public int getDependency(int nodeIndex, int dependencyIndex)
+    {
+        PreCondition.assertIndexAccess(dependencyIndex, this.getDependencyCount(nodeIndex), "dependencyIndex");
+
+        return this.dependencyTargets[this.dependencyOffsets[nodeIndex] + dependencyIndex];
+    }
+
+    public int getDependentCount(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.getNodeCount(), "nodeIndex");
+
+        return this.dependentOffsets[nodeIndex + 1] - this.dependentOffsets[nodeIndex];
+    }
+
+    public int getDependent(int nodeIndex, int dependentIndex)
+    {
+        PreCondition.assertIndexAccess(dependentIndex, this.getDependentCount(nodeIndex), "dependentIndex");
+
+        return this.dependentTargets[this.dependentOffsets[nodeIndex] + dependentIndex];
+    }
+
+    public int getTopologicalNode(int position)
+    {
+        PreCondition.assertIndexAccess(position, this.getNodeCount(), "position");
+
+        return this.topologicalOrder[position];
+    }
+
+    /**
+     * Get the projects that are reachable from this graph's roots in breadth-first order.
+     */
+    public List<ProjectSignature> getTransitiveDependencies()
+    {
+        final List<ProjectSignature> result = List.create();
+        for (final int nodeIndex : this.getTransitiveDependencyNodes())
+        {
+            result.add(this.nodes.get(nodeIndex));
+        }
+        return result;
+    }
+
+    public int[] getTransitiveDependencyNodes()
+    {
+        return this.getTransitiveDependencyNodes(this.roots);
+    }
+
+    /**
+     * Get the indexes of the nodes that are reachable from the provided start nodes in breadth-
+     * first order.
+     */
+    public int[] getTransitiveDependencyNodes(int[] startNodes)
+    {
+        PreCondition.assertNotNull(startNodes, "startNodes");
+
+        final int nodeCount = this.getNodeCount();
+        final boolean[] visitedNodes = new boolean[nodeCount];
+        final boolean[] visitedProjects = new boolean[this.projectCount];
+        final int[] queue = new int[nodeCount];
+        final int[] result = new int[this.projectCount];
+        int resultCount = 0;
+        int queueEnd = 0;
+        for (final int startNode : startNodes)
+        {
+            PreCondition.assertIndexAccess(startNode, nodeCount, "startNode");
+
+            if (!visitedNodes[startNode])
+            {
+                visitedNodes[startNode] = true;
+                queue[queueEnd++] = startNode;
+            }
+        }
+
+        int queueStart = 0;
+        while (queueStart < queueEnd)
+        {
+            final int nodeIndex = queue[queueStart++];
+            final int projectIndex = this.nodeProjects[nodeIndex];
+            if (!visitedProjects[projectIndex])
+            {
+                visitedProjects[projectIndex] = true;
+                result[resultCount++] = nodeIndex;
+            }
+
+            for (int i = this.dependencyOffsets[nodeIndex]; i < this.dependencyOffsets[nodeIndex + 1]; ++i)
+            {
+                final int dependencyIndex = this.dependencyTargets[i];
+                if (!visitedNodes[dependencyIndex])
+                {
+                    visitedNodes[dependencyIndex] = true;
+                    queue[queueEnd++] = dependencyIndex;
+                }
+            }
+        }
+
+        if (resultCount < result.length)
+        {
+            final int[] reachableResult = new int[resultCount];
+            System.arraycopy(result, 0, reachableResult, 0, resultCount);
+            return reachableResult;
+        }
+        return result;
+    }
+
+    /**
+     * Get the transitive dependencies of the provided base start nodes followed by the transitive
+     * dependencies of the provided overriding start nodes.
+     */
+    public int[] getMergedTransitiveDependencyNodes(int[] baseStartNodes, int[] overridingStartNodes)
+    {
+        PreCondition.assertNotNull(baseStartNodes, "baseStartNodes");
+        PreCondition.assertNotNull(overridingStartNodes, "overridingStartNodes");
+
+        final int[] baseNodes = this.getTransitiveDependencyNodes(baseStartNodes);
+        final int[] overridingNodes = this.getTransitiveDependencyNodes(overridingStartNodes);
+
+        final boolean[] overriddenProjects = new boolean[this.projectCount];
+        for (final int overridingNode : overridingNodes)
+        {
+            overriddenProjects[this.nodeProjects[overridingNode]] = true;
+        }
+
+        final int[] result = new int[baseNodes.length + overridingNodes.length];
+        int resultCount = 0;
+        for (final int baseNode : baseNodes)
+        {
+            if (!overriddenProjects[this.nodeProjects[baseNode]])
+            {
+                result[resultCount++] = baseNode;
+            }
+        }
+        System.arraycopy(overridingNodes, 0, result, resultCount, overridingNodes.length);
+        resultCount += overridingNodes.length;
+
+        if (resultCount < result.length)
+        {
+            final int[] mergedResult = new int[resultCount];
+            System.arraycopy(result, 0, mergedResult, 0, resultCount);
+            return mergedResult;
+        }
+        return result;
+    }
+
+    /**
+     * Get the projects of the provided nodes.
+     */
+    public List<ProjectSignature> getNodes(int[] nodeIndexes)
+    {
+        PreCondition.assertNotNull(nodeIndexes, "nodeIndexes");
+
+        final List<ProjectSignature> result = List.create();
+        for (final int nodeIndex : nodeIndexes)
+        {
+            result.add(this.getNode(nodeIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Get the indexes of the roots between the provided root indexes.
+     */
+    public int[] getRoots(int startRootIndex, int endRootIndex)
+    {
+        PreCondition.assertBetween(0, startRootIndex, this.getRootCount(), "startRootIndex");
+        PreCondition.assertBetween(startRootIndex, endRootIndex, this.getRootCount(), "endRootIndex");
+
+        final int[] result = new int[endRootIndex - startRootIndex];
+        System.arraycopy(this.roots, startRootIndex, result, 0, result.length);
+        return result;
+    }
+}
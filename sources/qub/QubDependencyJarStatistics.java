@@ -0,0 +1,135 @@
+package qub;
+
+/**
+ * The sizes of the compiled sources and sources jar files of each node in a
+ * {@link QubDependencyGraph}.
+ */
+public class QubDependencyJarStatistics
+{
+    private final QubDependencyGraph dependencyGraph;
+    private final long[] compiledSourcesByteCounts;
+    private final long[] sourcesByteCounts;
+
+    QubDependencyJarStatistics(QubDependencyGraph dependencyGraph, long[] compiledSourcesByteCounts, long[] sourcesByteCounts)
+    {
+        this.dependencyGraph = dependencyGraph;
+        this.compiledSourcesByteCounts = compiledSourcesByteCounts;
+        this.sourcesByteCounts = sourcesByteCounts;
+    }
+
+    /**
+     * Get the jar file sizes of each of the nodes in the provided graph.
+     */
+    public static QubDependencyJarStatistics create(QubFolder qubFolder, QubDependencyGraph dependencyGraph, LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        final int nodeCount = dependencyGraph.getNodeCount();
+        final List<Integer> nodeIndexes = List.create();
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            nodeIndexes.add(nodeIndex);
+        }
+
+        final List<long[]> nodeByteCounts = lookupRunner.map(nodeIndexes, (Integer nodeIndex) ->
+        {
+            final QubProjectVersionFolder projectVersionFolder = QubDependencyJarStatistics.getProjectVersionFolder(qubFolder, dependencyGraph.getNode(nodeIndex));
+            return new long[]
+            {
+                QubDependencyJarStatistics.getByteCount(projectVersionFolder.getCompiledSourcesFile().await()),
+                QubDependencyJarStatistics.getByteCount(projectVersionFolder.getSourcesFile().await()),
+            };
+        });
+
+        final long[] compiledSourcesByteCounts = new long[nodeCount];
+        final long[] sourcesByteCounts = new long[nodeCount];
+        for (int nodeIndex = 0; nodeIndex < nodeCount; ++nodeIndex)
+        {
+            final long[] byteCounts = nodeByteCounts.get(nodeIndex);
+            compiledSourcesByteCounts[nodeIndex] = byteCounts[0];
+            sourcesByteCounts[nodeIndex] = byteCounts[1];
+        }
+
+        return new QubDependencyJarStatistics(dependencyGraph, compiledSourcesByteCounts, sourcesByteCounts);
+    }
+
+    static QubProjectVersionFolder getProjectVersionFolder(QubFolder qubFolder, ProjectSignature projectSignature)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(projectSignature, "projectSignature");
+
+        return qubFolder.getProjectVersionFolder(
+            projectSignature.getPublisher(),
+            projectSignature.getProject(),
+            projectSignature.getVersion()).await();
+    }
+
+    /**
+     * Get the number of bytes in the provided file, or -1 if the file doesn't exist.
+     */
+    static long getByteCount(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        long result;
+        final java.nio.file.Path diskPath = QubDependencies.getDiskPath(file);
+        if (diskPath != null)
+        {
+            try
+            {
+                result = java.nio.file.Files.isRegularFile(diskPath) ? java.nio.file.Files.size(diskPath) : -1;
+            }
+            catch (java.io.IOException e)
+            {
+                result = -1;
+            }
+        }
+        else
+        {
+            final byte[] contents = file.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            result = contents == null ? -1 : contents.length;
+        }
+        return result;
+    }
+
+    public long getCompiledSourcesByteCount(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.compiledSourcesByteCounts.length, "nodeIndex");
+
+        return this.compiledSourcesByteCounts[nodeIndex];
+    }
+
+    public long getSourcesByteCount(int nodeIndex)
+    {
+        PreCondition.assertIndexAccess(nodeIndex, this.sourcesByteCounts.length, "nodeIndex");
+
+        return this.sourcesByteCounts[nodeIndex];
+    }
+
+    public long getClosureCompiledSourcesByteCount()
+    {
+        return QubDependencyJarStatistics.sum(this.compiledSourcesByteCounts, this.dependencyGraph.getTransitiveDependencyNodes());
+    }
+
+    public long getClosureSourcesByteCount()
+    {
+        return QubDependencyJarStatistics.sum(this.sourcesByteCounts, this.dependencyGraph.getTransitiveDependencyNodes());
+    }
+
+    private static long sum(long[] byteCounts, int[] nodeIndexes)
+    {
+        long result = 0;
+        for (final int nodeIndex : nodeIndexes)
+        {
+            if (byteCounts[nodeIndex] > 0)
+            {
+                result += byteCounts[nodeIndex];
+            }
+        }
+        return result;
+    }
+}
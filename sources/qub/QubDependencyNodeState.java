@@ -0,0 +1,9 @@
+package qub;
+
+public enum QubDependencyNodeState
+{
+    Found,
+    NotFound,
+    NoJavaProperty,
+    Unresolved,
+}
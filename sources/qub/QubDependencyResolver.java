@@ -0,0 +1,240 @@
+package qub;
+
+/**
+ * An object that reads the project.json files in a Qub folder to build
+ * {@link QubDependencyGraph}s. Each project.json file is only read once per resolver, so graphs
+ * that share projects can be resolved by the same resolver without reading those projects again.
+ * A resolver can be shared by graphs that are resolved on different threads at the same time.
+ */
+public class QubDependencyResolver
+{
+    private final QubFolder qubFolder;
+    private final Map<String,QubDependencyResolver.Node> nodes;
+    private LookupRunner lookupRunner;
+    private QubDependencyFilter filter;
+
+    public QubDependencyResolver(QubFolder qubFolder)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        this.qubFolder = qubFolder;
+        this.nodes = Map.create();
+        this.lookupRunner = LookupRunner.create();
+        this.filter = new QubDependencyFilter();
+    }
+
+    public QubFolder getQubFolder()
+    {
+        return this.qubFolder;
+    }
+
+    public LookupRunner getLookupRunner()
+    {
+        return this.lookupRunner;
+    }
+
+    public QubDependencyResolver setLookupRunner(LookupRunner lookupRunner)
+    {
+        PreCondition.assertNotNull(lookupRunner, "lookupRunner");
+
+        this.lookupRunner = lookupRunner;
+        return this;
+    }
+
+    public QubDependencyFilter getFilter()
+    {
+        return this.filter;
+    }
+
+    public QubDependencyResolver setFilter(QubDependencyFilter filter)
+    {
+        PreCondition.assertNotNull(filter, "filter");
+
+        this.filter = filter;
+        return this;
+    }
+
+    public QubDependencyGraph resolve(Iterable<ProjectSignature> roots)
+    {
+        PreCondition.assertNotNull(roots, "roots");
+
+        final List<ProjectSignature> graphNodes = List.create();
+        final List<QubDependencyNodeState> graphNodeStates = List.create();
+        final Map<String,Integer> graphNodeIndexes = Map.create();
+        int[] edgeSources = new int[16];
+        int[] edgeTargets = new int[16];
+        int edgeCount = 0;
+
+        int[] rootIndexes = new int[roots.getCount()];
+        int rootCount = 0;
+        for (final ProjectSignature root : roots)
+        {
+            if (this.filter.includes(root))
+            {
+                rootIndexes[rootCount++] = QubDependencyResolver.addGraphNode(root, graphNodes, graphNodeIndexes);
+            }
+        }
+        if (rootCount < rootIndexes.length)
+        {
+            final int[] includedRootIndexes = new int[rootCount];
+            System.arraycopy(rootIndexes, 0, includedRootIndexes, 0, rootCount);
+            rootIndexes = includedRootIndexes;
+        }
+
+        // The graph nodes list doubles as the breadth-first queue of nodes to expand. The nodes
+        // are expanded one level at a time so that all of the project.json files in a level can
+        // be read at the same time. Since every node is first reached at its shallowest depth,
+        // the depth of a level is also the depth of each of its nodes.
+        int nodeIndex = 0;
+        int depth = 1;
+        while (nodeIndex < graphNodes.getCount())
+        {
+            final int levelEnd = graphNodes.getCount();
+            if (!this.filter.canExpand(depth))
+            {
+                while (nodeIndex < levelEnd)
+                {
+                    graphNodeStates.add(QubDependencyNodeState.Unresolved);
+                    ++nodeIndex;
+                }
+            }
+            else
+            {
+                final List<QubDependencyResolver.Node> levelNodes = this.getNodes(graphNodes, nodeIndex, levelEnd);
+                for (final QubDependencyResolver.Node node : levelNodes)
+                {
+                    graphNodeStates.add(node.state);
+                    for (final ProjectSignature dependency : node.dependencies)
+                    {
+                        if (this.filter.includes(dependency))
+                        {
+                            if (edgeCount == edgeSources.length)
+                            {
+                                edgeSources = QubDependencyResolver.grow(edgeSources);
+                                edgeTargets = QubDependencyResolver.grow(edgeTargets);
+                            }
+                            edgeSources[edgeCount] = nodeIndex;
+                            edgeTargets[edgeCount] = QubDependencyResolver.addGraphNode(dependency, graphNodes, graphNodeIndexes);
+                            ++edgeCount;
+                        }
+                    }
+                    ++nodeIndex;
+                }
+            }
+            ++depth;
+        }
+
+        final QubDependencyNodeState[] nodeStates = new QubDependencyNodeState[graphNodeStates.getCount()];
+        for (int i = 0; i < nodeStates.length; ++i)
+        {
+            nodeStates[i] = graphNodeStates.get(i);
+        }
+
+        return new QubDependencyGraph(graphNodes, nodeStates, rootIndexes, edgeSources, edgeTargets, edgeCount);
+    }
+
+    private static int addGraphNode(ProjectSignature projectSignature, List<ProjectSignature> graphNodes, Map<String,Integer> graphNodeIndexes)
+    {
+        final String key = projectSignature.toString();
+        Integer result = graphNodeIndexes.get(key)
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            result = graphNodes.getCount();
+            graphNodes.add(projectSignature);
+            graphNodeIndexes.set(key, result);
+        }
+        return result;
+    }
+
+    private static int[] grow(int[] values)
+    {
+        final int[] result = new int[values.length * 2];
+        System.arraycopy(values, 0, result, 0, values.length);
+        return result;
+    }
+
+    private List<QubDependencyResolver.Node> getNodes(List<ProjectSignature> graphNodes, int startIndex, int endIndex)
+    {
+        final List<ProjectSignature> projectsToRead = List.create();
+        synchronized (this.nodes)
+        {
+            for (int i = startIndex; i < endIndex; ++i)
+            {
+                final ProjectSignature projectSignature = graphNodes.get(i);
+                if (!this.nodes.containsKey(projectSignature.toString()))
+                {
+                    projectsToRead.add(projectSignature);
+                }
+            }
+        }
+
+        // The project.json files are read without holding the lock. If another graph reads the
+        // same project at the same time, both reads produce the same node.
+        if (projectsToRead.any())
+        {
+            final List<QubDependencyResolver.Node> readNodes = this.lookupRunner.map(projectsToRead, this::readNode);
+            synchronized (this.nodes)
+            {
+                for (int i = 0; i < projectsToRead.getCount(); ++i)
+                {
+                    this.nodes.set(projectsToRead.get(i).toString(), readNodes.get(i));
+                }
+            }
+        }
+
+        final List<QubDependencyResolver.Node> result = List.create();
+        synchronized (this.nodes)
+        {
+            for (int i = startIndex; i < endIndex; ++i)
+            {
+                result.add(this.nodes.get(graphNodes.get(i).toString()).await());
+            }
+        }
+        return result;
+    }
+
+    private QubDependencyResolver.Node readNode(ProjectSignature projectSignature)
+    {
+        final File projectJsonFile = this.qubFolder.getProjectJSONFile(
+            projectSignature.getPublisher(),
+            projectSignature.getProject(),
+            projectSignature.getVersion()).await();
+        final ProjectJSON projectJson = ProjectJSON.parse(projectJsonFile)
+            .catchError(FileNotFoundException.class)
+            .await();
+
+        final QubDependencyResolver.Node result;
+        if (projectJson == null)
+        {
+            result = new QubDependencyResolver.Node(QubDependencyNodeState.NotFound, Iterable.create());
+        }
+        else
+        {
+            final ProjectJSONJava projectJsonJava = projectJson.getJava();
+            if (projectJsonJava == null)
+            {
+                result = new QubDependencyResolver.Node(QubDependencyNodeState.NoJavaProperty, Iterable.create());
+            }
+            else
+            {
+                final Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
+                result = new QubDependencyResolver.Node(QubDependencyNodeState.Found, dependencies == null ? Iterable.create() : dependencies.toList());
+            }
+        }
+        return result;
+    }
+
+    private static class Node
+    {
+        private final QubDependencyNodeState state;
+        private final Iterable<ProjectSignature> dependencies;
+
+        Node(QubDependencyNodeState state, Iterable<ProjectSignature> dependencies)
+        {
+            this.state = state;
+            this.dependencies = dependencies;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package qub;
+
+/**
+ * A persisted cache of the SHA-256 hashes of jar files. A jar file's hash is remembered together
+ * with the jar file's path, size, and last modified time, and it is only hashed again once its
+ * size or last modified time changes.
+ */
+public class QubJarHashCache
+{
+    public static final String cacheFileName = "jar-hashes.json";
+
+    private static final String jarsPropertyName = "jars";
+    private static final String pathPropertyName = "path";
+    private static final String sizePropertyName = "size";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String sha256PropertyName = "sha256";
+
+    private final File cacheFile;
+    private final Map<String,JSONObject> entries;
+    private boolean changed;
+
+    /**
+     * Create a new jar hash cache that is persisted in the provided file.
+     */
+    public QubJarHashCache(File cacheFile)
+    {
+        PreCondition.assertNotNull(cacheFile, "cacheFile");
+
+        this.cacheFile = cacheFile;
+        this.entries = Map.create();
+
+        final JSONObject cacheJson = cacheFile.getContentsAsString()
+            .then((String cacheText) -> JSON.parseObject(cacheText).await())
+            .catchError()
+            .await();
+        final JSONArray entriesJson = cacheJson == null
+            ? null
+            : cacheJson.getArray(QubJarHashCache.jarsPropertyName).catchError().await();
+        if (entriesJson != null)
+        {
+            for (final JSONSegment entryJson : entriesJson)
+            {
+                if (entryJson instanceof JSONObject)
+                {
+                    final String path = ((JSONObject)entryJson).getString(QubJarHashCache.pathPropertyName).catchError().await();
+                    if (!Strings.isNullOrEmpty(path))
+                    {
+                        this.entries.set(path, (JSONObject)entryJson);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a new jar hash cache that is persisted in the data folder of this project within the
+     * provided Qub folder, so that it is shared by every project that uses the Qub folder.
+     */
+    public static QubJarHashCache create(QubFolder qubFolder)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        final QubProjectFolder projectFolder = qubFolder.getProjectFolder("qub", "dependencies-java").await();
+        return new QubJarHashCache(projectFolder.getFile("data/" + QubJarHashCache.cacheFileName).await());
+    }
+
+    public File getCacheFile()
+    {
+        return this.cacheFile;
+    }
+
+    /**
+     * Get the SHA-256 hash of the provided jar file as a lowercase hexadecimal string, or null if
+     * the jar file doesn't exist.
+     */
+    public String getHash(File jarFile)
+    {
+        PreCondition.assertNotNull(jarFile, "jarFile");
+
+        String result = null;
+        final long size = QubDependencyJarStatistics.getByteCount(jarFile);
+        final DateTime lastModifiedDateTime = size < 0
+            ? null
+            : jarFile.getLastModified().catchError().await();
+        if (lastModifiedDateTime != null)
+        {
+            final String path = jarFile.toString();
+            final String lastModified = lastModifiedDateTime.toString();
+
+            final JSONObject entry;
+            synchronized (this.entries)
+            {
+                entry = this.entries.get(path)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            if (entry != null &&
+                lastModified.equals(entry.getString(QubJarHashCache.lastModifiedPropertyName).catchError().await()))
+            {
+                final Double entrySize = entry.getNumber(QubJarHashCache.sizePropertyName).catchError().await();
+                if (entrySize != null && entrySize.longValue() == size)
+                {
+                    result = entry.getString(QubJarHashCache.sha256PropertyName).catchError().await();
+                }
+            }
+
+            if (result == null)
+            {
+                result = QubJarHashCache.hashContents(jarFile);
+                if (result != null)
+                {
+                    synchronized (this.entries)
+                    {
+                        this.entries.set(path, JSONObject.create()
+                            .setString(QubJarHashCache.pathPropertyName, path)
+                            .setNumber(QubJarHashCache.sizePropertyName, size)
+                            .setString(QubJarHashCache.lastModifiedPropertyName, lastModified)
+                            .setString(QubJarHashCache.sha256PropertyName, result));
+                        this.changed = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the SHA-256 hash of the contents of the provided file, or null if the file can't be read.
+     */
+    static String hashContents(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        String result = null;
+        final java.nio.file.Path diskPath = QubDependencies.getDiskPath(file);
+        if (diskPath != null)
+        {
+            final java.security.MessageDigest digest = QubJarHashCache.createDigest();
+            try (final java.io.InputStream stream = java.nio.file.Files.newInputStream(diskPath))
+            {
+                final byte[] buffer = new byte[64 * 1024];
+                int bytesRead = stream.read(buffer);
+                while (bytesRead != -1)
+                {
+                    digest.update(buffer, 0, bytesRead);
+                    bytesRead = stream.read(buffer);
+                }
+                result = QubDependenciesLock.toHexString(digest.digest());
+            }
+            catch (java.io.IOException ignored)
+            {
+            }
+        }
+        else
+        {
+            final byte[] contents = file.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            result = contents == null ? null : QubJarHashCache.getHash(contents);
+        }
+        return result;
+    }
+
+    /**
+     * Get the SHA-256 hash of the provided bytes as a lowercase hexadecimal string.
+     */
+    static String getHash(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return QubDependenciesLock.toHexString(QubJarHashCache.createDigest().digest(bytes));
+    }
+
+    static java.security.MessageDigest createDigest()
+    {
+        try
+        {
+            return java.security.MessageDigest.getInstance("SHA-256");
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the cache's entries to the cache file if any jar files were hashed since the cache was
+     * created.
+     */
+    public void write()
+    {
+        final JSONArray entriesJson = JSONArray.create();
+        synchronized (this.entries)
+        {
+            if (this.changed)
+            {
+                for (final JSONObject entry : this.entries.getValues())
+                {
+                    entriesJson.add(entry);
+                }
+                this.changed = false;
+            }
+        }
+
+        if (entriesJson.getCount() > 0)
+        {
+            Result.create(() -> QubDependencies.writeIfChanged(this.cacheFile,
+                JSONObject.create()
+                    .setArray(QubJarHashCache.jarsPropertyName, entriesJson)
+                    .toString()))
+                .catchError()
+                .await();
+        }
+    }
+}
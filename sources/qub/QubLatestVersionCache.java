@@ -0,0 +1,167 @@
+package qub;
+
+/**
+ * A cache of the latest installed version of each project in a Qub folder. The latest version of
+ * each project is remembered in memory and in a small record file in the project's folder. A
+ * record is only trusted while the last modified time of the project's versions folder matches
+ * the time that was stored with it, so installing or removing a version invalidates it.
+ */
+public class QubLatestVersionCache
+{
+    public static final String recordFileName = "latest-version.json";
+
+    private static final String versionPropertyName = "version";
+    private static final String versionsLastModifiedPropertyName = "versionsLastModified";
+
+    private final QubFolder qubFolder;
+    private final Map<String,VersionNumber> latestVersions;
+    private boolean writeRecords;
+
+    public QubLatestVersionCache(QubFolder qubFolder)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        this.qubFolder = qubFolder;
+        this.latestVersions = Map.create();
+        this.writeRecords = true;
+    }
+
+    public QubFolder getQubFolder()
+    {
+        return this.qubFolder;
+    }
+
+    public boolean getWriteRecords()
+    {
+        return this.writeRecords;
+    }
+
+    public QubLatestVersionCache setWriteRecords(boolean writeRecords)
+    {
+        this.writeRecords = writeRecords;
+        return this;
+    }
+
+    public VersionNumber getLatestVersion(ProjectSignature projectSignature)
+    {
+        PreCondition.assertNotNull(projectSignature, "projectSignature");
+
+        return this.getLatestVersion(projectSignature.getPublisher(), projectSignature.getProject());
+    }
+
+    /**
+     * Get the latest installed version of the provided project, or null if no version of the
+     * project is installed.
+     */
+    public VersionNumber getLatestVersion(String publisher, String project)
+    {
+        PreCondition.assertNotNullAndNotEmpty(publisher, "publisher");
+        PreCondition.assertNotNullAndNotEmpty(project, "project");
+
+        final String key = publisher + "/" + project;
+        VersionNumber result;
+        synchronized (this.latestVersions)
+        {
+            result = this.latestVersions.get(key)
+                .catchError(NotFoundException.class)
+                .await();
+        }
+
+        if (result == null)
+        {
+            final QubProjectFolder projectFolder = this.qubFolder.getProjectFolder(publisher, project).await();
+            final String versionsLastModified = QubLatestVersionCache.getVersionsLastModified(projectFolder);
+
+            result = this.readRecord(publisher, project, projectFolder, versionsLastModified);
+            if (result == null)
+            {
+                final QubProjectVersionFolder latestVersionFolder = projectFolder.getLatestProjectVersionFolder().catchError().await();
+                if (latestVersionFolder != null)
+                {
+                    result = latestVersionFolder.getVersion().await();
+                    if (this.writeRecords)
+                    {
+                        QubLatestVersionCache.writeRecord(projectFolder, result, versionsLastModified);
+                    }
+                }
+            }
+
+            if (result != null)
+            {
+                synchronized (this.latestVersions)
+                {
+                    this.latestVersions.set(key, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Forget the in-memory latest version of the provided project so that the next request for it
+     * goes back to the project's folder.
+     */
+    public void invalidate(String publisher, String project)
+    {
+        PreCondition.assertNotNullAndNotEmpty(publisher, "publisher");
+        PreCondition.assertNotNullAndNotEmpty(project, "project");
+
+        synchronized (this.latestVersions)
+        {
+            this.latestVersions.remove(publisher + "/" + project)
+                .catchError(NotFoundException.class)
+                .await();
+        }
+    }
+
+    private static String getVersionsLastModified(QubProjectFolder projectFolder)
+    {
+        final Folder versionsFolder = projectFolder.getFolder("versions").await();
+        final DateTime lastModified = versionsFolder.getLastModified()
+            .catchError()
+            .await();
+        return lastModified == null ? null : lastModified.toString();
+    }
+
+    private VersionNumber readRecord(String publisher, String project, QubProjectFolder projectFolder, String versionsLastModified)
+    {
+        VersionNumber result = null;
+        if (!Strings.isNullOrEmpty(versionsLastModified))
+        {
+            final File recordFile = projectFolder.getFile(QubLatestVersionCache.recordFileName).await();
+            final JSONObject record = recordFile.getContentsAsString()
+                .then((String recordText) -> JSON.parseObject(recordText).await())
+                .catchError()
+                .await();
+            if (record != null &&
+                versionsLastModified.equals(record.getString(QubLatestVersionCache.versionsLastModifiedPropertyName).catchError().await()))
+            {
+                final String version = record.getString(QubLatestVersionCache.versionPropertyName).catchError().await();
+                if (!Strings.isNullOrEmpty(version))
+                {
+                    final QubProjectVersionFolder versionFolder = this.qubFolder.getProjectVersionFolder(publisher, project, version).await();
+                    if (versionFolder.exists().await())
+                    {
+                        result = versionFolder.getVersion().await();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void writeRecord(QubProjectFolder projectFolder, VersionNumber latestVersion, String versionsLastModified)
+    {
+        if (!Strings.isNullOrEmpty(versionsLastModified))
+        {
+            final JSONObject record = JSONObject.create()
+                .setString(QubLatestVersionCache.versionPropertyName, latestVersion.toString())
+                .setString(QubLatestVersionCache.versionsLastModifiedPropertyName, versionsLastModified);
+
+            projectFolder.setFileContentsAsString(QubLatestVersionCache.recordFileName, record.toString())
+                .catchError()
+                .await();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package qub;
+
+/**
+ * An object that updates the libraries of IntelliJ modules to match a project's transitive
+ * dependencies. The dependencies are indexed by publisher/project and their jar URLs are built
+ * once, so each module library is matched with a single lookup no matter how many modules are
+ * reconciled.
+ */
+public class QubModuleLibraryReconciler
+{
+    private static final String jarUrlPrefix = "jar://";
+    private static final String jarUrlSuffix = "!/";
+
+    private final QubFolder qubFolder;
+    private final String qubFolderPathPrefix;
+    private final boolean ignoreCase;
+    private final List<ProjectSignature> dependencies;
+    private final Map<String,Integer> dependencyIndexes;
+    private final String[] classesUrls;
+    private final String[] sourcesUrls;
+
+    public QubModuleLibraryReconciler(QubFolder qubFolder, Iterable<ProjectSignature> dependencies)
+    {
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(dependencies, "dependencies");
+
+        this.qubFolder = qubFolder;
+
+        String qubFolderPath = qubFolder.toString().replace('\\', '/');
+        if (!qubFolderPath.endsWith("/"))
+        {
+            qubFolderPath += "/";
+        }
+        this.qubFolderPathPrefix = qubFolderPath;
+        // Windows paths (such as "C:/qub/") are compared without regard to case.
+        this.ignoreCase = qubFolderPath.length() >= 2 && qubFolderPath.charAt(1) == ':';
+
+        this.dependencies = List.create(dependencies);
+        this.dependencyIndexes = Map.create();
+        final int dependencyCount = this.dependencies.getCount();
+        this.classesUrls = new String[dependencyCount];
+        this.sourcesUrls = new String[dependencyCount];
+        for (int i = 0; i < dependencyCount; ++i)
+        {
+            final ProjectSignature dependency = this.dependencies.get(i);
+            this.dependencyIndexes.set(QubDependencyGraph.getProjectKey(dependency), i);
+
+            final QubProjectVersionFolder projectVersionFolder = QubDependencyJarStatistics.getProjectVersionFolder(qubFolder, dependency);
+            this.classesUrls[i] = QubModuleLibraryReconciler.jarUrlPrefix + projectVersionFolder.getCompiledSourcesFile().await().toString() + QubModuleLibraryReconciler.jarUrlSuffix;
+            this.sourcesUrls[i] = QubModuleLibraryReconciler.jarUrlPrefix + projectVersionFolder.getSourcesFile().await().toString() + QubModuleLibraryReconciler.jarUrlSuffix;
+        }
+    }
+
+    /**
+     * Get the file path from the provided "jar://" URL, or null if the URL isn't a jar URL.
+     */
+    static String getJarFilePath(String url)
+    {
+        String result = null;
+        if (!Strings.isNullOrEmpty(url) && url.startsWith(QubModuleLibraryReconciler.jarUrlPrefix))
+        {
+            int endIndex = url.length();
+            if (url.endsWith(QubModuleLibraryReconciler.jarUrlSuffix))
+            {
+                endIndex -= QubModuleLibraryReconciler.jarUrlSuffix.length();
+            }
+            result = url.substring(QubModuleLibraryReconciler.jarUrlPrefix.length(), endIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Get the project that the provided jar file belongs to, or null if the jar file isn't in this
+     * reconciler's Qub folder.
+     */
+    public ProjectSignature getQubDependency(String jarFilePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(jarFilePath, "jarFilePath");
+
+        ProjectSignature result = null;
+        final int prefixLength = this.qubFolderPathPrefix.length();
+        if (jarFilePath.regionMatches(this.ignoreCase, 0, this.qubFolderPathPrefix, 0, prefixLength) &&
+            jarFilePath.indexOf('\\') == -1 &&
+            !jarFilePath.contains("/."))
+        {
+            result = QubModuleLibraryReconciler.parseQubDependency(jarFilePath, prefixLength);
+        }
+        else if (jarFilePath.indexOf('\\') != -1 || jarFilePath.contains("/."))
+        {
+            // Paths that aren't in normal form are compared with the slower Path logic.
+            final Path path = Path.parse(jarFilePath).normalize();
+            if (this.qubFolder.isAncestorOf(path).await())
+            {
+                final String relativePath = path.relativeTo(this.qubFolder).toString();
+                result = QubModuleLibraryReconciler.parseQubDependency(relativePath, relativePath.startsWith("/") ? 1 : 0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the publisher, project, and version from the segments of the provided path that start
+     * at the provided index.
+     */
+    private static ProjectSignature parseQubDependency(String path, int startIndex)
+    {
+        ProjectSignature result = null;
+        final int publisherEnd = path.indexOf('/', startIndex);
+        if (publisherEnd > startIndex)
+        {
+            final int projectEnd = path.indexOf('/', publisherEnd + 1);
+            if (projectEnd > publisherEnd + 1)
+            {
+                int versionStart = projectEnd + 1;
+                int versionEnd = path.indexOf('/', versionStart);
+                if (versionEnd == versionStart + "versions".length() && path.startsWith("versions", versionStart))
+                {
+                    versionStart = versionEnd + 1;
+                    versionEnd = path.indexOf('/', versionStart);
+                }
+                if (versionEnd > versionStart)
+                {
+                    result = ProjectSignature.create(
+                        path.substring(startIndex, publisherEnd),
+                        path.substring(publisherEnd + 1, projectEnd),
+                        path.substring(versionStart, versionEnd));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the libraries of the provided module to match this reconciler's dependencies.
+     */
+    public void reconcile(IntellijModule intellijModule, QubDependenciesUpdatePlan.FileChanges moduleChanges, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(intellijModule, "intellijModule");
+        PreCondition.assertNotNull(moduleChanges, "moduleChanges");
+        PreCondition.assertNotNull(output, "output");
+
+        final boolean[] matchedDependencies = new boolean[this.dependencies.getCount()];
+        final Iterable<IntellijModuleLibrary> currentModuleLibraries = intellijModule.getModuleLibraries().toList();
+
+        intellijModule.clearModuleLibraries();
+
+        for (final IntellijModuleLibrary moduleLibrary : currentModuleLibraries)
+        {
+            final String jarFilePath = QubModuleLibraryReconciler.getJarFilePath(moduleLibrary.getClassesUrls().first());
+            if (jarFilePath == null)
+            {
+                intellijModule.addModuleLibrary(moduleLibrary);
+            }
+            else
+            {
+                final ProjectSignature currentQubDependency = this.getQubDependency(jarFilePath);
+                if (currentQubDependency == null)
+                {
+                    output.writeLine(jarFilePath + " - No updates").await();
+                    intellijModule.addModuleLibrary(moduleLibrary);
+                }
+                else
+                {
+                    final Integer dependencyIndex = this.dependencyIndexes.get(QubDependencyGraph.getProjectKey(currentQubDependency))
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (dependencyIndex == null || matchedDependencies[dependencyIndex])
+                    {
+                        output.writeLine(currentQubDependency + " - Removed").await();
+                        moduleChanges.remove(currentQubDependency);
+                    }
+                    else
+                    {
+                        matchedDependencies[dependencyIndex] = true;
+
+                        final ProjectSignature newQubDependency = this.dependencies.get(dependencyIndex);
+                        if (newQubDependency.equals(currentQubDependency))
+                        {
+                            output.writeLine(currentQubDependency + " - No updates").await();
+                        }
+                        else
+                        {
+                            output.writeLine(currentQubDependency + " - Updated to " + newQubDependency).await();
+                            moduleChanges.update(currentQubDependency, newQubDependency);
+                        }
+                        this.addModuleLibrary(intellijModule, dependencyIndex);
+                    }
+                }
+            }
+        }
+
+        for (int dependencyIndex = 0; dependencyIndex < matchedDependencies.length; ++dependencyIndex)
+        {
+            if (!matchedDependencies[dependencyIndex])
+            {
+                final ProjectSignature dependencyToAdd = this.dependencies.get(dependencyIndex);
+                output.writeLine(dependencyToAdd + " - Added").await();
+                moduleChanges.add(dependencyToAdd);
+                this.addModuleLibrary(intellijModule, dependencyIndex);
+            }
+        }
+    }
+
+    private void addModuleLibrary(IntellijModule intellijModule, int dependencyIndex)
+    {
+        intellijModule.addModuleLibrary(IntellijModuleLibrary.create()
+            .addClassesUrl(this.classesUrls[dependencyIndex])
+            .addSourcesUrl(this.sourcesUrls[dependencyIndex]));
+    }
+}
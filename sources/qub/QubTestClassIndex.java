@@ -0,0 +1,224 @@
+package qub;
+
+/**
+ * A persisted index from the relative paths of a project's test source files to the full names
+ * of the test classes that they declare. Whether a source file declares a
+ * static void test(TestRunner) method is found with a cheap scan of its text, and that result is
+ * reused for as long as the source file's last modified time doesn't change.
+ */
+public class QubTestClassIndex
+{
+    private static final String testClassesPropertyName = "testClasses";
+    private static final String pathPropertyName = "path";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String hasTestMethodPropertyName = "hasTestMethod";
+
+    private static final String testsFolderPathPrefix = "tests/";
+    private static final String javaFileExtension = ".java";
+
+    private final File indexFile;
+    private final Map<String,JSONObject> previousEntries;
+    private final JSONArray currentEntries;
+
+    /**
+     * Create a new test class index that is persisted in the provided file.
+     */
+    public QubTestClassIndex(File indexFile)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+
+        this.indexFile = indexFile;
+        this.previousEntries = Map.create();
+        this.currentEntries = JSONArray.create();
+
+        final JSONObject indexJson = indexFile.getContentsAsString()
+            .then((String indexText) -> JSON.parseObject(indexText).await())
+            .catchError()
+            .await();
+        final JSONArray entriesJson = indexJson == null
+            ? null
+            : indexJson.getArray(QubTestClassIndex.testClassesPropertyName).catchError().await();
+        if (entriesJson != null)
+        {
+            for (final JSONSegment entryJson : entriesJson)
+            {
+                if (entryJson instanceof JSONObject)
+                {
+                    final String path = ((JSONObject)entryJson).getString(QubTestClassIndex.pathPropertyName).catchError().await();
+                    if (!Strings.isNullOrEmpty(path))
+                    {
+                        this.previousEntries.set(path, (JSONObject)entryJson);
+                    }
+                }
+            }
+        }
+    }
+
+    public File getIndexFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+     * Get the full name of the class that is declared by the test source file at the provided path
+     * relative to the project folder, or null if the path isn't a Java source file in the tests
+     * folder.
+     */
+    public static String getFullClassName(String relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+
+        String result = null;
+        final int prefixLength = QubTestClassIndex.testsFolderPathPrefix.length();
+        final int suffixLength = QubTestClassIndex.javaFileExtension.length();
+        if (relativePath.length() > prefixLength + suffixLength &&
+            relativePath.startsWith(QubTestClassIndex.testsFolderPathPrefix) &&
+            relativePath.endsWith(QubTestClassIndex.javaFileExtension))
+        {
+            result = relativePath.substring(prefixLength, relativePath.length() - suffixLength).replace('/', '.');
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided source text declares a static void test(TestRunner) method.
+     */
+    public static boolean declaresTestMethod(String sourceText)
+    {
+        PreCondition.assertNotNull(sourceText, "sourceText");
+
+        boolean result = false;
+        int voidIndex = sourceText.indexOf("void");
+        while (!result && voidIndex != -1)
+        {
+            final int staticEndIndex = QubTestClassIndex.skipWhitespaceBackward(sourceText, voidIndex);
+            if (staticEndIndex < voidIndex &&
+                QubTestClassIndex.isTokenBefore(sourceText, staticEndIndex, "static") &&
+                QubTestClassIndex.isIdentifierBoundary(sourceText, voidIndex + "void".length()))
+            {
+                int index = QubTestClassIndex.skipWhitespace(sourceText, voidIndex + "void".length());
+                if (sourceText.startsWith("test", index))
+                {
+                    index = QubTestClassIndex.skipWhitespace(sourceText, index + "test".length());
+                    if (index < sourceText.length() && sourceText.charAt(index) == '(')
+                    {
+                        index = QubTestClassIndex.skipWhitespace(sourceText, index + 1);
+                        if (sourceText.startsWith("final", index) && QubTestClassIndex.isIdentifierBoundary(sourceText, index + "final".length()))
+                        {
+                            index = QubTestClassIndex.skipWhitespace(sourceText, index + "final".length());
+                        }
+                        if (sourceText.startsWith("qub.", index))
+                        {
+                            index += "qub.".length();
+                        }
+                        result = sourceText.startsWith("TestRunner", index) &&
+                            QubTestClassIndex.isIdentifierBoundary(sourceText, index + "TestRunner".length());
+                    }
+                }
+            }
+
+            if (!result)
+            {
+                voidIndex = sourceText.indexOf("void", voidIndex + 1);
+            }
+        }
+        return result;
+    }
+
+    private static int skipWhitespace(String text, int index)
+    {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index)))
+        {
+            ++index;
+        }
+        return index;
+    }
+
+    private static int skipWhitespaceBackward(String text, int endIndex)
+    {
+        while (endIndex > 0 && Character.isWhitespace(text.charAt(endIndex - 1)))
+        {
+            --endIndex;
+        }
+        return endIndex;
+    }
+
+    private static boolean isTokenBefore(String text, int endIndex, String token)
+    {
+        final int startIndex = endIndex - token.length();
+        return startIndex >= 0 &&
+            text.startsWith(token, startIndex) &&
+            (startIndex == 0 || !Character.isJavaIdentifierPart(text.charAt(startIndex - 1)));
+    }
+
+    private static boolean isIdentifierBoundary(String text, int index)
+    {
+        return index >= text.length() || !Character.isJavaIdentifierPart(text.charAt(index));
+    }
+
+    /**
+     * Get the full name of the test class that is declared by the provided source file, or null if
+     * the source file doesn't declare a static void test(TestRunner) method.
+     */
+    public String getTestClassName(File file, String relativePath)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(relativePath, "relativePath");
+
+        String result = QubTestClassIndex.getFullClassName(relativePath);
+        if (result != null)
+        {
+            final DateTime lastModifiedDateTime = file.getLastModified()
+                .catchError()
+                .await();
+            final String lastModified = lastModifiedDateTime == null ? null : lastModifiedDateTime.toString();
+
+            Boolean hasTestMethod = null;
+            if (lastModified != null)
+            {
+                final JSONObject previousEntry = this.previousEntries.get(relativePath)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (previousEntry != null && lastModified.equals(previousEntry.getString(QubTestClassIndex.lastModifiedPropertyName).catchError().await()))
+                {
+                    hasTestMethod = previousEntry.getBoolean(QubTestClassIndex.hasTestMethodPropertyName).catchError().await();
+                }
+            }
+
+            if (hasTestMethod == null)
+            {
+                final String sourceText = file.getContentsAsString()
+                    .catchError()
+                    .await();
+                hasTestMethod = sourceText != null && QubTestClassIndex.declaresTestMethod(sourceText);
+            }
+
+            final JSONObject entry = JSONObject.create()
+                .setString(QubTestClassIndex.pathPropertyName, relativePath);
+            if (lastModified != null)
+            {
+                entry.setString(QubTestClassIndex.lastModifiedPropertyName, lastModified);
+            }
+            this.currentEntries.add(entry.setBoolean(QubTestClassIndex.hasTestMethodPropertyName, hasTestMethod));
+
+            if (!hasTestMethod)
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the source files that were indexed since this index was created to the index file.
+     */
+    public void write()
+    {
+        Result.create(() -> QubDependencies.writeIfChanged(this.indexFile,
+            JSONObject.create()
+                .setArray(QubTestClassIndex.testClassesPropertyName, this.currentEntries)
+                .toString()))
+            .catchError()
+            .await();
+    }
+}
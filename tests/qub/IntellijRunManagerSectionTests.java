@@ -0,0 +1,92 @@
+package qub;
+
+public interface IntellijRunManagerSectionTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(IntellijRunManagerSection.class, () ->
+        {
+            runner.testGroup("find(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijRunManagerSection.find(null),
+                        new PreConditionFailure("workspaceText cannot be null."));
+                });
+
+                runner.test("with no RunManager component", (Test test) ->
+                {
+                    test.assertNull(IntellijRunManagerSection.find("<project>\n  <component name=\"ChangeListManager\"/>\n</project>"));
+                });
+
+                runner.test("with RunManager name outside of a component start tag", (Test test) ->
+                {
+                    test.assertNull(IntellijRunManagerSection.find("<project>\n  <option value='name=\"RunManager\"'/>\n</project>"));
+                });
+
+                runner.test("with self-closing RunManager component", (Test test) ->
+                {
+                    final String workspaceText = "<project>\n  <component name=\"RunManager\" />\n</project>";
+                    final IntellijRunManagerSection section = IntellijRunManagerSection.find(workspaceText);
+                    test.assertNotNull(section);
+                    test.assertEqual("<component name=\"RunManager\" />", section.getText());
+                });
+
+                runner.test("with RunManager component with children", (Test test) ->
+                {
+                    final String workspaceText =
+                        "<project>\n" +
+                        "  <component name=\"ChangeListManager\"><list/></component>\n" +
+                        "  <component name=\"RunManager\" selected=\"Application.my.CodeTests\">\n" +
+                        "    <configuration name=\"my.CodeTests\" type=\"Application\" factoryName=\"Application\" />\n" +
+                        "  </component>\n" +
+                        "</project>";
+                    final IntellijRunManagerSection section = IntellijRunManagerSection.find(workspaceText);
+                    test.assertNotNull(section);
+                    test.assertEqual(
+                        "<component name=\"RunManager\" selected=\"Application.my.CodeTests\">\n" +
+                        "    <configuration name=\"my.CodeTests\" type=\"Application\" factoryName=\"Application\" />\n" +
+                        "  </component>",
+                        section.getText());
+                    test.assertEqual(
+                        Iterable.create("my.CodeTests"),
+                        section.parseWorkspace().getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName).toList());
+                });
+            });
+
+            runner.testGroup("replace(IntellijWorkspace)", () ->
+            {
+                runner.test("with added run configuration", (Test test) ->
+                {
+                    final String prefix =
+                        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                        "<project version=\"4\">\n" +
+                        "  <component   name=\"ChangeListManager\"  ><list default=\"true\" /></component>\n" +
+                        "  ";
+                    final String suffix =
+                        "\n" +
+                        "  <component name=\"ToolWindowManager\">\n" +
+                        "      <frame x=\"0\" />\n" +
+                        "  </component>\n" +
+                        "</project>\n";
+                    final String workspaceText = prefix + "<component name=\"RunManager\"></component>" + suffix;
+                    final IntellijRunManagerSection section = IntellijRunManagerSection.find(workspaceText);
+                    final IntellijWorkspace intellijWorkspace = section.parseWorkspace();
+                    intellijWorkspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create()
+                        .setName("my.CodeTests"));
+
+                    final String replacedText = section.replace(intellijWorkspace);
+                    test.assertTrue(replacedText.startsWith(prefix + "<component name=\"RunManager\">"));
+                    test.assertTrue(replacedText.endsWith("</component>" + suffix));
+
+                    final IntellijRunManagerSection replacedSection = IntellijRunManagerSection.find(replacedText);
+                    test.assertEqual(
+                        Iterable.create("my.CodeTests"),
+                        replacedSection.parseWorkspace().getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName).toList());
+                });
+            });
+        });
+    }
+}
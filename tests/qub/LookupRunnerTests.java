@@ -0,0 +1,213 @@
+package qub;
+
+public interface LookupRunnerTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(LookupRunner.class, () ->
+        {
+            runner.testGroup("create()", () ->
+            {
+                runner.test("with no arguments", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertNotNull(lookupRunner);
+                    test.assertEqual(1, lookupRunner.getConcurrency());
+                });
+            });
+
+            runner.testGroup("create(AsyncRunner,int)", () ->
+            {
+                runner.test("with null asyncRunner", (Test test) ->
+                {
+                    test.assertThrows(() -> LookupRunner.create(null, 2),
+                        new PreConditionFailure("asyncRunner cannot be null."));
+                });
+
+                runner.test("with 0 concurrency", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertThrows(() -> LookupRunner.create(process.getParallelAsyncRunner(), 0),
+                            new PreConditionFailure("concurrency (0) must be greater than or equal to 1."));
+                    }
+                });
+
+                runner.test("with 4 concurrency", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 4);
+                        test.assertEqual(4, lookupRunner.getConcurrency());
+                    }
+                });
+            });
+
+            runner.testGroup("map(Iterable<T>,Function1<T,U>)", () ->
+            {
+                runner.test("with null values", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertThrows(() -> lookupRunner.map(null, (Integer value) -> value),
+                        new PreConditionFailure("values cannot be null."));
+                });
+
+                runner.test("with null lookup", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertThrows(() -> lookupRunner.map(Iterable.create(1, 2), null),
+                        new PreConditionFailure("lookup cannot be null."));
+                });
+
+                runner.test("with no values", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertEqual(Iterable.create(), lookupRunner.map(Iterable.create(), (Integer value) -> value * 2));
+                });
+
+                runner.test("with values on the current thread", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertEqual(Iterable.create(2, 4, 6), lookupRunner.map(Iterable.create(1, 2, 3), (Integer value) -> value * 2));
+                });
+
+                runner.test("with more values than the concurrency", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 2);
+                        test.assertEqual(Iterable.create(2, 4, 6, 8, 10), lookupRunner.map(Iterable.create(1, 2, 3, 4, 5), (Integer value) -> value * 2));
+                    }
+                });
+
+                runner.test("with slow first lookup", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 2);
+                        // The first lookup only finishes early if the other lookups run while it
+                        // is still running.
+                        final java.util.concurrent.CountDownLatch otherLookups = new java.util.concurrent.CountDownLatch(4);
+                        test.assertEqual(Iterable.create(true, true, true, true, true), lookupRunner.map(Iterable.create(1, 2, 3, 4, 5), (Integer value) ->
+                        {
+                            boolean result = true;
+                            if (value == 1)
+                            {
+                                try
+                                {
+                                    result = otherLookups.await(1, java.util.concurrent.TimeUnit.MINUTES);
+                                }
+                                catch (InterruptedException e)
+                                {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+                            else
+                            {
+                                otherLookups.countDown();
+                            }
+                            return result;
+                        }));
+                    }
+                });
+
+                runner.test("with nested map() on the same AsyncRunner", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner outerLookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 4);
+                        final LookupRunner innerLookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 4);
+                        test.assertEqual(
+                            Iterable.create(
+                                Iterable.create(11, 12, 13),
+                                Iterable.create(21, 22, 23),
+                                Iterable.create(31, 32, 33),
+                                Iterable.create(41, 42, 43),
+                                Iterable.create(51, 52, 53)),
+                            outerLookupRunner.map(Iterable.create(1, 2, 3, 4, 5), (Integer outerValue) ->
+                                innerLookupRunner.map(Iterable.create(1, 2, 3), (Integer innerValue) -> outerValue * 10 + innerValue)));
+                    }
+                });
+
+                runner.test("with failing lookup", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 2);
+                        final IntegerValue lookupCount = IntegerValue.create(0);
+                        test.assertThrows(() -> lookupRunner.map(Iterable.create(1, 2, 3, 4, 5, 6, 7, 8), (Integer value) ->
+                            {
+                                synchronized (lookupCount)
+                                {
+                                    lookupCount.increment();
+                                }
+                                if (value == 1)
+                                {
+                                    throw new NotFoundException("1");
+                                }
+                                return value;
+                            }),
+                            new NotFoundException("1"));
+                        test.assertTrue(lookupCount.get() < 8);
+                    }
+                });
+            });
+
+            runner.testGroup("start(Function0<T>)", () ->
+            {
+                runner.test("with null lookup", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    test.assertThrows(() -> lookupRunner.start(null),
+                        new PreConditionFailure("lookup cannot be null."));
+                });
+
+                runner.test("on the current thread", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    final List<Integer> started = List.create();
+                    final Result<Integer> result = lookupRunner.start(() ->
+                    {
+                        started.add(1);
+                        return 2;
+                    });
+                    test.assertEqual(Iterable.create(1), started);
+                    test.assertEqual(2, result.await());
+                });
+
+                runner.test("with parallel AsyncRunner", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 2);
+                        final Result<Integer> result = lookupRunner.start(() -> 2);
+                        test.assertEqual(2, result.await());
+                    }
+                });
+
+                runner.test("from a lookup on the same AsyncRunner", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final LookupRunner lookupRunner = LookupRunner.create(process.getParallelAsyncRunner(), 2);
+                        test.assertEqual(Iterable.create(1, 2, 3), lookupRunner.map(Iterable.create(1, 2, 3), (Integer value) ->
+                            lookupRunner.start(() -> value).await()));
+                    }
+                });
+
+                runner.test("with lookup that throws", (Test test) ->
+                {
+                    final LookupRunner lookupRunner = LookupRunner.create();
+                    final Result<Integer> result = lookupRunner.start(() ->
+                    {
+                        throw new NotFoundException("abc");
+                    });
+                    test.assertThrows(() -> result.await(),
+                        new NotFoundException("abc"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,286 @@
+package qub;
+
+public interface ProjectFileFinderTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(ProjectFileFinder.class, () ->
+        {
+            runner.test("constructor()", (Test test) ->
+            {
+                final ProjectFileFinder finder = new ProjectFileFinder();
+                test.assertEqual(ProjectFileFinder.defaultIgnorePatterns, finder.getIgnorePatterns());
+                test.assertTrue(finder.getUseGitignore());
+                test.assertFalse(finder.hasMaximumDepth());
+                test.assertEqual(-1, finder.getMaximumDepth());
+                test.assertNull(finder.getListingCacheFile());
+                test.assertTrue(finder.getWriteListingCache());
+                test.assertEqual(1, finder.getLookupRunner().getConcurrency());
+            });
+
+            runner.test("copy()", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                fileSystem.createRoot("/").await();
+                final ProjectFileFinder finder = new ProjectFileFinder()
+                    .addIgnorePattern("/build/")
+                    .setUseGitignore(false)
+                    .setMaximumDepth(2)
+                    .setListingCacheFile(fileSystem.getFile("/listings.json").await())
+                    .setWriteListingCache(false);
+
+                final ProjectFileFinder copy = finder.copy();
+                test.assertNotSame(finder, copy);
+                test.assertEqual(finder.getIgnorePatterns(), copy.getIgnorePatterns());
+                test.assertFalse(copy.getUseGitignore());
+                test.assertEqual(2, copy.getMaximumDepth());
+                test.assertFalse(new ProjectFileFinder().copy().hasMaximumDepth());
+                test.assertSame(finder.getLookupRunner(), copy.getLookupRunner());
+                test.assertNull(copy.getListingCacheFile());
+                test.assertFalse(copy.getWriteListingCache());
+
+                copy.addIgnorePattern("/other/");
+                test.assertFalse(finder.getIgnorePatterns().contains("/other/"));
+            });
+
+            runner.testGroup("setMaximumDepth(int)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+                    test.assertThrows(() -> finder.setMaximumDepth(-1),
+                        new PreConditionFailure("maximumDepth (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with 0", (Test test) ->
+                {
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+                    test.assertSame(finder, finder.setMaximumDepth(0));
+                    test.assertTrue(finder.hasMaximumDepth());
+                    test.assertEqual(0, finder.getMaximumDepth());
+                });
+            });
+
+            runner.testGroup("matches(String,String,String,boolean)", () ->
+            {
+                runner.test("with name pattern", (Test test) ->
+                {
+                    test.assertTrue(ProjectFileFinder.matches("outputs", "outputs", "outputs", true));
+                    test.assertTrue(ProjectFileFinder.matches("outputs", "a/outputs", "outputs", false));
+                });
+
+                runner.test("with folder-only pattern", (Test test) ->
+                {
+                    test.assertTrue(ProjectFileFinder.matches("outputs/", "a/outputs", "outputs", true));
+                    test.assertFalse(ProjectFileFinder.matches("outputs/", "a/outputs", "outputs", false));
+                });
+
+                runner.test("with anchored pattern", (Test test) ->
+                {
+                    test.assertTrue(ProjectFileFinder.matches("/outputs/", "outputs", "outputs", true));
+                    test.assertFalse(ProjectFileFinder.matches("/outputs/", "a/outputs", "outputs", true));
+                    test.assertTrue(ProjectFileFinder.matches("a/b", "a/b", "b", true));
+                    test.assertFalse(ProjectFileFinder.matches("a/b", "c/a/b", "b", true));
+                });
+
+                runner.test("with wildcard pattern", (Test test) ->
+                {
+                    test.assertTrue(ProjectFileFinder.matches("*.log", "a/b.log", "b.log", false));
+                    test.assertFalse(ProjectFileFinder.matches("*.log", "a/b.txt", "b.txt", false));
+                    test.assertTrue(ProjectFileFinder.matches("a/*/c", "a/b/c", "c", true));
+                    test.assertFalse(ProjectFileFinder.matches("a/*/c", "a/b/d/c", "c", true));
+                    test.assertTrue(ProjectFileFinder.matches("a/**/c", "a/b/d/c", "c", true));
+                    test.assertTrue(ProjectFileFinder.matches("b?n", "bin", "bin", true));
+                    test.assertFalse(ProjectFileFinder.matches("b?n", "bn", "bn", true));
+                });
+            });
+
+            runner.testGroup("find(Folder,String)", () ->
+            {
+                runner.test("with null folder", (Test test) ->
+                {
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+                    test.assertThrows(() -> finder.find(null, ".iml"),
+                        new PreConditionFailure("folder cannot be null."));
+                });
+
+                runner.test("with non-existing folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+                    test.assertEqual(Iterable.create(), finder.find(folder, ".iml"));
+                });
+
+                runner.test("with ignored and deep folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    folder.createFile("project.json").await();
+                    folder.createFile(".idea/other.iml").await();
+                    folder.createFile("outputs/generated.iml").await();
+                    folder.createFile(".git/modules/git.iml").await();
+                    folder.createFile("vendor/vendored.iml").await();
+                    folder.createFile("generated/a/generated.iml").await();
+                    folder.createFile("a/b/c/deep.iml").await();
+                    folder.setFileContentsAsString(".gitignore", "# comment\n/generated/\n!keep\n").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .addIgnorePattern("vendor")
+                        .setMaximumDepth(2);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            folder.getFile("project.iml").await(),
+                            folder.getFile(".idea/other.iml").await()),
+                        finder.find(folder, ".iml"));
+                });
+
+                runner.test("with no maximum depth", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    folder.createFile("a/b/c/d/e/f/deep.iml").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+
+                    test.assertEqual(
+                        Iterable.create(
+                            folder.getFile("project.iml").await(),
+                            folder.getFile("a/b/c/d/e/f/deep.iml").await()),
+                        finder.find(folder, ".iml"));
+                });
+
+                runner.test("with file pattern in .gitignore", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    folder.createFile("module/module.iml").await();
+                    folder.createFile("generated/generated.iml").await();
+                    folder.setFileContentsAsString(".gitignore", "*.iml\ngenerated\n").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+
+                    test.assertEqual(
+                        Iterable.create(
+                            folder.getFile("project.iml").await(),
+                            folder.getFile("module/module.iml").await()),
+                        finder.find(folder, ".iml"));
+                });
+
+                runner.test("with useGitignore set to false", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("generated/generated.iml").await();
+                    folder.setFileContentsAsString(".gitignore", "generated/").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .setUseGitignore(false);
+
+                    test.assertEqual(
+                        Iterable.create(folder.getFile("generated/generated.iml").await()),
+                        finder.find(folder, ".iml"));
+                });
+            });
+
+            runner.testGroup("walk(Folder,Action2<File,String>)", () ->
+            {
+                runner.test("with null visitor", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder();
+                    test.assertThrows(() -> finder.walk(folder, null),
+                        new PreConditionFailure("visitor cannot be null."));
+                });
+
+                runner.test("with unbounded folder deeper than the maximum depth", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    folder.createFile("a/b/c/deep.iml").await();
+                    folder.createFile("tests/a/b/c/DeepTests.java").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .setMaximumDepth(1);
+
+                    final List<String> relativePaths = List.create();
+                    finder.walk(folder, (File file, String relativePath) ->
+                    {
+                        test.assertEqual(folder.getFile(relativePath).await(), file);
+                        relativePaths.add(relativePath);
+                    });
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "project.iml",
+                            "tests/a/b/c/DeepTests.java"),
+                        relativePaths);
+                });
+
+                runner.test("with listing cache file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    final File listingCacheFile = folder.getFile("outputs/folder-listings.json").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .setListingCacheFile(listingCacheFile);
+
+                    test.assertEqual(Iterable.create(folder.getFile("project.iml").await()), finder.find(folder, ".iml"));
+                    test.assertTrue(listingCacheFile.exists().await());
+
+                    // A listing whose last modified time still matches its folder is used instead
+                    // of listing the folder again.
+                    final String lastModified = ProjectFolderListing.getLastModified(folder);
+                    listingCacheFile.setContentsAsString(JSONObject.create()
+                        .setArray("listings", JSONArray.create()
+                            .add(new ProjectFolderListing("", lastModified)
+                                .addFileName("cached.iml")
+                                .toJson()))
+                        .toString()).await();
+                    test.assertEqual(Iterable.create(folder.getFile("cached.iml").await()), finder.find(folder, ".iml"));
+                });
+
+                runner.test("with writeListingCache set to false", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    final File listingCacheFile = folder.getFile("outputs/folder-listings.json").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .setListingCacheFile(listingCacheFile)
+                        .setWriteListingCache(false);
+
+                    test.assertEqual(Iterable.create(folder.getFile("project.iml").await()), finder.find(folder, ".iml"));
+                    test.assertFalse(listingCacheFile.exists().await());
+                });
+
+                runner.test("with invalid listing cache file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    final File listingCacheFile = folder.getFile("outputs/folder-listings.json").await();
+                    listingCacheFile.setContentsAsString("not json").await();
+                    final ProjectFileFinder finder = new ProjectFileFinder()
+                        .setListingCacheFile(listingCacheFile);
+
+                    test.assertEqual(Iterable.create(folder.getFile("project.iml").await()), finder.find(folder, ".iml"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package qub;
+
+public interface ProjectFolderListingTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(ProjectFolderListing.class, () ->
+        {
+            runner.testGroup("constructor(String,String)", () ->
+            {
+                runner.test("with null path", (Test test) ->
+                {
+                    test.assertThrows(() -> new ProjectFolderListing(null, "a"),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with null lastModified", (Test test) ->
+                {
+                    final ProjectFolderListing listing = new ProjectFolderListing("tests", null);
+                    test.assertEqual("tests", listing.getPath());
+                    test.assertNull(listing.getLastModified());
+                    test.assertEqual(Iterable.create(), listing.getFileNames());
+                    test.assertEqual(Iterable.create(), listing.getFolderNames());
+                });
+            });
+
+            runner.testGroup("create(String,String,Folder)", () ->
+            {
+                runner.test("with non-existing folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    test.assertNull(ProjectFolderListing.create("", null, folder));
+                });
+
+                runner.test("with files and folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.createFile("project.json").await();
+                    folder.createFolder("tests").await();
+
+                    final ProjectFolderListing listing = ProjectFolderListing.create("", "b", folder);
+                    test.assertEqual("", listing.getPath());
+                    test.assertEqual("b", listing.getLastModified());
+                    test.assertEqual(Iterable.create("project.json"), listing.getFileNames());
+                    test.assertEqual(Iterable.create("tests"), listing.getFolderNames());
+                });
+            });
+
+            runner.testGroup("parse(JSONObject)", () ->
+            {
+                runner.test("with empty object", (Test test) ->
+                {
+                    test.assertNull(ProjectFolderListing.parse(JSONObject.create()));
+                });
+
+                runner.test("with toJson() output", (Test test) ->
+                {
+                    final ProjectFolderListing listing = new ProjectFolderListing("tests", "c")
+                        .addFileName("ATests.java")
+                        .addFolderName("a");
+                    final ProjectFolderListing parsedListing = ProjectFolderListing.parse(listing.toJson());
+                    test.assertEqual("tests", parsedListing.getPath());
+                    test.assertEqual("c", parsedListing.getLastModified());
+                    test.assertEqual(Iterable.create("ATests.java"), parsedListing.getFileNames());
+                    test.assertEqual(Iterable.create("a"), parsedListing.getFolderNames());
+                });
+            });
+        });
+    }
+}
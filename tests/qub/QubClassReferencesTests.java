@@ -0,0 +1,298 @@
+package qub;
+
+public interface QubClassReferencesTests
+{
+    /**
+     * Create the contents of a class file whose constant pool references the provided classes.
+     */
+    static byte[] createClassFile(String... classNames)
+    {
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        final java.io.DataOutputStream stream = new java.io.DataOutputStream(bytes);
+        try
+        {
+            stream.writeInt(QubClassReferences.classFileMagic);
+            stream.writeShort(0);
+            stream.writeShort(52);
+            stream.writeShort(1 + 2 + 1 + (classNames.length * 2));
+
+            stream.writeByte(5); // Long
+            stream.writeLong(50);
+            stream.writeByte(12); // NameAndType
+            stream.writeShort(1);
+            stream.writeShort(1);
+
+            int constantIndex = 4;
+            for (final String className : classNames)
+            {
+                stream.writeByte(1); // Utf8
+                stream.writeUTF(className);
+                stream.writeByte(7); // Class
+                stream.writeShort(constantIndex);
+                constantIndex += 2;
+            }
+            stream.writeShort(0x0021);
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Create the contents of a jar file that has empty entries with the provided names.
+     */
+    static byte[] createJar(String... entryNames)
+    {
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (final java.util.zip.ZipOutputStream stream = new java.util.zip.ZipOutputStream(bytes))
+        {
+            for (final String entryName : entryNames)
+            {
+                stream.putNextEntry(new java.util.zip.ZipEntry(entryName));
+                stream.closeEntry();
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A class whose field type, parameter type, return type, type argument, and annotation are only
+     * named by descriptors and signatures in its compiled class file.
+     */
+    @Deprecated
+    class DescriptorReferences
+    {
+        java.util.concurrent.atomic.AtomicLong field;
+
+        java.util.List<java.time.Duration> method(java.io.File file)
+        {
+            return null;
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubClassReferences.class, () ->
+        {
+            runner.testGroup("getReferencedClassNames(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubClassReferences.getReferencedClassNames(null),
+                        new PreConditionFailure("classFileBytes cannot be null."));
+                });
+
+                runner.test("with empty bytes", (Test test) ->
+                {
+                    test.assertNull(QubClassReferences.getReferencedClassNames(new byte[0]));
+                });
+
+                runner.test("with no class file magic", (Test test) ->
+                {
+                    test.assertNull(QubClassReferences.getReferencedClassNames(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }));
+                });
+
+                runner.test("with truncated class file", (Test test) ->
+                {
+                    final byte[] classFileBytes = QubClassReferencesTests.createClassFile("a/B");
+                    test.assertNull(QubClassReferences.getReferencedClassNames(java.util.Arrays.copyOf(classFileBytes, classFileBytes.length - 6)));
+                });
+
+                runner.test("with no class references", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), QubClassReferences.getReferencedClassNames(QubClassReferencesTests.createClassFile()));
+                });
+
+                runner.test("with one class reference", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create("a/B"), QubClassReferences.getReferencedClassNames(QubClassReferencesTests.createClassFile("a/B")));
+                });
+
+                runner.test("with compiled class file", (Test test) ->
+                {
+                    final java.io.ByteArrayOutputStream classFileBytes = new java.io.ByteArrayOutputStream();
+                    try (final java.io.InputStream classFileStream = QubClassReferencesTests.DescriptorReferences.class.getResourceAsStream("QubClassReferencesTests$DescriptorReferences.class"))
+                    {
+                        final byte[] buffer = new byte[4096];
+                        int bytesRead = classFileStream.read(buffer);
+                        while (bytesRead != -1)
+                        {
+                            classFileBytes.write(buffer, 0, bytesRead);
+                            bytesRead = classFileStream.read(buffer);
+                        }
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+
+                    final Set<String> referencedClassNames = QubClassReferences.getReferencedClassNames(classFileBytes.toByteArray());
+                    test.assertNotNull(referencedClassNames);
+                    test.assertTrue(referencedClassNames.contains("qub/QubClassReferencesTests$DescriptorReferences"));
+                    test.assertTrue(referencedClassNames.contains("java/lang/Object"));
+                    test.assertTrue(referencedClassNames.contains("java/lang/Deprecated"));
+                    test.assertTrue(referencedClassNames.contains("java/util/concurrent/atomic/AtomicLong"));
+                    test.assertTrue(referencedClassNames.contains("java/util/List"));
+                    test.assertTrue(referencedClassNames.contains("java/time/Duration"));
+                    test.assertTrue(referencedClassNames.contains("java/io/File"));
+                });
+
+                runner.test("with array class references", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("a/B", "java/lang/Object", "c/D", "e/F"),
+                        QubClassReferences.getReferencedClassNames(QubClassReferencesTests.createClassFile("a/B", "java/lang/Object", "[Lc/D;", "[[Le/F;", "[I", "[La/B;")));
+                });
+            });
+
+            runner.testGroup("addDescriptorClassNames(String,Set<String>)", () ->
+            {
+                runner.test("with class name", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("a/B", classNames));
+                    test.assertEqual(Iterable.create(), classNames);
+                });
+
+                runner.test("with text that isn't a descriptor", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("Hello world;", classNames));
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("La/B", classNames));
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("La/B;x", classNames));
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("(La/B;", classNames));
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("<init>", classNames));
+                    test.assertFalse(QubClassReferences.addDescriptorClassNames("LineNumberTable", classNames));
+                    test.assertEqual(Iterable.create(), classNames);
+                });
+
+                runner.test("with primitive field descriptor", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertTrue(QubClassReferences.addDescriptorClassNames("[J", classNames));
+                    test.assertEqual(Iterable.create(), classNames);
+                });
+
+                runner.test("with field descriptor", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertTrue(QubClassReferences.addDescriptorClassNames("[[La/B;", classNames));
+                    test.assertEqual(Iterable.create("a/B"), classNames);
+                });
+
+                runner.test("with method descriptor", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertTrue(QubClassReferences.addDescriptorClassNames("(ILa/B;[Lc/D;)V", classNames));
+                    test.assertEqual(Iterable.create("a/B", "c/D"), classNames);
+                });
+
+                runner.test("with generic method signature", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertTrue(QubClassReferences.addDescriptorClassNames("<T:La/B;U::Lc/D;>(TT;Le/F<*+Lg/H;-TU;>;)Li/J<TT;>.K;^Ll/M;^TU;", classNames));
+                    test.assertEqual(Iterable.create("a/B", "c/D", "e/F", "g/H", "i/J", "i/J$K", "l/M"), classNames);
+                });
+
+                runner.test("with class signature", (Test test) ->
+                {
+                    final Set<String> classNames = Set.create();
+                    test.assertTrue(QubClassReferences.addDescriptorClassNames("<T:Ljava/lang/Object;>La/B<TT;>;Lc/D;", classNames));
+                    test.assertEqual(Iterable.create("java/lang/Object", "a/B", "c/D"), classNames);
+                });
+            });
+
+            runner.testGroup("getElementClassName(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertNull(QubClassReferences.getElementClassName(null));
+                });
+
+                runner.test("with class name", (Test test) ->
+                {
+                    test.assertEqual("a/B", QubClassReferences.getElementClassName("a/B"));
+                });
+
+                runner.test("with array class name", (Test test) ->
+                {
+                    test.assertEqual("a/B", QubClassReferences.getElementClassName("[La/B;"));
+                });
+
+                runner.test("with multi-dimensional array class name", (Test test) ->
+                {
+                    test.assertEqual("a/B", QubClassReferences.getElementClassName("[[[La/B;"));
+                });
+
+                runner.test("with primitive array class name", (Test test) ->
+                {
+                    test.assertNull(QubClassReferences.getElementClassName("[I"));
+                    test.assertNull(QubClassReferences.getElementClassName("[[J"));
+                });
+            });
+
+            runner.testGroup("getDefinedClassNames(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubClassReferences.getDefinedClassNames((File)null),
+                        new PreConditionFailure("jarFile cannot be null."));
+                });
+
+                runner.test("with jar file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    test.assertNull(QubClassReferences.getDefinedClassNames(fileSystem.getFile("/a.jar").await()));
+                });
+
+                runner.test("with jar file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final File jarFile = fileSystem.getFile("/a.jar").await();
+                    jarFile.setContents(QubClassReferencesTests.createJar("META-INF/MANIFEST.MF", "a/B.class", "a/B$C.class")).await();
+                    test.assertEqual(Iterable.create("a/B", "a/B$C"), QubClassReferences.getDefinedClassNames(jarFile));
+                });
+            });
+
+            runner.testGroup("getDefinedClassNames(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubClassReferences.getDefinedClassNames((byte[])null),
+                        new PreConditionFailure("jarBytes cannot be null."));
+                });
+
+                runner.test("with empty jar", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), QubClassReferences.getDefinedClassNames(QubClassReferencesTests.createJar()));
+                });
+
+                runner.test("with classes and other entries", (Test test) ->
+                {
+                    final byte[] jarBytes = QubClassReferencesTests.createJar(
+                        "META-INF/MANIFEST.MF",
+                        "META-INF/versions/9/a/B.class",
+                        "module-info.class",
+                        "a/",
+                        "a/B.class",
+                        "a/B$C.class",
+                        "a/data.json",
+                        "d/E.class");
+                    test.assertEqual(
+                        Iterable.create("a/B", "a/B$C", "d/E"),
+                        QubClassReferences.getDefinedClassNames(jarBytes));
+                });
+            });
+        });
+    }
+}
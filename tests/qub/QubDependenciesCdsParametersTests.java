@@ -0,0 +1,155 @@
+package qub;
+
+public interface QubDependenciesCdsParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesCdsParameters.class, () ->
+        {
+            runner.testGroup("constructor()", () ->
+            {
+                runner.test("with null output", (Test test) ->
+                {
+                    final InMemoryCharacterStream output = null;
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(InMemoryCharacterToByteStream.create()).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+                    test.assertThrows(() -> new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                runner.test("with null verbose", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = null;
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+                    test.assertThrows(() -> new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables),
+                        new PreConditionFailure("verbose cannot be null."));
+                });
+
+                runner.test("with null folder", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final Folder folder = null;
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+                    test.assertThrows(() -> new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables),
+                        new PreConditionFailure("folder cannot be null."));
+                });
+
+                runner.test("with null environmentVariables", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final EnvironmentVariables environmentVariables = null;
+                    test.assertThrows(() -> new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables),
+                        new PreConditionFailure("environmentVariables cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables);
+                    test.assertSame(output, parameters.getOutput());
+                    test.assertSame(verbose, parameters.getVerbose());
+                    test.assertSame(folder, parameters.getFolder());
+                    test.assertSame(environmentVariables, parameters.getEnvironmentVariables());
+                    test.assertNotNull(parameters.getLookupRunner());
+                    test.assertEqual(1, parameters.getLookupRunner().getConcurrency());
+                    test.assertNull(parameters.getJavaRunner());
+                    test.assertEqual(Iterable.create(), parameters.getTrainingArguments());
+                    test.assertNull(parameters.getTrainingTimeout());
+                });
+            });
+
+            runner.testGroup("setTrainingArguments(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    test.assertThrows(() -> parameters.setTrainingArguments(null),
+                        new PreConditionFailure("trainingArguments cannot be null."));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    test.assertSame(parameters, parameters.setTrainingArguments(Iterable.create("--port", "0")));
+                    test.assertEqual(Iterable.create("--port", "0"), parameters.getTrainingArguments());
+                });
+            });
+
+            runner.testGroup("setTrainingTimeout(Duration)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    test.assertThrows(() -> parameters.setTrainingTimeout(null),
+                        new PreConditionFailure("trainingTimeout cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    test.assertSame(parameters, parameters.setTrainingTimeout(Duration.seconds(5)));
+                    test.assertEqual(Duration.seconds(5), parameters.getTrainingTimeout());
+                });
+            });
+
+            runner.testGroup("setJavaRunner(Function3<File,Iterable<String>,Duration,Integer>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    test.assertThrows(() -> parameters.setJavaRunner(null),
+                        new PreConditionFailure("javaRunner cannot be null."));
+                    test.assertNull(parameters.getJavaRunner());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+                    final Function3<File,Iterable<String>,Duration,Integer> javaRunner = (File javaFile, Iterable<String> arguments, Duration timeout) -> 0;
+                    final QubDependenciesCdsParameters setJavaRunnerResult = parameters.setJavaRunner(javaRunner);
+                    test.assertSame(parameters, setJavaRunnerResult);
+                    test.assertSame(javaRunner, parameters.getJavaRunner());
+                });
+            });
+        });
+    }
+}
\ No newline at end of file
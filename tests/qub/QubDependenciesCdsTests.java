@@ -0,0 +1,581 @@
+package qub;
+
+public interface QubDependenciesCdsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesCds.class, () ->
+        {
+            runner.testGroup("getParameters(Process)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesCds.getParameters(null),
+                        new PreConditionFailure("process cannot be null."));
+                });
+
+                runner.test("with no arguments", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesCdsParameters parameters = QubDependenciesCds.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutput());
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                        test.assertNotNull(parameters.getVerbose());
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolder());
+                        test.assertNotNull(parameters.getJavaRunner());
+                        test.assertEqual(Iterable.create(), parameters.getTrainingArguments());
+                        test.assertEqual(Duration.seconds(QubDependenciesCds.defaultTrainingTimeoutSeconds), parameters.getTrainingTimeout());
+                    }
+                });
+
+                runner.test("with training arguments and timeout", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--training-arguments=--port,0", "--training-timeout=5"))
+                    {
+                        final QubDependenciesCdsParameters parameters = QubDependenciesCds.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Iterable.create("--port", "0"), parameters.getTrainingArguments());
+                        test.assertEqual(Duration.seconds(5), parameters.getTrainingTimeout());
+                    }
+                });
+
+                runner.test("with -?", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("-?"))
+                    {
+                        final QubDependenciesCdsParameters parameters = QubDependenciesCds.getParameters(process);
+                        test.assertNull(parameters);
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Usage: qub-dependencies cds [--training-arguments=<training-arguments>] [--training-timeout=<training-timeout>] [--concurrency=<concurrency>] [--profiler] [--verbose] [--help]",
+                                "  Create a class data sharing archive for the runtime classpath of a project.",
+                                "  --training-arguments: A comma-separated list of the arguments that the main class is run with during the training launch.",
+                                "  --training-timeout:   The number of seconds that the training launch can run before it is stopped. Defaults to 60.",
+                                "  --concurrency:        The maximum number of dependency lookups to run at the same time. Defaults to 16. Use 1 to run lookups one at a time.",
+                                "  --profiler:           Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --verbose(v):         Whether or not to show verbose logs.",
+                                "  --help(?):            Show the help message for this application."
+                            ),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                    }
+                });
+            });
+
+            runner.testGroup("run(QubDependenciesCdsParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesCds.run(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with no javaRunner", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertThrows(() -> QubDependenciesCds.run(parameters),
+                        new PreConditionFailure("parameters.getJavaRunner() cannot be null."));
+                });
+
+                runner.test("with no project.json", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) -> 0);
+
+                    test.assertEqual(1, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "No project.json file found at /project/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no mainClass", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) -> 0);
+
+                    test.assertEqual(1, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "No \"mainClass\" property found in the \"java\" property of /project/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no JAVA_HOME environment variable", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main"))
+                        .toString()).await();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) -> 0);
+
+                    test.assertEqual(1, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Can't create a class data sharing archive if a JAVA_HOME environment variable is not specified."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with failed training launch", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main"))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString())
+                        .set("JAVA_HOME", "/jdk/");
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) -> 3);
+
+                    test.assertEqual(1, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "The training launch failed with exit code 3."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertFalse(folder.getFile(QubDependenciesCds.recordFilePath).await().exists().await());
+                    test.assertFalse(folder.getFile(QubDependenciesCds.argumentsFilePath).await().exists().await());
+                });
+
+                runner.test("with training launch that is stopped", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main"))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString())
+                        .set("JAVA_HOME", "/jdk/");
+                    final List<String> javaRuns = List.create();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                        .setTrainingArguments(Iterable.create("--port", "0"))
+                        .setTrainingTimeout(Duration.seconds(5))
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) ->
+                        {
+                            javaRuns.add(String.join(" ", arguments) + " " + timeout);
+                            final Integer result;
+                            if (arguments.contains("-Xshare:dump"))
+                            {
+                                folder.setFileContentsAsString(QubDependenciesCds.archiveFilePath, "archive").await();
+                                result = 0;
+                            }
+                            else
+                            {
+                                folder.setFileContentsAsString(QubDependenciesCds.classListFilePath, "a/Main\n").await();
+                                result = null;
+                            }
+                            return result;
+                        });
+
+                    test.assertEqual(0, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "The training launch was stopped after " + Duration.seconds(5) + ".",
+                            "Dumping /project/outputs/qub-dependencies/cds.jsa...",
+                            "Created /project/outputs/qub-dependencies/cds.jsa.",
+                            "Updated /project/outputs/qub-dependencies/cds.args."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(
+                        Iterable.create(
+                            "-Xshare:off -XX:DumpLoadedClassList=/project/outputs/qub-dependencies/cds.classlist -classpath /project/outputs/ a.Main --port 0 " + Duration.seconds(5),
+                            "-Xshare:dump -XX:SharedClassListFile=/project/outputs/qub-dependencies/cds.classlist -XX:SharedArchiveFile=/project/outputs/qub-dependencies/cds.jsa -classpath  null"),
+                        javaRuns);
+                    test.assertTrue(folder.getFile(QubDependenciesCds.recordFilePath).await().exists().await());
+                });
+
+                runner.test("with training launch that is stopped without a class list", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main"))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString())
+                        .set("JAVA_HOME", "/jdk/");
+                    final List<String> javaRuns = List.create();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                        .setTrainingArguments(Iterable.create("--port", "0"))
+                        .setTrainingTimeout(Duration.seconds(5))
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) ->
+                        {
+                            javaRuns.add(String.join(" ", arguments) + " " + timeout);
+                            final Integer result;
+                            if (arguments.contains("-Xshare:dump"))
+                            {
+                                folder.setFileContentsAsString(QubDependenciesCds.archiveFilePath, "archive").await();
+                                result = 0;
+                            }
+                            else
+                            {
+                                result = null;
+                            }
+                            return result;
+                        });
+
+                    test.assertEqual(1, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "The training launch was stopped after " + Duration.seconds(5) + ".",
+                            "The stopped training launch didn't write a class list to /project/outputs/qub-dependencies/cds.classlist."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(
+                        Iterable.create(
+                            "-Xshare:off -XX:DumpLoadedClassList=/project/outputs/qub-dependencies/cds.classlist -classpath /project/outputs/ a.Main --port 0 " + Duration.seconds(5)),
+                        javaRuns);
+                    test.assertFalse(folder.getFile(QubDependenciesCds.recordFilePath).await().exists().await());
+                });
+
+                runner.test("with training launch that is stopped with a partial class list", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main"))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString())
+                        .set("JAVA_HOME", "/jdk/");
+                    final List<String> javaRuns = List.create();
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                        .setTrainingArguments(Iterable.create("--port", "0"))
+                        .setTrainingTimeout(Duration.seconds(5))
+                        .setJavaRunner((File javaFile, Iterable<String> arguments, Duration timeout) ->
+                        {
+                            javaRuns.add(String.join(" ", arguments) + " " + timeout);
+                            final Integer result;
+                            if (arguments.contains("-Xshare:dump"))
+                            {
+                                folder.setFileContentsAsString(QubDependenciesCds.archiveFilePath, "archive").await();
+                                result = 0;
+                            }
+                            else
+                            {
+                                folder.setFileContentsAsString(QubDependenciesCds.classListFilePath, "a/Main\njava/lang/Str").await();
+                                result = null;
+                            }
+                            return result;
+                        });
+
+                    test.assertEqual(0, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "The training launch was stopped after " + Duration.seconds(5) + ".",
+                            "The class list from the stopped training launch was incomplete, so /project/outputs/qub-dependencies/cds.jsa will be created again by the next run.",
+                            "Dumping /project/outputs/qub-dependencies/cds.jsa...",
+                            "Created /project/outputs/qub-dependencies/cds.jsa.",
+                            "Updated /project/outputs/qub-dependencies/cds.args."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(
+                        Iterable.create(
+                            "-Xshare:off -XX:DumpLoadedClassList=/project/outputs/qub-dependencies/cds.classlist -classpath /project/outputs/ a.Main --port 0 " + Duration.seconds(5),
+                            "-Xshare:dump -XX:SharedClassListFile=/project/outputs/qub-dependencies/cds.classlist -XX:SharedArchiveFile=/project/outputs/qub-dependencies/cds.jsa -classpath  null"),
+                        javaRuns);
+                    test.assertEqual("a/Main\n", folder.getFileContentsAsString(QubDependenciesCds.classListFilePath).await());
+                    test.assertFalse(folder.getFile(QubDependenciesCds.recordFilePath).await().exists().await());
+                });
+
+                runner.test("with project.json with transitive dependencies", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "2"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final File jarFile1 = qubFolder.getCompiledSourcesFile("a", "b", "1").await();
+                    jarFile1.setContentsAsString("b").await();
+                    final File jarFile2 = qubFolder.getCompiledSourcesFile("c", "d", "2").await();
+                    jarFile2.setContentsAsString("d").await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main")
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString())
+                        .set("JAVA_HOME", "/jdk/");
+                    final List<String> javaRuns = List.create();
+                    final Function3<File,Iterable<String>,Duration,Integer> javaRunner = (File javaFile, Iterable<String> arguments, Duration timeout) ->
+                    {
+                        javaRuns.add(javaFile + " " + String.join(" ", arguments));
+                        if (arguments.contains("-Xshare:dump"))
+                        {
+                            folder.setFileContentsAsString(QubDependenciesCds.archiveFilePath, "archive").await();
+                        }
+                        return 0;
+                    };
+                    final QubDependenciesCdsParameters parameters = new QubDependenciesCdsParameters(output, verbose, folder, environmentVariables)
+                        .setJavaRunner(javaRunner);
+
+                    test.assertEqual(0, QubDependenciesCds.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "Dumping /project/outputs/qub-dependencies/cds.jsa...",
+                            "Created /project/outputs/qub-dependencies/cds.jsa.",
+                            "Updated /project/outputs/qub-dependencies/cds.args."),
+                        Strings.getLines(output.getText().await()));
+                    final String jarClasspath = jarFile1 + ":" + jarFile2;
+                    test.assertEqual(
+                        Iterable.create(
+                            "/jdk/bin/java -Xshare:off -XX:DumpLoadedClassList=/project/outputs/qub-dependencies/cds.classlist -classpath " + jarClasspath + ":/project/outputs/ a.Main",
+                            "/jdk/bin/java -Xshare:dump -XX:SharedClassListFile=/project/outputs/qub-dependencies/cds.classlist -XX:SharedArchiveFile=/project/outputs/qub-dependencies/cds.jsa -classpath " + jarClasspath),
+                        javaRuns);
+                    test.assertEqual(
+                        "\"-XX:SharedArchiveFile=/project/outputs/qub-dependencies/cds.jsa\"\n-classpath\n\"" + jarClasspath + ":/project/outputs/\"\n",
+                        folder.getFile(QubDependenciesCds.argumentsFilePath).await().getContentsAsString().await());
+
+                    final InMemoryCharacterToByteStream secondOutput = InMemoryCharacterToByteStream.create();
+                    test.assertEqual(0, QubDependenciesCds.run(new QubDependenciesCdsParameters(secondOutput, verbose, folder, environmentVariables).setJavaRunner(javaRunner)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "/project/outputs/qub-dependencies/cds.jsa is up to date.",
+                            "No changes to /project/outputs/qub-dependencies/cds.args."),
+                        Strings.getLines(secondOutput.getText().await()));
+                    test.assertEqual(2, javaRuns.getCount());
+
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setMainClass("a.Main")
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("c", "d", "2"))))
+                        .toString()).await();
+                    final InMemoryCharacterToByteStream thirdOutput = InMemoryCharacterToByteStream.create();
+                    test.assertEqual(0, QubDependenciesCds.run(new QubDependenciesCdsParameters(thirdOutput, verbose, folder, environmentVariables).setJavaRunner(javaRunner)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Creating class data sharing archive for /project/...",
+                            "Running a training launch of a.Main...",
+                            "Dumping /project/outputs/qub-dependencies/cds.jsa...",
+                            "Created /project/outputs/qub-dependencies/cds.jsa.",
+                            "Updated /project/outputs/qub-dependencies/cds.args."),
+                        Strings.getLines(thirdOutput.getText().await()));
+                    test.assertEqual(4, javaRuns.getCount());
+                });
+            });
+
+            runner.testGroup("awaitExitCode(Function0<Integer>,Action0,Duration,AsyncRunner)", () ->
+            {
+                runner.test("with null exitCodeGetter", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertThrows(() -> QubDependenciesCds.awaitExitCode(null, () -> {}, Duration.seconds(5), process.getParallelAsyncRunner()),
+                            new PreConditionFailure("exitCodeGetter cannot be null."));
+                    }
+                });
+
+                runner.test("with null timeout", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertThrows(() -> QubDependenciesCds.awaitExitCode(() -> 0, () -> {}, null, process.getParallelAsyncRunner()),
+                            new PreConditionFailure("timeout cannot be null."));
+                    }
+                });
+
+                runner.test("with exit before the timeout", (Test test) ->
+                {
+                    final List<String> stops = List.create();
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertEqual(3, QubDependenciesCds.awaitExitCode(() -> 3, () -> { stops.add("stopped"); }, Duration.minutes(1), process.getParallelAsyncRunner()));
+                    }
+                    test.assertEqual(Iterable.create(), stops);
+                });
+
+                runner.test("with no exit before the timeout", (Test test) ->
+                {
+                    final java.util.concurrent.CountDownLatch stopped = new java.util.concurrent.CountDownLatch(1);
+                    final List<String> stops = List.create();
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertNull(QubDependenciesCds.awaitExitCode(
+                            () ->
+                            {
+                                try
+                                {
+                                    stopped.await(1, java.util.concurrent.TimeUnit.MINUTES);
+                                }
+                                catch (InterruptedException e)
+                                {
+                                    throw new RuntimeException(e);
+                                }
+                                return 1;
+                            },
+                            () ->
+                            {
+                                stops.add("stopped");
+                                stopped.countDown();
+                            },
+                            Duration.seconds(1),
+                            process.getParallelAsyncRunner()));
+                    }
+                    test.assertEqual(Iterable.create("stopped"), stops);
+                });
+            });
+
+            runner.testGroup("getClosureHash(File,String,Iterable<String>,Iterable<String>,LookupRunner)", () ->
+            {
+                runner.test("with changed java executable", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(clock);
+                    fileSystem.createRoot("/").await();
+                    final File javaFile = fileSystem.getFile("/jdk/bin/java").await();
+                    javaFile.setContentsAsString("java").await();
+                    final File jarFile = fileSystem.getFile("/qub/a/b/versions/1/b.jar").await();
+                    jarFile.setContentsAsString("b").await();
+                    final Iterable<String> jarPaths = Iterable.create(jarFile.toString());
+
+                    final String closureHash = QubDependenciesCds.getClosureHash(javaFile, "a.Main", Iterable.create(), jarPaths, LookupRunner.create());
+                    test.assertEqual(closureHash, QubDependenciesCds.getClosureHash(javaFile, "a.Main", Iterable.create(), jarPaths, LookupRunner.create()));
+                    test.assertNotEqual(closureHash, QubDependenciesCds.getClosureHash(javaFile, "a.Main", Iterable.create("--port", "0"), jarPaths, LookupRunner.create()));
+                    test.assertNotEqual(closureHash, QubDependenciesCds.getClosureHash(fileSystem.getFile("/other-jdk/bin/java").await(), "a.Main", Iterable.create(), jarPaths, LookupRunner.create()));
+
+                    clock.advance(Duration.minutes(1));
+                    javaFile.setContentsAsString("new java").await();
+                    test.assertNotEqual(closureHash, QubDependenciesCds.getClosureHash(javaFile, "a.Main", Iterable.create(), jarPaths, LookupRunner.create()));
+                });
+            });
+
+            runner.testGroup("getJavaFile(Folder,EnvironmentVariables,CharacterWriteStream)", () ->
+            {
+                runner.test("with relative JAVA_HOME", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+
+                    test.assertNull(QubDependenciesCds.getJavaFile(folder, EnvironmentVariables.create().set("JAVA_HOME", "jdk"), output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Can't create a class data sharing archive if the JAVA_HOME environment variable is not rooted."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with Unix JAVA_HOME", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+
+                    test.assertEqual(
+                        fileSystem.getFile("/jdk/bin/java").await(),
+                        QubDependenciesCds.getJavaFile(folder, EnvironmentVariables.create().set("JAVA_HOME", "/jdk/"), output));
+                    test.assertEqual("", output.getText().await());
+                });
+
+                runner.test("with Windows JAVA_HOME", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("C:/").await();
+                    final Folder folder = fileSystem.getFolder("C:/project/").await();
+
+                    test.assertEqual(
+                        fileSystem.getFile("C:/jdk/bin/java.exe").await(),
+                        QubDependenciesCds.getJavaFile(folder, EnvironmentVariables.create().set("JAVA_HOME", "C:/jdk/"), output));
+                    test.assertEqual("", output.getText().await());
+                });
+            });
+        });
+    }
+}
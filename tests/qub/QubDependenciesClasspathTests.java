@@ -0,0 +1,267 @@
+package qub;
+
+public interface QubDependenciesClasspathTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesClasspath.class, () ->
+        {
+            runner.testGroup("getParameters(Process)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesClasspath.getParameters(null),
+                        new PreConditionFailure("process cannot be null."));
+                });
+
+                runner.test("with no arguments", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesClasspathParameters parameters = QubDependenciesClasspath.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutput());
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                        test.assertNotNull(parameters.getVerbose());
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolder());
+                    }
+                });
+
+                runner.test("with --concurrency=4", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--concurrency=4"))
+                    {
+                        final QubDependenciesClasspathParameters parameters = QubDependenciesClasspath.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(4, parameters.getLookupRunner().getConcurrency());
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                    }
+                });
+
+                runner.test("with --concurrency=abc", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--concurrency=abc"))
+                    {
+                        test.assertNull(QubDependenciesClasspath.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --concurrency value: \"abc\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with --concurrency=0", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--concurrency=0"))
+                    {
+                        test.assertNull(QubDependenciesClasspath.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --concurrency value: \"0\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with --concurrency=-3", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--concurrency=-3"))
+                    {
+                        test.assertNull(QubDependenciesClasspath.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --concurrency value: \"-3\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with -?", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("-?"))
+                    {
+                        final QubDependenciesClasspathParameters parameters = QubDependenciesClasspath.getParameters(process);
+                        test.assertNull(parameters);
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Usage: qub-dependencies classpath [--concurrency=<concurrency>] [--profiler] [--verbose] [--help]",
+                                "  Write the runtime classpath of a project to a classpath file and a Java argument file.",
+                                "  --concurrency: The maximum number of dependency lookups to run at the same time. Defaults to 16. Use 1 to run lookups one at a time.",
+                                "  --profiler:    Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --verbose(v):  Whether or not to show verbose logs.",
+                                "  --help(?):     Show the help message for this application."
+                            ),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                    }
+                });
+            });
+
+            runner.testGroup("run(QubDependenciesClasspathParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesClasspath.run(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with no project.json", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    final QubDependenciesClasspathParameters parameters = new QubDependenciesClasspathParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(1, QubDependenciesClasspath.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Writing classpath for /project/...",
+                            "No project.json file found at /project/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no QUB_HOME environment variable", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final QubDependenciesClasspathParameters parameters = new QubDependenciesClasspathParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(1, QubDependenciesClasspath.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Writing classpath for /project/...",
+                            "Can't discover transitive dependencies if a QUB_HOME environment variable is not specified."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with transitive dependencies", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "2"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"),
+                                ProjectSignature.create("e", "f", "3"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesClasspathParameters parameters = new QubDependenciesClasspathParameters(output, verbose, folder, environmentVariables);
+
+                    test.assertEqual(0, QubDependenciesClasspath.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Writing classpath for /project/...",
+                            "Updated /project/outputs/qub-dependencies/classpath.txt.",
+                            "Updated /project/outputs/qub-dependencies/classpath.args."),
+                        Strings.getLines(output.getText().await()));
+                    final String expectedClasspath = "/project/outputs/:" +
+                        qubFolder.getCompiledSourcesFile("a", "b", "1").await() + ":" +
+                        qubFolder.getCompiledSourcesFile("c", "d", "2").await();
+                    test.assertEqual(
+                        expectedClasspath + "\n",
+                        folder.getFile("outputs/qub-dependencies/classpath.txt").await().getContentsAsString().await());
+                    test.assertEqual(
+                        "-classpath\n\"" + expectedClasspath + "\"\n",
+                        folder.getFile("outputs/qub-dependencies/classpath.args").await().getContentsAsString().await());
+
+                    final InMemoryCharacterToByteStream secondOutput = InMemoryCharacterToByteStream.create();
+                    test.assertEqual(0, QubDependenciesClasspath.run(new QubDependenciesClasspathParameters(secondOutput, verbose, folder, environmentVariables)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Writing classpath for /project/...",
+                            "No changes to /project/outputs/qub-dependencies/classpath.txt.",
+                            "No changes to /project/outputs/qub-dependencies/classpath.args."),
+                        Strings.getLines(secondOutput.getText().await()));
+                });
+
+                runner.test("with current dependencies.lock and no QUB_HOME environment variable", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                        .resolve(Iterable.create(ProjectSignature.create("a", "b", "1")));
+                    folder.setFileContentsAsString(QubDependenciesLock.lockFileName,
+                        QubDependenciesLock.create(qubFolder, dependencyGraph, projectJsonText, LookupRunner.create()).toString()).await();
+                    final QubDependenciesClasspathParameters parameters = new QubDependenciesClasspathParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(0, QubDependenciesClasspath.run(parameters));
+
+                    test.assertEqual(
+                        "/project/outputs/:" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "\n",
+                        folder.getFile("outputs/qub-dependencies/classpath.txt").await().getContentsAsString().await());
+                });
+            });
+
+            runner.testGroup("getPathSeparator(Folder)", () ->
+            {
+                runner.test("with Unix path", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    test.assertEqual(':', QubDependenciesClasspath.getPathSeparator(fileSystem.getFolder("/project/").await()));
+                });
+
+                runner.test("with Windows path", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("C:/").await();
+                    test.assertEqual(';', QubDependenciesClasspath.getPathSeparator(fileSystem.getFolder("C:/project/").await()));
+                });
+            });
+        });
+    }
+}
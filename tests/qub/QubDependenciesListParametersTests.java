@@ -65,6 +65,11 @@ public interface QubDependenciesListParametersTests
                     test.assertSame(verbose, parameters.getVerbose());
                     test.assertSame(folder, parameters.getFolder());
                     test.assertSame(environmentVariables, parameters.getEnvironmentVariables());
+                    test.assertNotNull(parameters.getLookupRunner());
+                    test.assertEqual(1, parameters.getLookupRunner().getConcurrency());
+                    test.assertNotNull(parameters.getFilter());
+                    test.assertFalse(parameters.getFilter().hasMaximumDepth());
+                    test.assertFalse(parameters.getSizes());
                 });
             });
         });
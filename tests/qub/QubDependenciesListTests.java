@@ -29,6 +29,57 @@ public interface QubDependenciesListTests
                     }
                 });
 
+                runner.test("with --depth=2", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--depth=2"))
+                    {
+                        final QubDependenciesListParameters parameters = QubDependenciesList.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(2, parameters.getFilter().getMaximumDepth());
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                    }
+                });
+
+                runner.test("with --depth=abc", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--depth=abc"))
+                    {
+                        test.assertNull(QubDependenciesList.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --depth value: \"abc\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with --depth=0", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--depth=0"))
+                    {
+                        test.assertNull(QubDependenciesList.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --depth value: \"0\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with invalid --depth and --concurrency", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--depth=-1", "--concurrency=x"))
+                    {
+                        test.assertNull(QubDependenciesList.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --concurrency value: \"x\". The value must be a positive integer.",
+                                "Invalid --depth value: \"-1\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
                 runner.test("with -?", (Test test) ->
                 {
                     try (final FakeDesktopProcess process = FakeDesktopProcess.create("-?"))
@@ -38,11 +89,16 @@ public interface QubDependenciesListTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: qub-dependencies list [--profiler] [--verbose] [--help]",
+                                "Usage: qub-dependencies list [--depth=<depth>] [--publisher=<publisher>] [--exclude=<exclude>] [--sizes] [--concurrency=<concurrency>] [--profiler] [--verbose] [--help]",
                                 "  List the dependencies of a project.",
-                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --verbose(v): Whether or not to show verbose logs.",
-                                "  --help(?):    Show the help message for this application."
+                                "  --depth:       The maximum depth of the dependency tree to resolve. Direct dependencies have a depth of 1.",
+                                "  --publisher:   A comma-separated list of the publishers whose dependencies will be resolved.",
+                                "  --exclude:     A comma-separated list of publisher/project dependencies that will not be resolved.",
+                                "  --sizes:       Whether or not to show the sizes of the dependencies' jar files.",
+                                "  --concurrency: The maximum number of dependency lookups to run at the same time. Defaults to 16. Use 1 to run lookups one at a time.",
+                                "  --profiler:    Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --verbose(v):  Whether or not to show verbose logs.",
+                                "  --help(?):     Show the help message for this application."
                             ),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
@@ -254,6 +310,45 @@ public interface QubDependenciesListTests
                         Strings.getLines(output.getText().await()));
                 });
 
+                runner.test("with project.json with current dependencies.lock and no QUB_HOME environment variable", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                        .resolve(Iterable.create(ProjectSignature.create("a", "b", "c")));
+                    folder.setFileContentsAsString(QubDependenciesLock.lockFileName,
+                        QubDependenciesLock.create(qubFolder, dependencyGraph, projectJsonText, LookupRunner.create()).toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables);
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c"),
+                        Strings.getLines(output.getText().await()));
+                });
+
                 runner.test("with project.json with two dependencies", (Test test) ->
                 {
                     final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
@@ -396,6 +491,54 @@ public interface QubDependenciesListTests
                         Strings.getLines(output.getText().await()));
                 });
 
+                runner.test("with project.json with dependency cycle", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("d", "e", "f"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("d", "e", "f").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("d")
+                            .setProject("e")
+                            .setVersion("f")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables);
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c",
+                            "    d/e@f",
+                            "      a/b@c (cycle)"),
+                        Strings.getLines(output.getText().await()));
+                });
+
                 runner.test("with project.json with two grandchild dependencies", (Test test) ->
                 {
                     final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
@@ -511,6 +654,231 @@ public interface QubDependenciesListTests
                             "  a/b@c - No Java Property"),
                         Strings.getLines(output.getText().await()));
                 });
+
+                runner.test("with depth filter", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("d", "e", "f"),
+                                    ProjectSignature.create("a", "h", "i"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("d", "e", "f").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("d")
+                            .setProject("e")
+                            .setVersion("f")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "h", "i").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("h")
+                            .setVersion("i")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("a", "j", "k"))))
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables)
+                        .setFilter(new QubDependencyFilter()
+                            .setMaximumDepth(2));
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c",
+                            "    d/e@f",
+                            "    a/h@i"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with publisher filter", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("d", "e", "f"),
+                                    ProjectSignature.create("a", "h", "i"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("d", "e", "f").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("d")
+                            .setProject("e")
+                            .setVersion("f")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "h", "i").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("h")
+                            .setVersion("i")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("a", "j", "k"))))
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables)
+                        .setFilter(new QubDependencyFilter()
+                            .addPublisher("a"));
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c",
+                            "    a/h@i",
+                            "      a/j@k - Not Found"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with sizes", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("d", "e", "f"))))
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("a", "b", "c").await().setContentsAsString("12345").await();
+                    qubFolder.getSourcesFile("a", "b", "c").await().setContentsAsString("1234567890").await();
+                    qubFolder.getProjectJSONFile("d", "e", "f").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("d")
+                            .setProject("e")
+                            .setVersion("f")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("d", "e", "f").await().setContentsAsString("123").await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables)
+                        .setSizes(true);
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c (compiled: 5 bytes, sources: 10 bytes)",
+                            "    d/e@f (compiled: 3 bytes, sources: missing)",
+                            "Transitive closure: 2 projects",
+                            "  Compiled sources: 8 bytes",
+                            "  Sources: 10 bytes"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with exclude filter", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "c").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("c")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("d", "e", "f"),
+                                    ProjectSignature.create("a", "h", "i"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("d", "e", "f").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("d")
+                            .setProject("e")
+                            .setVersion("f")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "h", "i").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("h")
+                            .setVersion("i")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("a", "j", "k"))))
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "c"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesListParameters parameters = new QubDependenciesListParameters(output, verbose, folder, environmentVariables)
+                        .setFilter(new QubDependencyFilter()
+                            .addExcludedProject("a/h"));
+
+                    test.assertEqual(0, QubDependenciesList.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Getting dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@c",
+                            "    d/e@f"),
+                        Strings.getLines(output.getText().await()));
+                });
             });
         });
     }
@@ -0,0 +1,208 @@
+package qub;
+
+public interface QubDependenciesLockTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesLock.class, () ->
+        {
+            final Function1<Test,QubFolder> createQubFolder = (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                fileSystem.createRoot("/").await();
+                final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                    ProjectJSON.create()
+                        .setPublisher("a")
+                        .setProject("b")
+                        .setVersion("1")
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("c", "d", "2"))))
+                    .toString()).await();
+                qubFolder.getCompiledSourcesFile("a", "b", "1").await().setContentsAsString("abc").await();
+                qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                    ProjectJSON.create()
+                        .setPublisher("c")
+                        .setProject("d")
+                        .setVersion("2")
+                        .setJava(ProjectJSONJava.create())
+                    .toString()).await();
+                qubFolder.getCompiledSourcesFile("c", "d", "2").await().setContentsAsString("defgh").await();
+                qubFolder.getSourcesFile("c", "d", "2").await().setContentsAsString("ij").await();
+                return qubFolder;
+            };
+
+            final Function2<QubFolder,String,QubDependenciesLock> createLock = (QubFolder qubFolder, String projectJsonText) ->
+            {
+                final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                    .resolve(Iterable.create(ProjectSignature.create("a", "b", "1")));
+                return QubDependenciesLock.create(qubFolder, dependencyGraph, projectJsonText, LookupRunner.create());
+            };
+
+            runner.testGroup("getHash(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesLock.getHash(null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertEqual("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", QubDependenciesLock.getHash(""));
+                });
+
+                runner.test("with \"abc\"", (Test test) ->
+                {
+                    test.assertEqual("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", QubDependenciesLock.getHash("abc"));
+                });
+            });
+
+            runner.testGroup("toHexString(byte[])", () ->
+            {
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertEqual("", QubDependenciesLock.toHexString(new byte[0]));
+                });
+
+                runner.test("with bytes", (Test test) ->
+                {
+                    test.assertEqual("000f10ff", QubDependenciesLock.toHexString(new byte[] { 0, 15, 16, -1 }));
+                });
+            });
+
+            runner.testGroup("create(QubFolder,QubDependencyGraph,String,LookupRunner)", () ->
+            {
+                runner.test("with resolved graph", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+
+                    test.assertEqual(QubDependenciesLock.getHash("{}"), lock.getProjectJsonHash());
+                    test.assertEqual(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2")),
+                        lock.getDependencyGraph().getTransitiveDependencies());
+
+                    test.assertNull(lock.getCompiledSourcesHash(0));
+
+                    final QubDependencyJarStatistics jarStatistics = lock.getJarStatistics();
+                    test.assertEqual(3L, jarStatistics.getCompiledSourcesByteCount(0));
+                    test.assertEqual(-1L, jarStatistics.getSourcesByteCount(0));
+                    test.assertEqual(5L, jarStatistics.getCompiledSourcesByteCount(1));
+                    test.assertEqual(2L, jarStatistics.getSourcesByteCount(1));
+                });
+
+                runner.test("with jar hash cache", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                        .resolve(Iterable.create(ProjectSignature.create("a", "b", "1")));
+                    final QubJarHashCache jarHashCache = QubJarHashCache.create(qubFolder);
+                    final QubDependenciesLock lock = QubDependenciesLock.create(qubFolder, dependencyGraph, "{}", LookupRunner.create(), jarHashCache);
+
+                    test.assertEqual(QubDependenciesLock.getHash("abc"), lock.getCompiledSourcesHash(0));
+                    test.assertNull(lock.getSourcesHash(0));
+                    test.assertEqual(QubDependenciesLock.getHash("defgh"), lock.getCompiledSourcesHash(1));
+                    test.assertEqual(QubDependenciesLock.getHash("ij"), lock.getSourcesHash(1));
+
+                    final QubDependenciesLock parsedLock = QubDependenciesLock.parse(JSON.parseObject(lock.toString()).await());
+                    test.assertEqual(lock.toString(), parsedLock.toString());
+                    test.assertEqual(QubDependenciesLock.getHash("abc"), parsedLock.getCompiledSourcesHash(0));
+                });
+            });
+
+            runner.testGroup("parse(JSONObject)", () ->
+            {
+                runner.test("with empty object", (Test test) ->
+                {
+                    test.assertNull(QubDependenciesLock.parse(JSONObject.create()));
+                });
+
+                runner.test("with invalid node", (Test test) ->
+                {
+                    test.assertNull(QubDependenciesLock.parse(JSONObject.create()
+                        .setString("projectJsonHash", "abc")
+                        .setArray("roots", JSONArray.create())
+                        .setArray("nodes", JSONArray.create()
+                            .add(JSONObject.create()))));
+                });
+
+                runner.test("with toJson() of a lock", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+
+                    final QubDependenciesLock parsedLock = QubDependenciesLock.parse(JSON.parseObject(lock.toString()).await());
+                    test.assertNotNull(parsedLock);
+                    test.assertEqual(lock.toString(), parsedLock.toString());
+                    test.assertEqual(1, parsedLock.getDependencyGraph().getRootCount());
+                    test.assertEqual(0, parsedLock.getDependencyGraph().getRoot(0));
+                    test.assertEqual(1, parsedLock.getDependencyGraph().getDependencyCount(0));
+                });
+            });
+
+            runner.testGroup("read(File)", () ->
+            {
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    test.assertNull(QubDependenciesLock.read(qubFolder.getFileSystem().getFile("/project/dependencies.lock").await()));
+                });
+
+                runner.test("with file that isn't JSON", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final File lockFile = qubFolder.getFileSystem().getFile("/project/dependencies.lock").await();
+                    lockFile.setContentsAsString("not json").await();
+                    test.assertNull(QubDependenciesLock.read(lockFile));
+                });
+            });
+
+            runner.testGroup("isCurrent(String,FileSystem,LookupRunner)", () ->
+            {
+                runner.test("with unchanged project.json and jar files", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+                    test.assertTrue(lock.isCurrent("{}", qubFolder.getFileSystem(), LookupRunner.create()));
+                });
+
+                runner.test("with changed project.json", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+                    test.assertFalse(lock.isCurrent("{ }", qubFolder.getFileSystem(), LookupRunner.create()));
+                });
+
+                runner.test("with deleted jar file", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+                    qubFolder.getCompiledSourcesFile("c", "d", "2").await().delete().await();
+                    test.assertFalse(lock.isCurrent("{}", qubFolder.getFileSystem(), LookupRunner.create()));
+                });
+
+                runner.test("with jar file whose size changed", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+                    qubFolder.getCompiledSourcesFile("c", "d", "2").await().setContentsAsString("defghi").await();
+                    test.assertFalse(lock.isCurrent("{}", qubFolder.getFileSystem(), LookupRunner.create()));
+                });
+
+                runner.test("with added jar file", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test);
+                    final QubDependenciesLock lock = createLock.run(qubFolder, "{}");
+                    qubFolder.getSourcesFile("a", "b", "1").await().setContentsAsString("xyz").await();
+                    test.assertFalse(lock.isCurrent("{}", qubFolder.getFileSystem(), LookupRunner.create()));
+                });
+            });
+        });
+    }
+}
@@ -39,8 +39,11 @@ public interface QubDependenciesTests
                                 "  --help(?):   Show the help message for this application.",
                                 "",
                                 "Actions:",
-                                "  list:   List the dependencies of a project.",
-                                "  update: Update the dependencies of a project."),
+                                "  cds:       Create a class data sharing archive for the runtime classpath of a project.",
+                                "  classpath: Write the runtime classpath of a project to a classpath file and a Java argument file.",
+                                "  list:      List the dependencies of a project.",
+                                "  unused:    Find the dependencies of a project that its compiled classes don't use.",
+                                "  update:    Update the dependencies of a project."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                         test.assertEqual(-1, process.getExitCode());
                     }
@@ -60,13 +63,153 @@ public interface QubDependenciesTests
                                 "  --help(?):   Show the help message for this application.",
                                 "",
                                 "Actions:",
-                                "  list:   List the dependencies of a project.",
-                                "  update: Update the dependencies of a project."),
+                                "  cds:       Create a class data sharing archive for the runtime classpath of a project.",
+                                "  classpath: Write the runtime classpath of a project to a classpath file and a Java argument file.",
+                                "  list:      List the dependencies of a project.",
+                                "  unused:    Find the dependencies of a project that its compiled classes don't use.",
+                                "  update:    Update the dependencies of a project."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                         test.assertEqual(-1, process.getExitCode());
                     }
                 });
             });
+
+            runner.testGroup("parsePositiveInteger(DesktopProcess,String,String,int)", () ->
+            {
+                runner.test("with null text", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertEqual(7, QubDependencies.parsePositiveInteger(process, "count", null, 7));
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                    }
+                });
+
+                runner.test("with positive integer", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertEqual(12, QubDependencies.parsePositiveInteger(process, "count", " 12 ", 7));
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                    }
+                });
+
+                runner.test("with text that isn't an integer", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertNull(QubDependencies.parsePositiveInteger(process, "count", "abc", 7));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --count value: \"abc\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with zero", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertNull(QubDependencies.parsePositiveInteger(process, "count", "0", 7));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with negative integer", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertNull(QubDependencies.parsePositiveInteger(process, "count", "-3", 7));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+            });
+
+            runner.testGroup("getDiskPath(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependencies.getDiskPath(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with in-memory file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    test.assertNull(QubDependencies.getDiskPath(fileSystem.getFile("/a.txt").await()));
+                });
+            });
+
+            runner.testGroup("writeIfChanged(File,String)", () ->
+            {
+                final Function1<Test,Folder> createFolder = (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    return fileSystem.getFolder("/project/").await();
+                };
+
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependencies.writeIfChanged(null, "hello"),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with null contents", (Test test) ->
+                {
+                    final File file = createFolder.run(test).getFile("a.txt").await();
+                    test.assertThrows(() -> QubDependencies.writeIfChanged(file, null),
+                        new PreConditionFailure("contents cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File file = folder.getFile("a.txt").await();
+                    test.assertTrue(QubDependencies.writeIfChanged(file, "hello"));
+                    test.assertEqual("hello", file.getContentsAsString().await());
+                    test.assertFalse(folder.fileExists("a.txt.tmp").await());
+                });
+
+                runner.test("with existing file with the same contents", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File file = folder.getFile("a.txt").await();
+                    file.setContentsAsString("hello").await();
+                    test.assertFalse(QubDependencies.writeIfChanged(file, "hello"));
+                    test.assertEqual("hello", file.getContentsAsString().await());
+                    test.assertFalse(folder.fileExists("a.txt.tmp").await());
+                });
+
+                runner.test("with existing file with different contents", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File file = folder.getFile("a.txt").await();
+                    file.setContentsAsString("hello").await();
+                    test.assertTrue(QubDependencies.writeIfChanged(file, "there"));
+                    test.assertEqual("there", file.getContentsAsString().await());
+                    test.assertFalse(folder.fileExists("a.txt.tmp").await());
+                });
+
+                runner.test("with existing file with the same contents keeps its last modified time", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(clock);
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/project/a.txt").await();
+                    file.setContentsAsString("hello").await();
+                    final DateTime lastModified = file.getLastModified().await();
+
+                    clock.advance(Duration.minutes(1));
+                    test.assertFalse(QubDependencies.writeIfChanged(file, "hello"));
+                    test.assertEqual(lastModified, file.getLastModified().await());
+
+                    test.assertTrue(QubDependencies.writeIfChanged(file, "there"));
+                    test.assertNotEqual(lastModified, file.getLastModified().await());
+                });
+            });
         });
     }
 }
@@ -0,0 +1,315 @@
+package qub;
+
+public interface QubDependenciesUnusedTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesUnused.class, () ->
+        {
+            runner.testGroup("getParameters(Process)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUnused.getParameters(null),
+                        new PreConditionFailure("process cannot be null."));
+                });
+
+                runner.test("with no arguments", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesUnusedParameters parameters = QubDependenciesUnused.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutput());
+                        test.assertEqual("", process.getOutputWriteStream().getText().await());
+                        test.assertNotNull(parameters.getVerbose());
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolder());
+                    }
+                });
+
+                runner.test("with -?", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("-?"))
+                    {
+                        final QubDependenciesUnusedParameters parameters = QubDependenciesUnused.getParameters(process);
+                        test.assertNull(parameters);
+
+                        test.assertEqual(
+                            Iterable.create(
+                                "Usage: qub-dependencies unused [--concurrency=<concurrency>] [--profiler] [--verbose] [--help]",
+                                "  Find the dependencies of a project that its compiled classes don't use.",
+                                "  --concurrency: The maximum number of dependency lookups to run at the same time. Defaults to 16. Use 1 to run lookups one at a time.",
+                                "  --profiler:    Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --verbose(v):  Whether or not to show verbose logs.",
+                                "  --help(?):     Show the help message for this application."
+                            ),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                    }
+                });
+            });
+
+            runner.testGroup("run(QubDependenciesUnusedParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUnused.run(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with no project.json", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(1, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "No project.json file found at /project/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no dependencies", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(0, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "No dependencies found in /project/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no compiled classes", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(1, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "No classes compiled from /project/sources/ found in /project/outputs/."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with no QUB_HOME environment variable", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    folder.getFile("outputs/p/Main.class").await().setContents(QubClassReferencesTests.createClassFile("p/Main")).await();
+                    folder.createFile("sources/p/Main.java").await();
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(1, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "Can't discover transitive dependencies if a QUB_HOME environment variable is not specified."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with unused and transitive dependencies", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "2"))))
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("a", "b", "1").await().setContents(QubClassReferencesTests.createJar("a/B.class")).await();
+                    qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("c", "d", "2").await().setContents(QubClassReferencesTests.createJar("c/D.class")).await();
+                    qubFolder.getProjectJSONFile("e", "f", "3").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("e")
+                            .setProject("f")
+                            .setVersion("3")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("e", "f", "3").await().setContents(QubClassReferencesTests.createJar("e/F.class")).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"),
+                                ProjectSignature.create("e", "f", "3"))))
+                        .toString()).await();
+                    folder.getFile("outputs/p/Main.class").await().setContents(QubClassReferencesTests.createClassFile("p/Main", "java/lang/Object", "c/D")).await();
+                    folder.getFile("outputs/p/Helper.class").await().setContents(QubClassReferencesTests.createClassFile("p/Helper", "[Le/F;")).await();
+                    folder.getFile("outputs/p/MainTests.class").await().setContents(QubClassReferencesTests.createClassFile("p/MainTests", "a/B")).await();
+                    folder.createFile("sources/p/Main.java").await();
+                    folder.createFile("sources/p/Helper.java").await();
+                    folder.createFile("tests/p/MainTests.java").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, environmentVariables);
+
+                    test.assertEqual(0, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "Found 1 unused dependency:",
+                            "  a/b@1",
+                            "Found 1 transitive dependency that is referenced directly:",
+                            "  c/d@2"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with all dependencies used", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("a", "b", "1").await().setContents(QubClassReferencesTests.createJar("a/B.class")).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final QubDependencyGraph dependencyGraph = new QubDependencyResolver(qubFolder)
+                        .resolve(Iterable.create(ProjectSignature.create("a", "b", "1")));
+                    folder.setFileContentsAsString(QubDependenciesLock.lockFileName,
+                        QubDependenciesLock.create(qubFolder, dependencyGraph, projectJsonText, LookupRunner.create()).toString()).await();
+                    folder.getFile("outputs/p/Main.class").await().setContents(QubClassReferencesTests.createClassFile("p/Main")).await();
+                    folder.getFile("outputs/p/Main$Inner.class").await().setContents(QubClassReferencesTests.createClassFile("p/Main$Inner", "a/B")).await();
+                    folder.createFile("sources/p/Main.java").await();
+                    final QubDependenciesUnusedParameters parameters = new QubDependenciesUnusedParameters(output, verbose, folder, EnvironmentVariables.create());
+
+                    test.assertEqual(0, QubDependenciesUnused.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Finding unused dependencies of /project/...",
+                            "No unused dependencies found.",
+                            "No transitive dependencies are referenced directly."),
+                        Strings.getLines(output.getText().await()));
+                });
+            });
+
+            runner.testGroup("getSourceClassFiles(Folder,Folder)", () ->
+            {
+                runner.test("with no sources folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.createFile("outputs/p/Main.class").await();
+
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubDependenciesUnused.getSourceClassFiles(folder.getFolder("sources").await(), folder.getFolder("outputs").await()));
+                });
+
+                runner.test("with source, nested, and test classes", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.createFile("sources/p/Main.java").await();
+                    folder.createFile("tests/p/MainTests.java").await();
+                    folder.createFile("outputs/p/Main.class").await();
+                    folder.createFile("outputs/p/Main$Inner.class").await();
+                    folder.createFile("outputs/p/MainTests.class").await();
+                    folder.createFile("outputs/p/MainTests$1.class").await();
+                    folder.createFile("outputs/Main.class").await();
+
+                    final Iterable<File> classFiles = QubDependenciesUnused.getSourceClassFiles(folder.getFolder("sources").await(), folder.getFolder("outputs").await());
+                    test.assertEqual(2, classFiles.getCount());
+                    test.assertTrue(classFiles.contains(folder.getFile("outputs/p/Main.class").await()));
+                    test.assertTrue(classFiles.contains(folder.getFile("outputs/p/Main$Inner.class").await()));
+                });
+            });
+
+            runner.testGroup("getReferencedClassCounts(FileSystem,String[],Set<String>,LookupRunner,VerboseCharacterToByteWriteStream)", () ->
+            {
+                runner.test("with class defined by several jar files", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    fileSystem.getFile("/b.jar").await().setContents(QubClassReferencesTests.createJar("a/B.class", "x/Shared.class")).await();
+                    fileSystem.getFile("/d.jar").await().setContents(QubClassReferencesTests.createJar("c/D.class", "x/Shared.class")).await();
+                    final Set<String> referencedClassNames = Set.create();
+                    referencedClassNames.add("x/Shared");
+
+                    final int[] referencedClassCounts = QubDependenciesUnused.getReferencedClassCounts(
+                        fileSystem,
+                        new String[] { "/b.jar", null, "/d.jar" },
+                        referencedClassNames,
+                        LookupRunner.create(),
+                        verbose);
+                    test.assertEqual(3, referencedClassCounts.length);
+                    test.assertEqual(1, referencedClassCounts[0]);
+                    test.assertEqual(0, referencedClassCounts[1]);
+                    test.assertEqual(1, referencedClassCounts[2]);
+                });
+            });
+        });
+    }
+}
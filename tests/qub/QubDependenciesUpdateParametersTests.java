@@ -65,6 +65,22 @@ public interface QubDependenciesUpdateParametersTests
                     test.assertSame(verbose, parameters.getVerbose());
                     test.assertSame(folder, parameters.getFolder());
                     test.assertSame(environmentVariables, parameters.getEnvironmentVariables());
+                    test.assertNotNull(parameters.getLookupRunner());
+                    test.assertEqual(1, parameters.getLookupRunner().getConcurrency());
+                    test.assertFalse(parameters.getTransitive());
+                    test.assertFalse(parameters.getDryRun());
+                    test.assertFalse(parameters.getJson());
+                    test.assertFalse(parameters.getRequireTestMethod());
+                    test.assertNotNull(parameters.getFileFinder());
+                    test.assertFalse(parameters.getRecursive());
+                    test.assertFalse(parameters.getLock());
+                    test.assertFalse(parameters.getVerify());
+                    test.assertFalse(parameters.getClasspath());
+                    test.assertEqual(Iterable.create(), parameters.getProjectFolders());
+                    test.assertNotNull(parameters.getProjectLookupRunner());
+                    test.assertNull(parameters.getLatestVersionCache());
+                    test.assertNull(parameters.getDependencyResolver());
+                    test.assertNull(parameters.getJarHashCache());
                 });
             });
         });
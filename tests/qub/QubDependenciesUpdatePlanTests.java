@@ -0,0 +1,170 @@
+package qub;
+
+public interface QubDependenciesUpdatePlanTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependenciesUpdatePlan.class, () ->
+        {
+            runner.test("constructor()", (Test test) ->
+            {
+                final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                test.assertNull(plan.getProjectJsonPath());
+                test.assertEqual(Iterable.create(), plan.getDependencies());
+                test.assertFalse(plan.getDependenciesChanged());
+                test.assertEqual(Iterable.create(), plan.getModuleChanges());
+                test.assertNull(plan.getWorkspaceChanges());
+                test.assertFalse(plan.hasChanges());
+            });
+
+            runner.testGroup("setDependencies(String,Iterable<ProjectSignature>,boolean)", () ->
+            {
+                runner.test("with null projectJsonPath", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertThrows(() -> plan.setDependencies(null, Iterable.create(), false),
+                        new PreConditionFailure("projectJsonPath cannot be null."));
+                });
+
+                runner.test("with null dependencies", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertThrows(() -> plan.setDependencies("/project/project.json", null, false),
+                        new PreConditionFailure("dependencies cannot be null."));
+                });
+
+                runner.test("with unchanged dependencies", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertSame(plan, plan.setDependencies("/project/project.json", Iterable.create(ProjectSignature.create("a", "b", "1")), false));
+                    test.assertEqual("/project/project.json", plan.getProjectJsonPath());
+                    test.assertEqual(Iterable.create(ProjectSignature.create("a", "b", "1")), plan.getDependencies());
+                    test.assertFalse(plan.getDependenciesChanged());
+                    test.assertFalse(plan.hasChanges());
+                });
+
+                runner.test("with changed dependencies", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertSame(plan, plan.setDependencies("/project/project.json", Iterable.create(ProjectSignature.create("a", "b", "2")), true));
+                    test.assertTrue(plan.getDependenciesChanged());
+                    test.assertTrue(plan.hasChanges());
+                });
+            });
+
+            runner.testGroup("addModuleChanges(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertThrows(() -> plan.addModuleChanges(null),
+                        new PreConditionFailure("modulePath cannot be null."));
+                });
+
+                runner.test("with no changes", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    final QubDependenciesUpdatePlan.FileChanges moduleChanges = plan.addModuleChanges("/project/project.iml");
+                    test.assertEqual("/project/project.iml", moduleChanges.getPath());
+                    test.assertFalse(moduleChanges.hasChanges());
+                    test.assertEqual(Iterable.create(moduleChanges), plan.getModuleChanges());
+                    test.assertFalse(plan.hasChanges());
+                });
+
+                runner.test("with changes", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    final QubDependenciesUpdatePlan.FileChanges moduleChanges = plan.addModuleChanges("/project/project.iml")
+                        .add(ProjectSignature.create("a", "b", "1"))
+                        .remove(ProjectSignature.create("c", "d", "2"))
+                        .update(ProjectSignature.create("e", "f", "3"), ProjectSignature.create("e", "f", "4"));
+                    test.assertEqual(Iterable.create("a/b@1"), moduleChanges.getAdded());
+                    test.assertEqual(Iterable.create("c/d@2"), moduleChanges.getRemoved());
+                    test.assertEqual(Iterable.create("e/f@3"), moduleChanges.getUpdatedFrom());
+                    test.assertEqual(Iterable.create("e/f@4"), moduleChanges.getUpdatedTo());
+                    test.assertTrue(moduleChanges.hasChanges());
+                    test.assertTrue(plan.hasChanges());
+                });
+            });
+
+            runner.testGroup("addCompletedModuleChanges(QubDependenciesUpdatePlan.FileChanges)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertThrows(() -> plan.addCompletedModuleChanges(null),
+                        new PreConditionFailure("moduleChanges cannot be null."));
+                });
+
+                runner.test("with changes", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    final QubDependenciesUpdatePlan.FileChanges moduleChanges = new QubDependenciesUpdatePlan.FileChanges("/project/project.iml")
+                        .add(ProjectSignature.create("a", "b", "1"));
+                    test.assertSame(plan, plan.addCompletedModuleChanges(moduleChanges));
+                    test.assertEqual(Iterable.create(moduleChanges), plan.getModuleChanges());
+                    test.assertTrue(plan.hasChanges());
+                });
+            });
+
+            runner.testGroup("setWorkspaceChanges(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    test.assertThrows(() -> plan.setWorkspaceChanges(null),
+                        new PreConditionFailure("workspacePath cannot be null."));
+                });
+
+                runner.test("with added run configuration", (Test test) ->
+                {
+                    final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan();
+                    final QubDependenciesUpdatePlan.FileChanges workspaceChanges = plan.setWorkspaceChanges("/project/.idea/workspace.xml");
+                    test.assertSame(workspaceChanges, plan.getWorkspaceChanges());
+                    test.assertFalse(plan.hasChanges());
+
+                    workspaceChanges.add("my.CodeTests");
+                    test.assertTrue(plan.hasChanges());
+                });
+            });
+
+            runner.test("toJson()", (Test test) ->
+            {
+                final QubDependenciesUpdatePlan plan = new QubDependenciesUpdatePlan()
+                    .setDependencies("/project/project.json", Iterable.create(ProjectSignature.create("a", "b", "2")), true);
+                plan.addModuleChanges("/project/project.iml")
+                    .update(ProjectSignature.create("a", "b", "1"), ProjectSignature.create("a", "b", "2"));
+                plan.setWorkspaceChanges("/project/.idea/workspace.xml")
+                    .remove("my.OldTests");
+
+                test.assertEqual(
+                    JSONObject.create()
+                        .setBoolean("hasChanges", true)
+                        .setObject("projectJson", JSONObject.create()
+                            .setString("path", "/project/project.json")
+                            .setBoolean("changed", true)
+                            .setArray("dependencies", JSONArray.create()
+                                .add(JSONString.get("a/b@2"))))
+                        .setArray("modules", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", "/project/project.iml")
+                                .setArray("added", JSONArray.create())
+                                .setArray("removed", JSONArray.create())
+                                .setArray("updated", JSONArray.create()
+                                    .add(JSONObject.create()
+                                        .setString("from", "a/b@1")
+                                        .setString("to", "a/b@2")))))
+                        .setObject("workspace", JSONObject.create()
+                            .setString("path", "/project/.idea/workspace.xml")
+                            .setArray("added", JSONArray.create())
+                            .setArray("removed", JSONArray.create()
+                                .add(JSONString.get("my.OldTests")))
+                            .setArray("updated", JSONArray.create()))
+                        .toString(),
+                    plan.toString());
+            });
+        });
+    }
+}
@@ -26,6 +26,43 @@ public interface QubDependenciesUpdateTests
                         test.assertEqual("", process.getOutputWriteStream().getText().await());
                         test.assertNotNull(parameters.getVerbose());
                         test.assertEqual(process.getCurrentFolder(), parameters.getFolder());
+                        test.assertTrue(parameters.getFileFinder().getWriteListingCache());
+                        test.assertFalse(parameters.getFileFinder().hasMaximumDepth());
+                    }
+                });
+
+                runner.test("with --search-depth=2", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--search-depth=2"))
+                    {
+                        final QubDependenciesUpdateParameters parameters = QubDependenciesUpdate.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(2, parameters.getFileFinder().getMaximumDepth());
+                    }
+                });
+
+                runner.test("with --search-depth=0", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--search-depth=0"))
+                    {
+                        test.assertNull(QubDependenciesUpdate.getParameters(process));
+                        test.assertEqual(
+                            Iterable.create(
+                                "Invalid --search-depth value: \"0\". The value must be a positive integer."),
+                            Strings.getLines(process.getOutputWriteStream().getText().await()));
+                        test.assertEqual(1, process.getExitCode());
+                    }
+                });
+
+                runner.test("with --dry-run", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--dry-run"))
+                    {
+                        final QubDependenciesUpdateParameters parameters = QubDependenciesUpdate.getParameters(process);
+                        test.assertNotNull(parameters);
+                        test.assertTrue(parameters.getDryRun());
+                        test.assertFalse(parameters.getFileFinder().getWriteListingCache());
+                        test.assertNotNull(parameters.getFileFinder().getListingCacheFile());
                     }
                 });
 
@@ -38,12 +75,24 @@ public interface QubDependenciesUpdateTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: qub-dependencies update [--intellij] [--profiler] [--verbose] [--help]",
+                                "Usage: qub-dependencies update [--intellij] [--transitive] [--dry-run] [--json] [--ignore=<ignore>] [--search-depth=<search-depth>] [--require-test-method] [--recursive] [--projects=<projects>] [--lock] [--verify] [--classpath] [--concurrency=<concurrency>] [--profiler] [--verbose] [--help]",
                                 "  Update the dependencies of a project.",
-                                "  --intellij:   Whether or not to update IntelliJ project files.",
-                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --verbose(v): Whether or not to show verbose logs.",
-                                "  --help(?):    Show the help message for this application."
+                                "  --intellij:            Whether or not to update IntelliJ project files.",
+                                "  --transitive:          Whether or not to report the updates that are available for indirect dependencies.",
+                                "  --dry-run:             Whether or not to only report the changes that would be made without changing any files.",
+                                "  --json:                Whether or not to write the changes as a JSON object instead of as a log.",
+                                "  --ignore:              A comma-separated list of .gitignore-style patterns for the folders that won't be searched for IntelliJ module files.",
+                                "  --search-depth:        The number of folder levels below the project folder that are searched for IntelliJ module files. The tests folder is always searched completely. Defaults to no limit.",
+                                "  --require-test-method: Whether or not to only create run configurations for test classes that declare a static void test(TestRunner) method.",
+                                "  --recursive:           Whether or not to update every project under the current folder that has a project.json file.",
+                                "  --projects:            A comma-separated list of the project folders to update instead of the current folder.",
+                                "  --lock:                Whether or not to write a dependencies.lock file next to the project.json file.",
+                                "  --verify:              Whether or not to only check that the dependencies.lock file is current instead of updating the project.",
+                                "  --classpath:           Whether or not to write the project's runtime classpath to a classpath file and a Java argument file.",
+                                "  --concurrency:         The maximum number of dependency lookups to run at the same time. Defaults to 16. Use 1 to run lookups one at a time.",
+                                "  --profiler:            Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --verbose(v):          Whether or not to show verbose logs.",
+                                "  --help(?):             Show the help message for this application."
                             ),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
@@ -420,6 +469,313 @@ public interface QubDependenciesUpdateTests
                         ProjectJSON.parse(folder.getFile("project.json").await()).await());
                 });
 
+                runner.test("with project.json with --transitive=true and stale indirect dependency", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "1"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "2"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("c", "d", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setTransitive(true);
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - Updated to a/b@2",
+                            "Found 1 transitive dependency:",
+                            "  c/d@1 - Stale, latest is c/d@2, pulled forward by a/b@2 (c/d@2)"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with --dry-run=true and one out-of-date dependency", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setDryRun(true);
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - Updated to a/b@2",
+                            "Dry run: changes were found, but no files were changed."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(projectJsonText, folder.getFileContentsAsString("project.json").await());
+                });
+
+                runner.test("with project.json with --dry-run=true, --json=true and one out-of-date dependency", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setDryRun(true)
+                        .setJson(true);
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setBoolean("hasChanges", true)
+                            .setObject("projectJson", JSONObject.create()
+                                .setString("path", "/project/project.json")
+                                .setBoolean("changed", true)
+                                .setArray("dependencies", JSONArray.create()
+                                    .add(JSONString.get("a/b@2"))))
+                            .setArray("modules", JSONArray.create())
+                            .toString(),
+                        JSON.parseObject(output.getText().await()).await().toString());
+                    test.assertEqual(projectJsonText, folder.getFileContentsAsString("project.json").await());
+                });
+
+                runner.test("with project.json with --lock=true and then --verify=true", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    qubFolder.getCompiledSourcesFile("a", "b", "1").await().setContentsAsString("abc").await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setLock(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - No updates",
+                            "Updated /project/dependencies.lock."),
+                        Strings.getLines(output.getText().await()));
+                    final QubDependenciesLock lock = QubDependenciesLock.read(folder.getFile("dependencies.lock").await());
+                    test.assertNotNull(lock);
+                    test.assertEqual(
+                        Iterable.create(ProjectSignature.create("a", "b", "1")),
+                        lock.getDependencyGraph().getTransitiveDependencies());
+
+                    final InMemoryCharacterToByteStream verifyOutput = InMemoryCharacterToByteStream.create();
+                    test.assertEqual(0, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(verifyOutput, verbose, folder, environmentVariables)
+                        .setVerify(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Verifying dependencies for /project/...",
+                            "/project/dependencies.lock is up to date."),
+                        Strings.getLines(verifyOutput.getText().await()));
+
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final InMemoryCharacterToByteStream outOfDateOutput = InMemoryCharacterToByteStream.create();
+                    test.assertEqual(1, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(outOfDateOutput, verbose, folder, environmentVariables)
+                        .setVerify(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Verifying dependencies for /project/...",
+                            "/project/dependencies.lock is out of date."),
+                        Strings.getLines(outOfDateOutput.getText().await()));
+                });
+
+                runner.test("with project.json with --classpath=true", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setClasspath(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /project/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - No updates",
+                            "Updated /project/outputs/qub-dependencies/classpath.txt.",
+                            "Updated /project/outputs/qub-dependencies/classpath.args."),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(
+                        "/project/outputs/:" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "\n",
+                        folder.getFile("outputs/qub-dependencies/classpath.txt").await().getContentsAsString().await());
+                });
+
+                runner.test("with project.json with --verify=true and no dependencies.lock file", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+
+                    test.assertEqual(1, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setVerify(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Verifying dependencies for /project/...",
+                            "No valid dependencies.lock file found at /project/dependencies.lock."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with --verify=true and --projects", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/workspace/").await();
+                    final Folder aFolder = folder.createFolder("a").await();
+                    aFolder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder bFolder = folder.createFolder("b").await();
+
+                    test.assertEqual(1, QubDependenciesUpdate.run(new QubDependenciesUpdateParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setVerify(true)
+                        .addProjectFolder(aFolder)
+                        .addProjectFolder(bFolder)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Verifying dependencies for /workspace/a/...",
+                            "No valid dependencies.lock file found at /workspace/a/dependencies.lock.",
+                            "Verifying dependencies for /workspace/b/...",
+                            "No project.json file found at /workspace/b/project.json."),
+                        Strings.getLines(output.getText().await()));
+                });
+
                 runner.test("with project.json with --intellij=false and one up-to-date dependency", (Test test) ->
                 {
                     final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
@@ -1697,7 +2053,7 @@ public interface QubDependenciesUpdateTests
                         folder.getFileContentsAsString(".idea/project.iml").await());
                 });
 
-                runner.test("with project.json with --intellij=true, no dependencies, and workspace.xml file", (Test test) ->
+                runner.test("with project.json with --intellij=true and several IntelliJ project files on a parallel LookupRunner", (Test test) ->
                 {
                     final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
                     final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
@@ -1705,17 +2061,277 @@ public interface QubDependenciesUpdateTests
                     fileSystem.createRoot("/").await();
                     final Folder rootFolder = fileSystem.getFolder("/").await();
                     final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
-                    qubFolder.getProjectJSONFile("qub", "test-java", "2").await().setContentsAsString(
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().setContentsAsString(
                         ProjectJSON.create()
-                            .setPublisher("qub")
-                            .setProject("test-java")
+                            .setPublisher("a")
+                            .setProject("b")
                             .setVersion("2")
                             .setJava(ProjectJSONJava.create())
                         .toString()).await();
                     final Folder folder = rootFolder.createFolder("project/").await();
                     folder.setFileContentsAsString("project.json", ProjectJSON.create()
-                        .setPublisher("x")
-                        .setProject("y")
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "2"))))
+                        .toString()).await();
+                    final int moduleCount = 8;
+                    for (int i = 0; i < moduleCount; ++i)
+                    {
+                        folder.setFileContentsAsString("module" + i + ".iml", i % 2 == 0
+                            ? XMLDocument.create().setRoot(XMLElement.create("foo")).toString()
+                            : XMLDocument.create()
+                                .setDeclaration(XMLDeclaration.create()
+                                    .setVersion("1.0")
+                                    .setEncoding("UTF-8"))
+                                .setRoot(XMLElement.create("module")
+                                    .addChild(XMLElement.create("component")
+                                        .addChild(XMLElement.create("orderEntry")
+                                            .setAttribute("type", "module-library")
+                                            .addChild(XMLElement.create("library")
+                                                .addChild(XMLElement.create("CLASSES")
+                                                    .addChild(XMLElement.create("root")
+                                                        .setAttribute("url", "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "!/")))))))
+                                .toString(XMLFormat.pretty)).await();
+                    }
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                            .setIntellij(true)
+                            .setLookupRunner(LookupRunner.create(process.getParallelAsyncRunner(), 4));
+
+                        test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+                    }
+
+                    final List<String> expectedLines = List.create(
+                        "Updating dependencies for /project/...",
+                        "Found 1 dependency:",
+                        "  a/b@2 - No updates",
+                        "Updating IntelliJ module files...");
+                    for (int i = 0; i < moduleCount; ++i)
+                    {
+                        expectedLines.add(i % 2 == 0
+                            ? "  Invalid Intellij Module file: /project/module" + i + ".iml"
+                            : "  a/b@1 - Updated to a/b@2");
+                    }
+                    test.assertEqual(expectedLines, Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project.json with --intellij=true, --dry-run=true, --json=true, and several IntelliJ project files on a parallel LookupRunner", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "2"))))
+                        .toString()).await();
+                    final int moduleCount = 8;
+                    final JSONArray expectedModules = JSONArray.create();
+                    for (int i = 0; i < moduleCount; ++i)
+                    {
+                        folder.setFileContentsAsString("module" + i + ".iml", XMLDocument.create()
+                            .setDeclaration(XMLDeclaration.create()
+                                .setVersion("1.0")
+                                .setEncoding("UTF-8"))
+                            .setRoot(XMLElement.create("module")
+                                .addChild(XMLElement.create("component")
+                                    .addChild(XMLElement.create("orderEntry")
+                                        .setAttribute("type", "module-library")
+                                        .addChild(XMLElement.create("library")
+                                            .addChild(XMLElement.create("CLASSES")
+                                                .addChild(XMLElement.create("root")
+                                                    .setAttribute("url", "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "!/")))))))
+                            .toString(XMLFormat.pretty)).await();
+                        expectedModules.add(JSONObject.create()
+                            .setString("path", "/project/module" + i + ".iml")
+                            .setArray("added", JSONArray.create())
+                            .setArray("removed", JSONArray.create())
+                            .setArray("updated", JSONArray.create()
+                                .add(JSONObject.create()
+                                    .setString("from", "a/b@1")
+                                    .setString("to", "a/b@2"))));
+                    }
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                            .setIntellij(true)
+                            .setDryRun(true)
+                            .setJson(true)
+                            .setLookupRunner(LookupRunner.create(process.getParallelAsyncRunner(), 4));
+
+                        test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+                    }
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setBoolean("hasChanges", true)
+                            .setObject("projectJson", JSONObject.create()
+                                .setString("path", "/project/project.json")
+                                .setBoolean("changed", false)
+                                .setArray("dependencies", JSONArray.create()
+                                    .add(JSONString.get("a/b@2"))))
+                            .setArray("modules", expectedModules)
+                            .toString(),
+                        JSON.parseObject(output.getText().await()).await().toString());
+                });
+
+                runner.test("with project.json with --intellij=true, --dry-run=true, --json=true, out-of-date dependency, and workspace.xml file", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    for (final String version : Iterable.create("1", "2"))
+                    {
+                        qubFolder.getProjectJSONFile("a", "b", version).await().setContentsAsString(
+                            ProjectJSON.create()
+                                .setPublisher("a")
+                                .setProject("b")
+                                .setVersion(version)
+                                .setJava(ProjectJSONJava.create())
+                            .toString()).await();
+                    }
+                    qubFolder.getProjectJSONFile("qub", "test-java", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("qub")
+                            .setProject("test-java")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    final String projectJsonText = ProjectJSON.create()
+                        .setPublisher("x")
+                        .setProject("y")
+                        .setVersion("3")
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", projectJsonText).await();
+                    final String intellijModuleText = XMLDocument.create()
+                        .setDeclaration(XMLDeclaration.create()
+                            .setVersion("1.0")
+                            .setEncoding("UTF-8"))
+                        .setRoot(XMLElement.create("module")
+                            .addChild(XMLElement.create("component")
+                                .addChild(XMLElement.create("orderEntry")
+                                    .setAttribute("type", "module-library")
+                                    .addChild(XMLElement.create("library")
+                                        .addChild(XMLElement.create("CLASSES")
+                                            .addChild(XMLElement.create("root")
+                                                .setAttribute("url", "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "!/")))))))
+                        .toString(XMLFormat.pretty);
+                    folder.setFileContentsAsString("project.iml", intellijModuleText).await();
+                    final String intellijWorkspaceText = XMLDocument.create()
+                        .setDeclaration(XMLDeclaration.create()
+                            .setVersion("1.0")
+                            .setEncoding("UTF-8"))
+                        .setRoot(XMLElement.create("project")
+                            .addChild(XMLElement.create("component")
+                                .setAttribute("name", "RunManager")
+                                .addChild(XMLElement.create("configuration")
+                                    .setAttribute("type", "Application")
+                                    .setAttribute("factoryName", "Application")
+                                    .setAttribute("name", "my.CodeTests")
+                                    .addChild(XMLElement.create("method")
+                                        .setAttribute("v", "2")
+                                        .addChild(XMLElement.create("option")
+                                            .setAttribute("name", "Make")
+                                            .setAttribute("enabled", "true")))
+                                    .addChild(XMLElement.create("option")
+                                        .setAttribute("name", "MAIN_CLASS_NAME")
+                                        .setAttribute("value", "qub.ConsoleTestRunner"))
+                                    .addChild(XMLElement.create("module")
+                                        .setAttribute("name", "y"))
+                                    .addChild(XMLElement.create("option")
+                                        .setAttribute("name", "PROGRAM_PARAMETERS")
+                                        .setAttribute("value", "--output-folder=$PROJECT_DIR$/outputs --testjson=false my.CodeTests"))
+                                    .addChild(XMLElement.create("option")
+                                        .setAttribute("name", "VM_PARAMETERS")
+                                        .setAttribute("value", "-classpath $PROJECT_DIR$/outputs;/qub/qub/test-java/versions/2/test-java.jar;/qub/a/b/versions/1/b.jar")))))
+                        .toString(XMLFormat.pretty);
+                    folder.setFileContentsAsString(".idea/workspace.xml", intellijWorkspaceText).await();
+                    folder.createFile("tests/my/CodeTests.java").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setIntellij(true)
+                        .setDryRun(true)
+                        .setJson(true);
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setBoolean("hasChanges", true)
+                            .setObject("projectJson", JSONObject.create()
+                                .setString("path", "/project/project.json")
+                                .setBoolean("changed", true)
+                                .setArray("dependencies", JSONArray.create()
+                                    .add(JSONString.get("a/b@2"))))
+                            .setArray("modules", JSONArray.create()
+                                .add(JSONObject.create()
+                                    .setString("path", "/project/project.iml")
+                                    .setArray("added", JSONArray.create())
+                                    .setArray("removed", JSONArray.create())
+                                    .setArray("updated", JSONArray.create()
+                                        .add(JSONObject.create()
+                                            .setString("from", "a/b@1")
+                                            .setString("to", "a/b@2")))))
+                            .setObject("workspace", JSONObject.create()
+                                .setString("path", "/project/.idea/workspace.xml")
+                                .setArray("added", JSONArray.create())
+                                .setArray("removed", JSONArray.create())
+                                .setArray("updated", JSONArray.create()
+                                    .add(JSONObject.create()
+                                        .setString("from", "my.CodeTests")
+                                        .setString("to", "my.CodeTests"))))
+                            .toString(),
+                        JSON.parseObject(output.getText().await()).await().toString());
+                    test.assertEqual(projectJsonText, folder.getFileContentsAsString("project.json").await());
+                    test.assertEqual(intellijModuleText, folder.getFileContentsAsString("project.iml").await());
+                    test.assertEqual(intellijWorkspaceText, folder.getFileContentsAsString(".idea/workspace.xml").await());
+                    test.assertFalse(qubFolder.getProjectFolder("a", "b").await().getFile(QubLatestVersionCache.recordFileName).await().exists().await());
+                    test.assertFalse(qubFolder.getProjectFolder("qub", "test-java").await().getFile(QubLatestVersionCache.recordFileName).await().exists().await());
+                });
+
+                runner.test("with project.json with --intellij=true, no dependencies, and workspace.xml file", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("qub", "test-java", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("qub")
+                            .setProject("test-java")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("project/").await();
+                    folder.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setPublisher("x")
+                        .setProject("y")
                         .setVersion("3")
                         .setJava(ProjectJSONJava.create())
                         .toString())
@@ -1747,7 +2363,8 @@ public interface QubDependenciesUpdateTests
                             "Updating dependencies for /project/...",
                             "Found 0 dependencies.",
                             "Updating IntelliJ module files...",
-                            "Updating IntelliJ workspace file..."),
+                            "Updating IntelliJ workspace file...",
+                            "  my.CodeTests - Added"),
                         Strings.getLines(output.getText().await()));
                     test.assertEqual(
                         ProjectJSON.create()
@@ -1859,7 +2476,8 @@ public interface QubDependenciesUpdateTests
                             "  a/b@1 - No updates",
                             "Updating IntelliJ module files...",
                             "  a/b@1 - Added",
-                            "Updating IntelliJ workspace file..."),
+                            "Updating IntelliJ workspace file...",
+                            "  my.CodeTests - Added"),
                         Strings.getLines(output.getText().await()));
                     test.assertEqual(
                         ProjectJSON.create()
@@ -1922,6 +2540,584 @@ public interface QubDependenciesUpdateTests
                         folder.getFileContentsAsString(".idea/workspace.xml").await());
                 });
             });
+
+            runner.testGroup("runProjects(QubDependenciesUpdateParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUpdate.runProjects(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with --recursive and no projects", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/workspace/").await();
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setRecursive(true);
+
+                    test.assertEqual(1, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "No projects found in /workspace/."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with --recursive and no QUB_HOME", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/workspace/").await();
+                    folder.setFileContentsAsString("a/project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, EnvironmentVariables.create())
+                        .setRecursive(true);
+
+                    test.assertEqual(1, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Can't discover transitive dependencies if a QUB_HOME environment variable is not specified."),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with --recursive and nested projects", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    for (final String version : Iterable.create("1", "2"))
+                    {
+                        qubFolder.getProjectJSONFile("a", "b", version).await().setContentsAsString(
+                            ProjectJSON.create()
+                                .setPublisher("a")
+                                .setProject("b")
+                                .setVersion(version)
+                                .setJava(ProjectJSONJava.create())
+                            .toString()).await();
+                    }
+                    final Folder folder = rootFolder.createFolder("workspace/").await();
+                    final String outerProjectJsonText = ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString();
+                    folder.setFileContentsAsString("project.json", outerProjectJsonText).await();
+                    folder.setFileContentsAsString("inner/project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "2"))))
+                        .toString()).await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .setRecursive(true);
+
+                    test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /workspace/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - Updated to a/b@2",
+                            "Updating dependencies for /workspace/inner/...",
+                            "Found 1 dependency:",
+                            "  a/b@2 - No updates"),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(
+                        ProjectJSON.create()
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("a", "b", "2")))),
+                        ProjectJSON.parse(folder.getFile("project.json").await()).await());
+                });
+
+                runner.test("with project folders and one failed project", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create())
+                        .toString()).await();
+                    final Folder folder = rootFolder.createFolder("workspace/").await();
+                    final Folder projectA = folder.createFolder("a").await();
+                    projectA.setFileContentsAsString("project.json", ProjectJSON.create()
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(Iterable.create(
+                                ProjectSignature.create("a", "b", "1"))))
+                        .toString()).await();
+                    final Folder projectB = folder.createFolder("b").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                        .addProjectFolder(projectB)
+                        .addProjectFolder(projectA)
+                        .addProjectFolder(projectB);
+
+                    test.assertEqual(1, QubDependenciesUpdate.run(parameters));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "Updating dependencies for /workspace/b/...",
+                            "No project.json file found at /workspace/b/project.json.",
+                            "Updating dependencies for /workspace/a/...",
+                            "Found 1 dependency:",
+                            "  a/b@1 - No updates"),
+                        Strings.getLines(output.getText().await()));
+                });
+
+                runner.test("with project folders on a parallel project LookupRunner", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = new VerboseCharacterToByteWriteStream(output).setIsVerbose(false);
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder rootFolder = fileSystem.getFolder("/").await();
+                    final QubFolder qubFolder = QubFolder.get(rootFolder.getFolder("qub").await());
+                    for (final String version : Iterable.create("1", "2"))
+                    {
+                        qubFolder.getProjectJSONFile("a", "b", version).await().setContentsAsString(
+                            ProjectJSON.create()
+                                .setPublisher("a")
+                                .setProject("b")
+                                .setVersion(version)
+                                .setJava(ProjectJSONJava.create())
+                            .toString()).await();
+                    }
+                    final Folder folder = rootFolder.createFolder("workspace/").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("QUB_HOME", qubFolder.toString());
+                    final int projectCount = 8;
+                    final List<String> expectedLines = List.create();
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final QubDependenciesUpdateParameters parameters = new QubDependenciesUpdateParameters(output, verbose, folder, environmentVariables)
+                            .setProjectLookupRunner(LookupRunner.create(process.getParallelAsyncRunner(), 4));
+                        for (int i = projectCount - 1; i >= 0; --i)
+                        {
+                            final Folder projectFolder = folder.createFolder("project" + i).await();
+                            projectFolder.setFileContentsAsString("project.json", ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create()
+                                    .setDependencies(Iterable.create(
+                                        ProjectSignature.create("a", "b", i % 2 == 0 ? "1" : "2"))))
+                                .toString()).await();
+                            parameters.addProjectFolder(projectFolder);
+
+                            expectedLines.add("Updating dependencies for /workspace/project" + i + "/...");
+                            expectedLines.add("Found 1 dependency:");
+                            expectedLines.add(i % 2 == 0 ? "  a/b@1 - Updated to a/b@2" : "  a/b@2 - No updates");
+                        }
+
+                        test.assertEqual(0, QubDependenciesUpdate.run(parameters));
+                    }
+
+                    test.assertEqual(expectedLines, Strings.getLines(output.getText().await()));
+                    for (int i = 0; i < projectCount; ++i)
+                    {
+                        test.assertEqual(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create()
+                                    .setDependencies(Iterable.create(
+                                        ProjectSignature.create("a", "b", "2")))),
+                            ProjectJSON.parse(folder.getFile("project" + i + "/project.json").await()).await());
+                    }
+                });
+            });
+
+            runner.testGroup("getUpdateWaves(List<ProjectJSON>)", () ->
+            {
+                final Function3<String,String,Iterable<ProjectSignature>,ProjectJSON> createProjectJson = (String publisher, String project, Iterable<ProjectSignature> dependencies) ->
+                    ProjectJSON.create()
+                        .setPublisher(publisher)
+                        .setProject(project)
+                        .setVersion("1")
+                        .setJava(ProjectJSONJava.create()
+                            .setDependencies(dependencies));
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUpdate.getUpdateWaves(null),
+                        new PreConditionFailure("projectJsons cannot be null."));
+                });
+
+                runner.test("with no projects", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), QubDependenciesUpdate.getUpdateWaves(List.create()));
+                });
+
+                runner.test("with independent projects", (Test test) ->
+                {
+                    final List<ProjectJSON> projectJsons = List.create(
+                        createProjectJson.run("a", "b", Iterable.create(ProjectSignature.create("x", "y", "1"))),
+                        null,
+                        createProjectJson.run("a", "c", Iterable.create()));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(0, 1, 2)),
+                        QubDependenciesUpdate.getUpdateWaves(projectJsons));
+                });
+
+                runner.test("with dependent projects", (Test test) ->
+                {
+                    final List<ProjectJSON> projectJsons = List.create(
+                        createProjectJson.run("a", "app", Iterable.create(ProjectSignature.create("a", "lib", "1"), ProjectSignature.create("a", "util", "1"))),
+                        createProjectJson.run("a", "lib", Iterable.create(ProjectSignature.create("a", "util", "3"))),
+                        createProjectJson.run("a", "util", Iterable.create()),
+                        createProjectJson.run("a", "other", Iterable.create(ProjectSignature.create("a", "util", "2"))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(2),
+                            Iterable.create(1, 3),
+                            Iterable.create(0)),
+                        QubDependenciesUpdate.getUpdateWaves(projectJsons));
+                });
+
+                runner.test("with dependency cycle", (Test test) ->
+                {
+                    final List<ProjectJSON> projectJsons = List.create(
+                        createProjectJson.run("a", "b", Iterable.create(ProjectSignature.create("a", "c", "1"))),
+                        createProjectJson.run("a", "c", Iterable.create(ProjectSignature.create("a", "b", "1"))),
+                        createProjectJson.run("a", "d", Iterable.create()));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(0, 1, 2)),
+                        QubDependenciesUpdate.getUpdateWaves(projectJsons));
+                });
+
+                runner.test("with dependents of a dependency cycle", (Test test) ->
+                {
+                    final List<ProjectJSON> projectJsons = List.create(
+                        createProjectJson.run("a", "app", Iterable.create(ProjectSignature.create("a", "b", "1"))),
+                        createProjectJson.run("a", "b", Iterable.create(ProjectSignature.create("a", "c", "1"), ProjectSignature.create("a", "util", "1"))),
+                        createProjectJson.run("a", "c", Iterable.create(ProjectSignature.create("a", "b", "1"))),
+                        createProjectJson.run("a", "util", Iterable.create()),
+                        createProjectJson.run("a", "tool", Iterable.create(ProjectSignature.create("a", "app", "1"), ProjectSignature.create("a", "c", "1"))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(3),
+                            Iterable.create(1, 2),
+                            Iterable.create(0),
+                            Iterable.create(4)),
+                        QubDependenciesUpdate.getUpdateWaves(projectJsons));
+                });
+            });
+
+            runner.testGroup("getStronglyConnectedComponents(List<List<Integer>>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUpdate.getStronglyConnectedComponents(null),
+                        new PreConditionFailure("dependencies cannot be null."));
+                });
+
+                runner.test("with cycles", (Test test) ->
+                {
+                    final List<List<Integer>> dependencies = List.create(
+                        List.create(1),
+                        List.create(2),
+                        List.create(0, 3),
+                        List.create(),
+                        List.create(0, 5),
+                        List.create(4));
+                    final int[] componentIndexes = QubDependenciesUpdate.getStronglyConnectedComponents(dependencies);
+                    test.assertEqual(componentIndexes[0], componentIndexes[1]);
+                    test.assertEqual(componentIndexes[0], componentIndexes[2]);
+                    test.assertEqual(componentIndexes[4], componentIndexes[5]);
+                    test.assertTrue(componentIndexes[3] < componentIndexes[0]);
+                    test.assertTrue(componentIndexes[0] < componentIndexes[4]);
+                });
+            });
+
+            runner.testGroup("updateModule(File,QubModuleLibraryReconciler,boolean)", () ->
+            {
+                runner.test("with null intellijProjectFile", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final QubModuleLibraryReconciler moduleLibraryReconciler = new QubModuleLibraryReconciler(qubFolder, Iterable.create());
+                    test.assertThrows(() -> QubDependenciesUpdate.updateModule(null, moduleLibraryReconciler, false),
+                        new PreConditionFailure("intellijProjectFile cannot be null."));
+                });
+
+                runner.test("with null moduleLibraryReconciler", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final File intellijProjectFile = fileSystem.getFile("/project/project.iml").await();
+                    test.assertThrows(() -> QubDependenciesUpdate.updateModule(intellijProjectFile, null, false),
+                        new PreConditionFailure("moduleLibraryReconciler cannot be null."));
+                });
+
+                runner.test("with invalid module file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final File intellijProjectFile = fileSystem.getFile("/project/project.iml").await();
+                    intellijProjectFile.setContentsAsString(XMLDocument.create().setRoot(XMLElement.create("foo")).toString()).await();
+
+                    final QubDependenciesUpdate.ModuleUpdate moduleUpdate = QubDependenciesUpdate.updateModule(intellijProjectFile, new QubModuleLibraryReconciler(qubFolder, Iterable.create()), false);
+
+                    test.assertNull(moduleUpdate.moduleChanges);
+                    test.assertEqual(Iterable.create("Invalid Intellij Module file: /project/project.iml"), moduleUpdate.lines);
+                });
+
+                runner.test("with older dependency", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final File intellijProjectFile = fileSystem.getFile("/project/project.iml").await();
+                    final String intellijProjectText = XMLDocument.create()
+                        .setDeclaration(XMLDeclaration.create()
+                            .setVersion("1.0")
+                            .setEncoding("UTF-8"))
+                        .setRoot(XMLElement.create("module")
+                            .addChild(XMLElement.create("component")
+                                .addChild(XMLElement.create("orderEntry")
+                                    .setAttribute("type", "module-library")
+                                    .addChild(XMLElement.create("library")
+                                        .addChild(XMLElement.create("CLASSES")
+                                            .addChild(XMLElement.create("root")
+                                                .setAttribute("url", "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "!/")))))))
+                        .toString(XMLFormat.pretty);
+                    intellijProjectFile.setContentsAsString(intellijProjectText).await();
+
+                    final QubDependenciesUpdate.ModuleUpdate moduleUpdate = QubDependenciesUpdate.updateModule(intellijProjectFile,
+                        new QubModuleLibraryReconciler(qubFolder, Iterable.create(ProjectSignature.create("a", "b", "2"))), false);
+
+                    test.assertEqual("/project/project.iml", moduleUpdate.moduleChanges.getPath());
+                    test.assertEqual(Iterable.create("a/b@1"), moduleUpdate.moduleChanges.getUpdatedFrom());
+                    test.assertEqual(Iterable.create("a/b@2"), moduleUpdate.moduleChanges.getUpdatedTo());
+                    test.assertEqual(Iterable.create("a/b@1 - Updated to a/b@2"), moduleUpdate.lines);
+                    test.assertNotEqual(intellijProjectText, intellijProjectFile.getContentsAsString().await());
+                });
+
+                runner.test("with older dependency and dry run", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final File intellijProjectFile = fileSystem.getFile("/project/project.iml").await();
+                    final String intellijProjectText = XMLDocument.create()
+                        .setDeclaration(XMLDeclaration.create()
+                            .setVersion("1.0")
+                            .setEncoding("UTF-8"))
+                        .setRoot(XMLElement.create("module")
+                            .addChild(XMLElement.create("component")
+                                .addChild(XMLElement.create("orderEntry")
+                                    .setAttribute("type", "module-library")
+                                    .addChild(XMLElement.create("library")
+                                        .addChild(XMLElement.create("CLASSES")
+                                            .addChild(XMLElement.create("root")
+                                                .setAttribute("url", "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "1").await() + "!/")))))))
+                        .toString(XMLFormat.pretty);
+                    intellijProjectFile.setContentsAsString(intellijProjectText).await();
+
+                    final QubDependenciesUpdate.ModuleUpdate moduleUpdate = QubDependenciesUpdate.updateModule(intellijProjectFile,
+                        new QubModuleLibraryReconciler(qubFolder, Iterable.create(ProjectSignature.create("a", "b", "2"))), true);
+
+                    test.assertEqual(Iterable.create("a/b@2"), moduleUpdate.moduleChanges.getUpdatedTo());
+                    test.assertEqual(Iterable.create("a/b@1 - Updated to a/b@2"), moduleUpdate.lines);
+                    test.assertEqual(intellijProjectText, intellijProjectFile.getContentsAsString().await());
+                });
+            });
+
+            runner.testGroup("walkProjectFolder(ProjectFileFinder,Folder,QubTestClassIndex,List<String>,boolean)", () ->
+            {
+                runner.test("with null fullTestClassNames", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    test.assertThrows(() -> QubDependenciesUpdate.walkProjectFolder(new ProjectFileFinder(), folder, null, null, false),
+                        new PreConditionFailure("fullTestClassNames cannot be null."));
+                });
+
+                runner.test("with no test class index", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.createFile("project.iml").await();
+                    folder.createFile("sources/qub/A.java").await();
+                    folder.createFile("tests/qub/ATests.java").await();
+                    final List<String> fullTestClassNames = List.create();
+
+                    test.assertEqual(
+                        Iterable.create(folder.getFile("project.iml").await()),
+                        QubDependenciesUpdate.walkProjectFolder(new ProjectFileFinder(), folder, null, fullTestClassNames, false));
+                    test.assertEqual(Iterable.create("qub.ATests"), fullTestClassNames);
+                });
+
+                runner.test("with test class index", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("tests/qub/ATests.java", "public interface ATests { static void test(TestRunner runner) {} }").await();
+                    folder.setFileContentsAsString("tests/qub/Helper.java", "public class Helper {}").await();
+                    final File indexFile = folder.getFile("outputs/test-classes.json").await();
+                    final List<String> fullTestClassNames = List.create();
+
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubDependenciesUpdate.walkProjectFolder(new ProjectFileFinder(), folder, new QubTestClassIndex(indexFile), fullTestClassNames, false));
+                    test.assertEqual(Iterable.create("qub.ATests"), fullTestClassNames);
+                    test.assertTrue(indexFile.exists().await());
+                });
+
+                runner.test("with test class index and dry run", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/project/").await();
+                    folder.setFileContentsAsString("tests/qub/ATests.java", "public interface ATests { static void test(TestRunner runner) {} }").await();
+                    folder.setFileContentsAsString("tests/qub/Helper.java", "public class Helper {}").await();
+                    final File indexFile = folder.getFile("outputs/test-classes.json").await();
+                    final List<String> fullTestClassNames = List.create();
+
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubDependenciesUpdate.walkProjectFolder(new ProjectFileFinder(), folder, new QubTestClassIndex(indexFile), fullTestClassNames, true));
+                    test.assertEqual(Iterable.create("qub.ATests"), fullTestClassNames);
+                    test.assertFalse(indexFile.exists().await());
+                });
+            });
+
+            runner.testGroup("reconcileRunConfigurations(IntellijWorkspace,Iterable<String>,String,String,QubDependenciesUpdatePlan.FileChanges,CharacterWriteStream)", () ->
+            {
+                final Function0<IntellijWorkspace> createWorkspace = () ->
+                    IntellijWorkspace.create(XMLDocument.create()
+                        .setRoot(XMLElement.create("project")));
+
+                runner.test("with null intellijWorkspace", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependenciesUpdate.reconcileRunConfigurations(null, Iterable.create(), "y", "", new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml"), InMemoryCharacterToByteStream.create()),
+                        new PreConditionFailure("intellijWorkspace cannot be null."));
+                });
+
+                runner.test("with added, kept, and removed run configurations", (Test test) ->
+                {
+                    final IntellijWorkspace intellijWorkspace = createWorkspace.run();
+                    intellijWorkspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("my.KeptTests"));
+                    intellijWorkspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("my.RemovedTests"));
+                    final QubDependenciesUpdatePlan.FileChanges workspaceChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, Iterable.create("my.KeptTests", "my.AddedTests", "my.AddedTests"), "y", "-classpath a", workspaceChanges, output);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "my.KeptTests - Updated",
+                            "my.RemovedTests - Removed",
+                            "my.AddedTests - Added"),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(Iterable.create("my.AddedTests"), workspaceChanges.getAdded());
+                    test.assertEqual(Iterable.create("my.RemovedTests"), workspaceChanges.getRemoved());
+                    test.assertEqual(Iterable.create("my.KeptTests"), workspaceChanges.getUpdatedTo());
+                    test.assertEqual(
+                        Iterable.create("my.KeptTests", "my.AddedTests"),
+                        intellijWorkspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName).toList());
+                });
+
+                runner.test("with up-to-date run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace intellijWorkspace = createWorkspace.run();
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, Iterable.create("my.ATests"), "y", "-classpath a", new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml"), InMemoryCharacterToByteStream.create());
+                    final QubDependenciesUpdatePlan.FileChanges workspaceChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, Iterable.create("my.ATests"), "y", "-classpath a", workspaceChanges, output);
+
+                    test.assertEqual("", output.getText().await());
+                    test.assertFalse(workspaceChanges.hasChanges());
+                });
+
+                runner.test("with changed vmParameters", (Test test) ->
+                {
+                    final IntellijWorkspace intellijWorkspace = createWorkspace.run();
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, Iterable.create("my.ATests"), "y", "-classpath a", new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml"), InMemoryCharacterToByteStream.create());
+                    final QubDependenciesUpdatePlan.FileChanges workspaceChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, Iterable.create("my.ATests"), "y", "-classpath b", workspaceChanges, output);
+
+                    test.assertEqual(Iterable.create("my.ATests - Updated"), Strings.getLines(output.getText().await()));
+                    test.assertTrue(workspaceChanges.hasChanges());
+                    test.assertEqual(Iterable.create("my.ATests"), workspaceChanges.getUpdatedTo());
+                    test.assertEqual("-classpath b", intellijWorkspace.getRunConfigurations().first().getVmParameters());
+                });
+
+                runner.test("with 10000 test classes", (Test test) ->
+                {
+                    final int testClassCount = 10000;
+                    final List<String> firstTestClassNames = List.create();
+                    final List<String> secondTestClassNames = List.create();
+                    for (int i = 0; i < testClassCount; ++i)
+                    {
+                        firstTestClassNames.add("my.Code" + i + "Tests");
+                        secondTestClassNames.add("my.Code" + (i + testClassCount / 2) + "Tests");
+                    }
+
+                    final IntellijWorkspace intellijWorkspace = createWorkspace.run();
+                    final QubDependenciesUpdatePlan.FileChanges firstChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, firstTestClassNames, "y", "-classpath a", firstChanges, InMemoryCharacterToByteStream.create());
+                    test.assertEqual(testClassCount, firstChanges.getAdded().getCount());
+                    test.assertEqual(0, firstChanges.getRemoved().getCount());
+
+                    final QubDependenciesUpdatePlan.FileChanges secondChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, secondTestClassNames, "y", "-classpath a", secondChanges, InMemoryCharacterToByteStream.create());
+                    test.assertEqual(testClassCount / 2, secondChanges.getAdded().getCount());
+                    test.assertEqual(testClassCount / 2, secondChanges.getRemoved().getCount());
+                    test.assertEqual(testClassCount, intellijWorkspace.getRunConfigurations().getCount());
+                });
+
+                runner.test("with 50000 removed run configurations", (Test test) ->
+                {
+                    final int testClassCount = 50000;
+                    final List<String> firstTestClassNames = List.create();
+                    final List<String> secondTestClassNames = List.create();
+                    for (int i = 0; i < testClassCount; ++i)
+                    {
+                        firstTestClassNames.add("my.Code" + i + "Tests");
+                    }
+                    secondTestClassNames.add("my.Code0Tests");
+
+                    final IntellijWorkspace intellijWorkspace = createWorkspace.run();
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, firstTestClassNames, "y", "-classpath a", new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml"), InMemoryCharacterToByteStream.create());
+
+                    final QubDependenciesUpdatePlan.FileChanges workspaceChanges = new QubDependenciesUpdatePlan().setWorkspaceChanges("/workspace.xml");
+                    QubDependenciesUpdate.reconcileRunConfigurations(intellijWorkspace, secondTestClassNames, "y", "-classpath a", workspaceChanges, InMemoryCharacterToByteStream.create());
+
+                    final List<String> removed = workspaceChanges.getRemoved().toList();
+                    test.assertEqual(testClassCount - 1, removed.getCount());
+                    test.assertEqual("my.Code1Tests", removed.get(0));
+                    test.assertEqual("my.Code" + (testClassCount - 1) + "Tests", removed.get(testClassCount - 2));
+                    test.assertEqual(
+                        Iterable.create("my.Code0Tests"),
+                        intellijWorkspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName).toList());
+                });
+            });
         });
     }
-}
\ No newline at end of file
+}
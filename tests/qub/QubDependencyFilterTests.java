@@ -0,0 +1,97 @@
+package qub;
+
+public interface QubDependencyFilterTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependencyFilter.class, () ->
+        {
+            runner.test("constructor()", (Test test) ->
+            {
+                final QubDependencyFilter filter = new QubDependencyFilter();
+                test.assertFalse(filter.hasMaximumDepth());
+                test.assertEqual(Iterable.create(), filter.getPublishers());
+                test.assertEqual(Iterable.create(), filter.getExcludedProjects());
+            });
+
+            runner.testGroup("setMaximumDepth(int)", () ->
+            {
+                runner.test("with 0", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter();
+                    test.assertThrows(() -> filter.setMaximumDepth(0),
+                        new PreConditionFailure("maximumDepth (0) must be greater than or equal to 1."));
+                    test.assertFalse(filter.hasMaximumDepth());
+                });
+
+                runner.test("with 2", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter();
+                    test.assertSame(filter, filter.setMaximumDepth(2));
+                    test.assertTrue(filter.hasMaximumDepth());
+                    test.assertEqual(2, filter.getMaximumDepth());
+                });
+            });
+
+            runner.test("includesAll()", (Test test) ->
+            {
+                test.assertTrue(new QubDependencyFilter().includesAll());
+                test.assertFalse(new QubDependencyFilter().setMaximumDepth(1).includesAll());
+                test.assertFalse(new QubDependencyFilter().addPublisher("a").includesAll());
+                test.assertFalse(new QubDependencyFilter().addExcludedProject("a/b").includesAll());
+            });
+
+            runner.testGroup("canExpand(int)", () ->
+            {
+                runner.test("with no maximum depth", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter();
+                    test.assertTrue(filter.canExpand(1));
+                    test.assertTrue(filter.canExpand(100));
+                });
+
+                runner.test("with maximum depth", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter().setMaximumDepth(2);
+                    test.assertTrue(filter.canExpand(1));
+                    test.assertFalse(filter.canExpand(2));
+                    test.assertFalse(filter.canExpand(3));
+                });
+            });
+
+            runner.testGroup("includes(ProjectSignature)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter();
+                    test.assertThrows(() -> filter.includes(null),
+                        new PreConditionFailure("projectSignature cannot be null."));
+                });
+
+                runner.test("with no publishers or exclusions", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter();
+                    test.assertTrue(filter.includes(ProjectSignature.create("a", "b", "1")));
+                });
+
+                runner.test("with publishers", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter()
+                        .addPublisher("qub");
+                    test.assertTrue(filter.includes(ProjectSignature.create("qub", "b", "1")));
+                    test.assertFalse(filter.includes(ProjectSignature.create("a", "b", "1")));
+                });
+
+                runner.test("with exclusions", (Test test) ->
+                {
+                    final QubDependencyFilter filter = new QubDependencyFilter()
+                        .addExcludedProject("qub/test-java");
+                    test.assertFalse(filter.includes(ProjectSignature.create("qub", "test-java", "1")));
+                    test.assertTrue(filter.includes(ProjectSignature.create("qub", "lib-java", "1")));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package qub;
+
+public interface QubDependencyGraphTests
+{
+    static QubDependencyGraph createGraph(Iterable<ProjectSignature> nodes, int[] roots, int[] edgeSources, int[] edgeTargets)
+    {
+        final QubDependencyNodeState[] nodeStates = new QubDependencyNodeState[nodes.getCount()];
+        for (int i = 0; i < nodeStates.length; ++i)
+        {
+            nodeStates[i] = QubDependencyNodeState.Found;
+        }
+        return new QubDependencyGraph(nodes.toList(), nodeStates, roots, edgeSources, edgeTargets, edgeSources.length);
+    }
+
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependencyGraph.class, () ->
+        {
+            runner.testGroup("constructor()", () ->
+            {
+                runner.test("with null nodes", (Test test) ->
+                {
+                    test.assertThrows(() -> new QubDependencyGraph(null, new QubDependencyNodeState[0], new int[0], new int[0], new int[0], 0),
+                        new PreConditionFailure("nodes cannot be null."));
+                });
+
+                runner.test("with no nodes", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(Iterable.create(), new int[0], new int[0], new int[0]);
+                    test.assertEqual(0, graph.getNodeCount());
+                    test.assertEqual(0, graph.getRootCount());
+                    test.assertEqual(0, graph.getProjectCount());
+                    test.assertEqual(Iterable.create(), graph.getTransitiveDependencies());
+                });
+
+                runner.test("with edges", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        new int[] { 0 },
+                        new int[] { 0, 0, 1 },
+                        new int[] { 1, 2, 2 });
+                    test.assertEqual(3, graph.getNodeCount());
+                    test.assertEqual(1, graph.getRootCount());
+                    test.assertEqual(0, graph.getRoot(0));
+
+                    test.assertEqual(2, graph.getDependencyCount(0));
+                    test.assertEqual(1, graph.getDependency(0, 0));
+                    test.assertEqual(2, graph.getDependency(0, 1));
+                    test.assertEqual(1, graph.getDependencyCount(1));
+                    test.assertEqual(2, graph.getDependency(1, 0));
+                    test.assertEqual(0, graph.getDependencyCount(2));
+
+                    test.assertEqual(0, graph.getDependentCount(0));
+                    test.assertEqual(1, graph.getDependentCount(1));
+                    test.assertEqual(0, graph.getDependent(1, 0));
+                    test.assertEqual(2, graph.getDependentCount(2));
+                    test.assertEqual(0, graph.getDependent(2, 0));
+                    test.assertEqual(1, graph.getDependent(2, 1));
+                });
+            });
+
+            runner.testGroup("getNodeIndex(ProjectSignature)", () ->
+            {
+                final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                    Iterable.create(
+                        ProjectSignature.create("a", "b", "1"),
+                        ProjectSignature.create("a", "b", "2")),
+                    new int[] { 0, 1 },
+                    new int[0],
+                    new int[0]);
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> graph.getNodeIndex(null),
+                        new PreConditionFailure("projectSignature cannot be null."));
+                });
+
+                runner.test("with existing node", (Test test) ->
+                {
+                    test.assertEqual(1, graph.getNodeIndex(ProjectSignature.create("a", "b", "2")));
+                });
+
+                runner.test("with non-existing node", (Test test) ->
+                {
+                    test.assertEqual(-1, graph.getNodeIndex(ProjectSignature.create("a", "b", "3")));
+                });
+            });
+
+            runner.testGroup("getNodeProject(int)", () ->
+            {
+                runner.test("with different versions of the same project", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "1"),
+                            ProjectSignature.create("a", "b", "2")),
+                        new int[] { 0, 1, 2 },
+                        new int[0],
+                        new int[0]);
+                    test.assertEqual(2, graph.getProjectCount());
+                    test.assertEqual(0, graph.getNodeProject(0));
+                    test.assertEqual(1, graph.getNodeProject(1));
+                    test.assertEqual(0, graph.getNodeProject(2));
+                });
+            });
+
+            runner.testGroup("getTopologicalNode(int)", () ->
+            {
+                runner.test("with chain", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        new int[] { 0 },
+                        new int[] { 0, 1 },
+                        new int[] { 1, 2 });
+                    test.assertEqual(2, graph.getTopologicalNode(0));
+                    test.assertEqual(1, graph.getTopologicalNode(1));
+                    test.assertEqual(0, graph.getTopologicalNode(2));
+                });
+
+                runner.test("with cycle", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2")),
+                        new int[] { 0 },
+                        new int[] { 0, 1 },
+                        new int[] { 1, 0 });
+                    test.assertEqual(0, graph.getTopologicalNode(0));
+                    test.assertEqual(1, graph.getTopologicalNode(1));
+                });
+            });
+
+            runner.testGroup("getTransitiveDependencies()", () ->
+            {
+                runner.test("with shared dependencies", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        new int[] { 0, 1 },
+                        new int[] { 0, 1 },
+                        new int[] { 2, 2 });
+                    test.assertEqual(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        graph.getTransitiveDependencies());
+                });
+
+                runner.test("with multiple versions of the same project", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("c", "d", "1")),
+                        new int[] { 0, 1 },
+                        new int[] { 0 },
+                        new int[] { 2 });
+                    test.assertEqual(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2")),
+                        graph.getTransitiveDependencies());
+                });
+            });
+
+            runner.testGroup("getRoots(int,int)", () ->
+            {
+                final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                    Iterable.create(
+                        ProjectSignature.create("a", "b", "1"),
+                        ProjectSignature.create("c", "d", "2"),
+                        ProjectSignature.create("e", "f", "3")),
+                    new int[] { 2, 0, 1 },
+                    new int[0],
+                    new int[0]);
+
+                runner.test("with all roots", (Test test) ->
+                {
+                    test.assertEqual(new int[] { 2, 0, 1 }, graph.getRoots(0, 3));
+                });
+
+                runner.test("with no roots", (Test test) ->
+                {
+                    test.assertEqual(new int[0], graph.getRoots(1, 1));
+                });
+
+                runner.test("with end before start", (Test test) ->
+                {
+                    test.assertThrows(() -> graph.getRoots(2, 1),
+                        new PreConditionFailure("endRootIndex (1) must be between 2 and 3."));
+                });
+            });
+
+            runner.testGroup("getMergedTransitiveDependencyNodes(int[],int[])", () ->
+            {
+                runner.test("with overlapping projects", (Test test) ->
+                {
+                    // Roots: a/b@1 (test runner) -> c/d@1 -> e/f@1, and g/h@1 (project) -> c/d@2.
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("g", "h", "1"),
+                            ProjectSignature.create("c", "d", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "1")),
+                        new int[] { 0, 1 },
+                        new int[] { 0, 1, 2 },
+                        new int[] { 2, 3, 4 });
+                    test.assertEqual(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("e", "f", "1"),
+                            ProjectSignature.create("g", "h", "1"),
+                            ProjectSignature.create("c", "d", "2")),
+                        graph.getNodes(graph.getMergedTransitiveDependencyNodes(new int[] { 0 }, new int[] { 1 })));
+                });
+
+                runner.test("with no overriding nodes", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "1")),
+                        new int[] { 0 },
+                        new int[] { 0 },
+                        new int[] { 1 });
+                    test.assertEqual(new int[] { 0, 1 }, graph.getMergedTransitiveDependencyNodes(new int[] { 0 }, new int[0]));
+                });
+            });
+        });
+    }
+}
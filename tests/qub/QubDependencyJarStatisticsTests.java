@@ -0,0 +1,75 @@
+package qub;
+
+public interface QubDependencyJarStatisticsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependencyJarStatistics.class, () ->
+        {
+            runner.testGroup("create(QubFolder,QubDependencyGraph,LookupRunner)", () ->
+            {
+                runner.test("with null qubFolder", (Test test) ->
+                {
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(Iterable.create(), new int[0], new int[0], new int[0]);
+                    test.assertThrows(() -> QubDependencyJarStatistics.create(null, graph, LookupRunner.create()),
+                        new PreConditionFailure("qubFolder cannot be null."));
+                });
+
+                runner.test("with shared dependency", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getCompiledSourcesFile("a", "b", "1").await().setContentsAsString("ab").await();
+                    qubFolder.getSourcesFile("a", "b", "1").await().setContentsAsString("abab").await();
+                    qubFolder.getCompiledSourcesFile("c", "d", "2").await().setContentsAsString("cdcdcd").await();
+                    qubFolder.getCompiledSourcesFile("e", "f", "3").await().setContentsAsString("efefefef").await();
+                    final QubDependencyGraph graph = QubDependencyGraphTests.createGraph(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        new int[] { 0, 1 },
+                        new int[] { 0, 1 },
+                        new int[] { 2, 2 });
+
+                    final QubDependencyJarStatistics statistics = QubDependencyJarStatistics.create(qubFolder, graph, LookupRunner.create());
+                    test.assertEqual(2L, statistics.getCompiledSourcesByteCount(0));
+                    test.assertEqual(4L, statistics.getSourcesByteCount(0));
+                    test.assertEqual(6L, statistics.getCompiledSourcesByteCount(1));
+                    test.assertEqual(-1L, statistics.getSourcesByteCount(1));
+                    test.assertEqual(8L, statistics.getCompiledSourcesByteCount(2));
+                    test.assertEqual(16L, statistics.getClosureCompiledSourcesByteCount());
+                    test.assertEqual(4L, statistics.getClosureSourcesByteCount());
+                });
+            });
+
+            runner.testGroup("getByteCount(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubDependencyJarStatistics.getByteCount(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    test.assertEqual(-1L, QubDependencyJarStatistics.getByteCount(fileSystem.getFile("/a.jar").await()));
+                });
+
+                runner.test("with file that exists", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.jar").await();
+                    file.setContentsAsString("abc").await();
+                    test.assertEqual(3L, QubDependencyJarStatistics.getByteCount(file));
+                });
+            });
+        });
+    }
+}
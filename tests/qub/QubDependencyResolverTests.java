@@ -0,0 +1,110 @@
+package qub;
+
+public interface QubDependencyResolverTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubDependencyResolver.class, () ->
+        {
+            runner.testGroup("constructor()", () ->
+            {
+                runner.test("with null qubFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> new QubDependencyResolver(null),
+                        new PreConditionFailure("qubFolder cannot be null."));
+                });
+            });
+
+            runner.testGroup("resolve(Iterable<ProjectSignature>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final QubDependencyResolver resolver = new QubDependencyResolver(qubFolder);
+                    test.assertThrows(() -> resolver.resolve(null),
+                        new PreConditionFailure("roots cannot be null."));
+                });
+
+                runner.test("with no roots", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final QubDependencyResolver resolver = new QubDependencyResolver(qubFolder);
+
+                    final QubDependencyGraph graph = resolver.resolve(Iterable.create());
+                    test.assertEqual(0, graph.getNodeCount());
+                    test.assertEqual(0, graph.getRootCount());
+                });
+
+                runner.test("with missing, non-Java and shared dependencies", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("a")
+                            .setProject("b")
+                            .setVersion("1")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("c", "d", "2"),
+                                    ProjectSignature.create("e", "f", "3"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("c", "d", "2").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("c")
+                            .setProject("d")
+                            .setVersion("2")
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    ProjectSignature.create("e", "f", "3"))))
+                        .toString()).await();
+                    qubFolder.getProjectJSONFile("e", "f", "3").await().setContentsAsString(
+                        ProjectJSON.create()
+                            .setPublisher("e")
+                            .setProject("f")
+                            .setVersion("3")
+                        .toString()).await();
+                    final QubDependencyResolver resolver = new QubDependencyResolver(qubFolder);
+
+                    final QubDependencyGraph graph = resolver.resolve(Iterable.create(
+                        ProjectSignature.create("a", "b", "1"),
+                        ProjectSignature.create("g", "h", "4")));
+                    test.assertEqual(4, graph.getNodeCount());
+                    test.assertEqual(2, graph.getRootCount());
+
+                    final int abIndex = graph.getNodeIndex(ProjectSignature.create("a", "b", "1"));
+                    final int cdIndex = graph.getNodeIndex(ProjectSignature.create("c", "d", "2"));
+                    final int efIndex = graph.getNodeIndex(ProjectSignature.create("e", "f", "3"));
+                    final int ghIndex = graph.getNodeIndex(ProjectSignature.create("g", "h", "4"));
+                    test.assertEqual(abIndex, graph.getRoot(0));
+                    test.assertEqual(ghIndex, graph.getRoot(1));
+
+                    test.assertEqual(QubDependencyNodeState.Found, graph.getNodeState(abIndex));
+                    test.assertEqual(QubDependencyNodeState.Found, graph.getNodeState(cdIndex));
+                    test.assertEqual(QubDependencyNodeState.NoJavaProperty, graph.getNodeState(efIndex));
+                    test.assertEqual(QubDependencyNodeState.NotFound, graph.getNodeState(ghIndex));
+
+                    test.assertEqual(2, graph.getDependencyCount(abIndex));
+                    test.assertEqual(cdIndex, graph.getDependency(abIndex, 0));
+                    test.assertEqual(efIndex, graph.getDependency(abIndex, 1));
+                    test.assertEqual(2, graph.getDependentCount(efIndex));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            ProjectSignature.create("a", "b", "1"),
+                            ProjectSignature.create("g", "h", "4"),
+                            ProjectSignature.create("c", "d", "2"),
+                            ProjectSignature.create("e", "f", "3")),
+                        graph.getTransitiveDependencies());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package qub;
+
+public interface QubJarHashCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubJarHashCache.class, () ->
+        {
+            final Function1<Test,Folder> createFolder = (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                fileSystem.createRoot("/").await();
+                return fileSystem.createFolder("/data/").await();
+            };
+
+            runner.testGroup("constructor(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> new QubJarHashCache(null),
+                        new PreConditionFailure("cacheFile cannot be null."));
+                });
+
+                runner.test("with cache file that isn't JSON", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    cacheFile.setContentsAsString("not json").await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+                    test.assertSame(cacheFile, cache.getCacheFile());
+                });
+            });
+
+            runner.test("create(QubFolder)", (Test test) ->
+            {
+                final Folder folder = createFolder.run(test);
+                final QubFolder qubFolder = QubFolder.get(folder.getFolder("qub").await());
+                final QubJarHashCache cache = QubJarHashCache.create(qubFolder);
+                test.assertEqual(
+                    qubFolder.getProjectFolder("qub", "dependencies-java").await().getFile("data/jar-hashes.json").await(),
+                    cache.getCacheFile());
+            });
+
+            runner.testGroup("getHash(File)", () ->
+            {
+                runner.test("with jar file that doesn't exist", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final QubJarHashCache cache = new QubJarHashCache(folder.getFile("jar-hashes.json").await());
+                    test.assertNull(cache.getHash(folder.getFile("a.jar").await()));
+                });
+
+                runner.test("with jar file that exists", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("abc").await();
+                    final QubJarHashCache cache = new QubJarHashCache(folder.getFile("jar-hashes.json").await());
+                    test.assertEqual("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.getHash(jarFile));
+                });
+
+                runner.test("with cached jar file that hasn't changed", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("abc").await();
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    cacheFile.setContentsAsString(JSONObject.create()
+                        .setArray("jars", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", jarFile.toString())
+                                .setNumber("size", 3)
+                                .setString("lastModified", jarFile.getLastModified().await().toString())
+                                .setString("sha256", "cached")))
+                        .toString()).await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+                    test.assertEqual("cached", cache.getHash(jarFile));
+                });
+
+                runner.test("with cached jar file that has changed", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("abc").await();
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    cacheFile.setContentsAsString(JSONObject.create()
+                        .setArray("jars", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", jarFile.toString())
+                                .setNumber("size", 3)
+                                .setString("lastModified", "not the last modified time")
+                                .setString("sha256", "cached")))
+                        .toString()).await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+                    test.assertEqual("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.getHash(jarFile));
+                });
+
+                runner.test("with cached jar file whose size has changed", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("abc").await();
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    cacheFile.setContentsAsString(JSONObject.create()
+                        .setArray("jars", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", jarFile.toString())
+                                .setNumber("size", 4)
+                                .setString("lastModified", jarFile.getLastModified().await().toString())
+                                .setString("sha256", "cached")))
+                        .toString()).await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+                    test.assertEqual("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.getHash(jarFile));
+                });
+            });
+
+            runner.testGroup("hashContents(File)", () ->
+            {
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    test.assertNull(QubJarHashCache.hashContents(folder.getFile("a.jar").await()));
+                });
+
+                runner.test("with empty file", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("").await();
+                    test.assertEqual("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", QubJarHashCache.hashContents(jarFile));
+                });
+            });
+
+            runner.testGroup("write()", () ->
+            {
+                runner.test("with no hashed jar files", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+
+                    cache.write();
+
+                    test.assertFalse(cacheFile.exists().await());
+                });
+
+                runner.test("with hashed jar file", (Test test) ->
+                {
+                    final Folder folder = createFolder.run(test);
+                    final File jarFile = folder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("abc").await();
+                    final File cacheFile = folder.getFile("jar-hashes.json").await();
+                    final QubJarHashCache cache = new QubJarHashCache(cacheFile);
+                    cache.getHash(jarFile);
+
+                    cache.write();
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setArray("jars", JSONArray.create()
+                                .add(JSONObject.create()
+                                    .setString("path", jarFile.toString())
+                                    .setNumber("size", 3)
+                                    .setString("lastModified", jarFile.getLastModified().await().toString())
+                                    .setString("sha256", "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad")))
+                            .toString(),
+                        cacheFile.getContentsAsString().await());
+
+                    final QubJarHashCache readCache = new QubJarHashCache(cacheFile);
+                    test.assertEqual("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", readCache.getHash(jarFile));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package qub;
+
+public interface QubLatestVersionCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubLatestVersionCache.class, () ->
+        {
+            runner.testGroup("constructor()", () ->
+            {
+                runner.test("with null qubFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> new QubLatestVersionCache(null),
+                        new PreConditionFailure("qubFolder cannot be null."));
+                });
+
+                runner.test("with qubFolder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(qubFolder);
+                    test.assertSame(qubFolder, cache.getQubFolder());
+                    test.assertTrue(cache.getWriteRecords());
+                });
+            });
+
+            runner.testGroup("getLatestVersion(String,String)", () ->
+            {
+                runner.test("with null publisher", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(QubFolder.get(fileSystem.getFolder("/qub/").await()));
+                    test.assertThrows(() -> cache.getLatestVersion(null, "b"),
+                        new PreConditionFailure("publisher cannot be null."));
+                });
+
+                runner.test("with empty project", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(QubFolder.get(fileSystem.getFolder("/qub/").await()));
+                    test.assertThrows(() -> cache.getLatestVersion("a", ""),
+                        new PreConditionFailure("project cannot be empty."));
+                });
+
+                runner.test("with project that isn't installed", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(QubFolder.get(fileSystem.getFolder("/qub/").await()));
+                    test.assertNull(cache.getLatestVersion("a", "b"));
+                });
+
+                runner.test("with installed versions", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().create().await();
+                    qubFolder.getProjectJSONFile("a", "b", "10").await().create().await();
+                    qubFolder.getProjectJSONFile("a", "b", "9").await().create().await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(qubFolder);
+
+                    test.assertEqual("10", cache.getLatestVersion("a", "b").toString());
+                    test.assertEqual("10", cache.getLatestVersion(ProjectSignature.create("a", "b", "1")).toString());
+                    test.assertEqual("10", new QubLatestVersionCache(qubFolder).getLatestVersion("a", "b").toString());
+                });
+
+                runner.test("with record from another cache", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().create().await();
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().create().await();
+                    test.assertEqual("2", new QubLatestVersionCache(qubFolder).getLatestVersion("a", "b").toString());
+
+                    final File recordFile = qubFolder.getProjectFolder("a", "b").await().getFile(QubLatestVersionCache.recordFileName).await();
+                    final JSONObject record = JSON.parseObject(recordFile.getContentsAsString().await()).await();
+                    test.assertEqual("2", record.getString("version").await());
+
+                    // A record that names an older version is only returned if the new cache reads
+                    // the record instead of the versions folder.
+                    recordFile.setContentsAsString(record.setString("version", "1").toString()).await();
+                    test.assertEqual("1", new QubLatestVersionCache(qubFolder).getLatestVersion("a", "b").toString());
+                });
+
+                runner.test("with record from a different versions folder last modified time", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "1").await().create().await();
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().create().await();
+                    test.assertEqual("2", new QubLatestVersionCache(qubFolder).getLatestVersion("a", "b").toString());
+
+                    final File recordFile = qubFolder.getProjectFolder("a", "b").await().getFile(QubLatestVersionCache.recordFileName).await();
+                    final JSONObject record = JSON.parseObject(recordFile.getContentsAsString().await()).await();
+                    final String versionsLastModified = record.getString("versionsLastModified").await();
+                    recordFile.setContentsAsString(record
+                        .setString("version", "1")
+                        .setString("versionsLastModified", "2000-01-01T00:00Z")
+                        .toString()).await();
+
+                    test.assertEqual("2", new QubLatestVersionCache(qubFolder).getLatestVersion("a", "b").toString());
+                    final JSONObject rewrittenRecord = JSON.parseObject(recordFile.getContentsAsString().await()).await();
+                    test.assertEqual("2", rewrittenRecord.getString("version").await());
+                    test.assertEqual(versionsLastModified, rewrittenRecord.getString("versionsLastModified").await());
+                });
+
+                runner.test("with writeRecords set to false", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().create().await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(qubFolder).setWriteRecords(false);
+
+                    test.assertEqual("2", cache.getLatestVersion("a", "b").toString());
+                    test.assertFalse(qubFolder.getProjectFolder("a", "b").await().getFile(QubLatestVersionCache.recordFileName).await().exists().await());
+                });
+
+                runner.test("after invalidate()", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                    fileSystem.createRoot("/").await();
+                    final QubFolder qubFolder = QubFolder.get(fileSystem.getFolder("/qub/").await());
+                    qubFolder.getProjectJSONFile("a", "b", "2").await().create().await();
+                    final QubLatestVersionCache cache = new QubLatestVersionCache(qubFolder);
+
+                    test.assertEqual("2", cache.getLatestVersion("a", "b").toString());
+                    cache.invalidate("a", "b");
+                    test.assertEqual("2", cache.getLatestVersion("a", "b").toString());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package qub;
+
+public interface QubModuleLibraryReconcilerTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubModuleLibraryReconciler.class, () ->
+        {
+            final Function2<Test,String,QubFolder> createQubFolder = (Test test, String rootPath) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                fileSystem.createRoot(rootPath).await();
+                return QubFolder.get(fileSystem.getFolder(rootPath + "qub/").await());
+            };
+
+            runner.testGroup("getJarFilePath(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertNull(QubModuleLibraryReconciler.getJarFilePath(null));
+                });
+
+                runner.test("with non-jar URL", (Test test) ->
+                {
+                    test.assertNull(QubModuleLibraryReconciler.getJarFilePath("file://a/b.jar"));
+                });
+
+                runner.test("with jar URL without suffix", (Test test) ->
+                {
+                    test.assertEqual("/a/b.jar", QubModuleLibraryReconciler.getJarFilePath("jar:///a/b.jar"));
+                });
+
+                runner.test("with jar URL with suffix", (Test test) ->
+                {
+                    test.assertEqual("/a/b.jar", QubModuleLibraryReconciler.getJarFilePath("jar:///a/b.jar!/"));
+                });
+            });
+
+            runner.testGroup("getQubDependency(String)", () ->
+            {
+                runner.test("with path outside of the Qub folder", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "/"), Iterable.create());
+                    test.assertNull(reconciler.getQubDependency("/other/folder/thing.jar"));
+                });
+
+                runner.test("with path in a folder that starts with the Qub folder's name", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "/"), Iterable.create());
+                    test.assertNull(reconciler.getQubDependency("/qubother/a/b/versions/1/b.jar"));
+                });
+
+                runner.test("with versions folder path", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "/"), Iterable.create());
+                    test.assertEqual(ProjectSignature.create("a", "b", "1"), reconciler.getQubDependency("/qub/a/b/versions/1/b.jar"));
+                });
+
+                runner.test("with version folder path", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "/"), Iterable.create());
+                    test.assertEqual(ProjectSignature.create("a", "b", "2"), reconciler.getQubDependency("/qub/a/b/2/b.jar"));
+                });
+
+                runner.test("with too few segments", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "/"), Iterable.create());
+                    test.assertNull(reconciler.getQubDependency("/qub/a/b.jar"));
+                });
+
+                runner.test("with Windows path with different case", (Test test) ->
+                {
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(createQubFolder.run(test, "C:/"), Iterable.create());
+                    test.assertEqual(ProjectSignature.create("a", "b", "3"), reconciler.getQubDependency("c:/QUB/a/b/versions/3/b.jar"));
+                });
+            });
+
+            runner.testGroup("reconcile(IntellijModule,QubDependenciesUpdatePlan.FileChanges,CharacterWriteStream)", () ->
+            {
+                runner.test("with added, updated, removed, and duplicate libraries", (Test test) ->
+                {
+                    final QubFolder qubFolder = createQubFolder.run(test, "/");
+                    final QubModuleLibraryReconciler reconciler = new QubModuleLibraryReconciler(qubFolder, Iterable.create(
+                        ProjectSignature.create("a", "b", "2"),
+                        ProjectSignature.create("c", "d", "1"),
+                        ProjectSignature.create("e", "f", "1")));
+                    final File intellijModuleFile = qubFolder.getFileSystem().getFile("/project/project.iml").await();
+                    intellijModuleFile.setContentsAsString(XMLDocument.create()
+                        .setRoot(XMLElement.create("module"))
+                        .toString()).await();
+                    final IntellijModule intellijModule = IntellijModule.parse(intellijModuleFile).await();
+                    for (final String compiledSourcesFilePath : Iterable.create(
+                        qubFolder.getCompiledSourcesFile("a", "b", "1").await().toString(),
+                        qubFolder.getCompiledSourcesFile("c", "d", "1").await().toString(),
+                        qubFolder.getCompiledSourcesFile("c", "d", "1").await().toString(),
+                        qubFolder.getCompiledSourcesFile("g", "h", "1").await().toString()))
+                    {
+                        intellijModule.addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://" + compiledSourcesFilePath + "!/"));
+                    }
+                    final QubDependenciesUpdatePlan.FileChanges moduleChanges = new QubDependenciesUpdatePlan().addModuleChanges("/project/project.iml");
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+
+                    reconciler.reconcile(intellijModule, moduleChanges, output);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "a/b@1 - Updated to a/b@2",
+                            "c/d@1 - No updates",
+                            "c/d@1 - Removed",
+                            "g/h@1 - Removed",
+                            "e/f@1 - Added"),
+                        Strings.getLines(output.getText().await()));
+                    test.assertEqual(Iterable.create("e/f@1"), moduleChanges.getAdded());
+                    test.assertEqual(Iterable.create("c/d@1", "g/h@1"), moduleChanges.getRemoved());
+                    test.assertEqual(Iterable.create("a/b@1"), moduleChanges.getUpdatedFrom());
+                    test.assertEqual(Iterable.create("a/b@2"), moduleChanges.getUpdatedTo());
+                    test.assertEqual(
+                        Iterable.create(
+                            "jar://" + qubFolder.getCompiledSourcesFile("a", "b", "2").await() + "!/",
+                            "jar://" + qubFolder.getCompiledSourcesFile("c", "d", "1").await() + "!/",
+                            "jar://" + qubFolder.getCompiledSourcesFile("e", "f", "1").await() + "!/"),
+                        intellijModule.getModuleLibraries().map((IntellijModuleLibrary library) -> library.getClassesUrls().first()).toList());
+                });
+            });
+        });
+    }
+}
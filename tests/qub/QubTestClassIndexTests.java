@@ -0,0 +1,185 @@
+package qub;
+
+public interface QubTestClassIndexTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestClassIndex.class, () ->
+        {
+            final Function1<Test,Folder> createProjectFolder = (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(test.getClock());
+                fileSystem.createRoot("/").await();
+                return fileSystem.createFolder("/project/").await();
+            };
+
+            runner.testGroup("constructor(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> new QubTestClassIndex(null),
+                        new PreConditionFailure("indexFile cannot be null."));
+                });
+
+                runner.test("with index file that doesn't exist", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File indexFile = projectFolder.getFile("outputs/test-classes.json").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(indexFile);
+                    test.assertSame(indexFile, index.getIndexFile());
+                });
+
+                runner.test("with index file that isn't JSON", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File indexFile = projectFolder.getFile("outputs/test-classes.json").await();
+                    indexFile.setContentsAsString("not json").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(indexFile);
+                    test.assertSame(indexFile, index.getIndexFile());
+                });
+            });
+
+            runner.testGroup("getFullClassName(String)", () ->
+            {
+                runner.test("with various paths", (Test test) ->
+                {
+                    test.assertNull(QubTestClassIndex.getFullClassName(""));
+                    test.assertNull(QubTestClassIndex.getFullClassName("tests/"));
+                    test.assertNull(QubTestClassIndex.getFullClassName("tests/.java"));
+                    test.assertNull(QubTestClassIndex.getFullClassName("sources/qub/A.java"));
+                    test.assertNull(QubTestClassIndex.getFullClassName("tests/qub/A.txt"));
+                    test.assertEqual("ATests", QubTestClassIndex.getFullClassName("tests/ATests.java"));
+                    test.assertEqual("qub.ATests", QubTestClassIndex.getFullClassName("tests/qub/ATests.java"));
+                    test.assertEqual("a.b.CTests", QubTestClassIndex.getFullClassName("tests/a/b/CTests.java"));
+                });
+            });
+
+            runner.testGroup("declaresTestMethod(String)", () ->
+            {
+                runner.test("with various source texts", (Test test) ->
+                {
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod(""));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("public class A {}"));
+                    test.assertTrue(QubTestClassIndex.declaresTestMethod("static void test(TestRunner runner)"));
+                    test.assertTrue(QubTestClassIndex.declaresTestMethod("public static void test(final TestRunner runner)"));
+                    test.assertTrue(QubTestClassIndex.declaresTestMethod("public static void test(qub.TestRunner runner)"));
+                    test.assertTrue(QubTestClassIndex.declaresTestMethod("static\n    void\n    test (\n        TestRunner runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("void test(TestRunner runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("nonstatic void test(TestRunner runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("static voidTest test(TestRunner runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("static void tests(TestRunner runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("static void test(TestRunners runner)"));
+                    test.assertFalse(QubTestClassIndex.declaresTestMethod("static void test(finalTestRunner runner)"));
+                    test.assertTrue(QubTestClassIndex.declaresTestMethod("static void main(String[] args) {} static void test(TestRunner runner) {}"));
+                });
+            });
+
+            runner.testGroup("getTestClassName(File,String)", () ->
+            {
+                runner.test("with source file outside of the tests folder", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File sourceFile = projectFolder.getFile("sources/qub/A.java").await();
+                    sourceFile.setContentsAsString("static void test(TestRunner runner) {}").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(projectFolder.getFile("test-classes.json").await());
+
+                    test.assertNull(index.getTestClassName(sourceFile, "sources/qub/A.java"));
+                });
+
+                runner.test("with test source file without a test method", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File sourceFile = projectFolder.getFile("tests/qub/ATests.java").await();
+                    sourceFile.setContentsAsString("public interface ATests {}").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(projectFolder.getFile("test-classes.json").await());
+
+                    test.assertNull(index.getTestClassName(sourceFile, "tests/qub/ATests.java"));
+                });
+
+                runner.test("with test source file with a test method", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File sourceFile = projectFolder.getFile("tests/qub/ATests.java").await();
+                    sourceFile.setContentsAsString("public interface ATests { static void test(TestRunner runner) {} }").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(projectFolder.getFile("test-classes.json").await());
+
+                    test.assertEqual("qub.ATests", index.getTestClassName(sourceFile, "tests/qub/ATests.java"));
+                });
+
+                runner.test("with indexed source file that hasn't changed", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File sourceFile = projectFolder.getFile("tests/qub/ATests.java").await();
+                    sourceFile.setContentsAsString("public interface ATests {}").await();
+                    final File indexFile = projectFolder.getFile("test-classes.json").await();
+                    indexFile.setContentsAsString(JSONObject.create()
+                        .setArray("testClasses", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", "tests/qub/ATests.java")
+                                .setString("lastModified", sourceFile.getLastModified().await().toString())
+                                .setBoolean("hasTestMethod", true)))
+                        .toString()).await();
+                    final QubTestClassIndex index = new QubTestClassIndex(indexFile);
+
+                    test.assertEqual("qub.ATests", index.getTestClassName(sourceFile, "tests/qub/ATests.java"));
+                });
+
+                runner.test("with indexed source file that has changed", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File sourceFile = projectFolder.getFile("tests/qub/ATests.java").await();
+                    sourceFile.setContentsAsString("public interface ATests {}").await();
+                    final File indexFile = projectFolder.getFile("test-classes.json").await();
+                    indexFile.setContentsAsString(JSONObject.create()
+                        .setArray("testClasses", JSONArray.create()
+                            .add(JSONObject.create()
+                                .setString("path", "tests/qub/ATests.java")
+                                .setString("lastModified", "not the last modified time")
+                                .setBoolean("hasTestMethod", true)))
+                        .toString()).await();
+                    final QubTestClassIndex index = new QubTestClassIndex(indexFile);
+
+                    test.assertNull(index.getTestClassName(sourceFile, "tests/qub/ATests.java"));
+                });
+            });
+
+            runner.testGroup("write()", () ->
+            {
+                runner.test("with indexed source files", (Test test) ->
+                {
+                    final Folder projectFolder = createProjectFolder.run(test);
+                    final File testFile = projectFolder.getFile("tests/qub/ATests.java").await();
+                    testFile.setContentsAsString("public interface ATests { static void test(TestRunner runner) {} }").await();
+                    final File helperFile = projectFolder.getFile("tests/qub/Helper.java").await();
+                    helperFile.setContentsAsString("public class Helper {}").await();
+                    final File indexFile = projectFolder.getFile("outputs/test-classes.json").await();
+                    final QubTestClassIndex index = new QubTestClassIndex(indexFile);
+                    index.getTestClassName(testFile, "tests/qub/ATests.java");
+                    index.getTestClassName(helperFile, "tests/qub/Helper.java");
+
+                    index.write();
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setArray("testClasses", JSONArray.create()
+                                .add(JSONObject.create()
+                                    .setString("path", "tests/qub/ATests.java")
+                                    .setString("lastModified", testFile.getLastModified().await().toString())
+                                    .setBoolean("hasTestMethod", true))
+                                .add(JSONObject.create()
+                                    .setString("path", "tests/qub/Helper.java")
+                                    .setString("lastModified", helperFile.getLastModified().await().toString())
+                                    .setBoolean("hasTestMethod", false)))
+                            .toString(),
+                        indexFile.getContentsAsString().await());
+
+                    final QubTestClassIndex readIndex = new QubTestClassIndex(indexFile);
+                    test.assertEqual("qub.ATests", readIndex.getTestClassName(testFile, "tests/qub/ATests.java"));
+                    test.assertNull(readIndex.getTestClassName(helperFile, "tests/qub/Helper.java"));
+                });
+            });
+        });
+    }
+}